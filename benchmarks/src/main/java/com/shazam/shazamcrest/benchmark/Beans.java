@@ -0,0 +1,91 @@
+/*
+ * Copyright 2013 Shazam Entertainment Limited
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License.
+ *
+ * You may obtain a copy of the License at http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions and limitations under the License.
+ */
+package com.shazam.shazamcrest.benchmark;
+
+import static com.shazam.shazamcrest.model.Bean.Builder.bean;
+import static com.shazam.shazamcrest.model.ChildBean.Builder.child;
+import static com.shazam.shazamcrest.model.ParentBean.Builder.parent;
+import static com.shazam.shazamcrest.model.cyclic.CircularReferenceBean.Builder.circularReferenceBean;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import com.shazam.shazamcrest.model.Bean;
+import com.shazam.shazamcrest.model.ParentBean;
+import com.shazam.shazamcrest.model.cyclic.CircularReferenceBean;
+
+/**
+ * Builds the beans compared by the benchmarks, from the model of the tests. Each call returns new instances, so that
+ * the expected and actual beans are equal but not the same.
+ */
+public class Beans {
+	static final int LIST_SIZE = 500;
+	static final int SET_SIZE = 2000;
+	static final int DEPTH = 50;
+	static final int CHILDREN = 100;
+
+	private Beans() {
+	}
+
+	/**
+	 * A bean with a few fields of simple types.
+	 */
+	public static ParentBean flat() {
+		return parent().parentString("parent").childBean("child", 1).build();
+	}
+
+	/**
+	 * A chain of nested beans.
+	 */
+	public static Bean deep() {
+		Bean bean = bean().string("leaf").integer(DEPTH).build();
+		for (int depth = DEPTH - 1; depth >= 0; depth--) {
+			bean = bean().string("node" + depth).integer(depth).array(bean).build();
+		}
+		return bean;
+	}
+
+	/**
+	 * A bean holding a large set and a large map of beans, which are serialised in the order of their json.
+	 */
+	public static Bean largeSetAndMap() {
+		Set<Bean> set = new HashSet<Bean>();
+		Map<Bean, Bean> map = new HashMap<Bean, Bean>();
+		for (int i = 0; i < SET_SIZE; i++) {
+			set.add(bean().string("element" + i).integer(i).build());
+			map.put(bean().string("key" + i).build(), bean().string("value" + i).integer(i).build());
+		}
+		return bean().string("collections").set(set).map(map).build();
+	}
+
+	/**
+	 * A graph where each child refers back to its parent.
+	 */
+	public static CircularReferenceBean cyclic() {
+		String[] children = new String[CHILDREN];
+		for (int i = 0; i < CHILDREN; i++) {
+			children[i] = "child" + i;
+		}
+		return circularReferenceBean("parent", children).build();
+	}
+
+	/**
+	 * A bean with a long list of children, and a map of as many children.
+	 */
+	public static ParentBean withList() {
+		ParentBean.Builder parent = parent().parentString("parent").childBean("child", 1);
+		for (int i = 0; i < LIST_SIZE; i++) {
+			parent.addToChildBeanList("child" + i, i).putToChildBeanMap("key" + i, child().childString("value" + i).childInteger(i));
+		}
+		return parent.build();
+	}
+}
@@ -0,0 +1,113 @@
+/*
+ * Copyright 2013 Shazam Entertainment Limited
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License.
+ *
+ * You may obtain a copy of the License at http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions and limitations under the License.
+ */
+package com.shazam.shazamcrest.benchmark;
+
+import static com.shazam.shazamcrest.matcher.Matchers.sameBeanAs;
+import static org.hamcrest.Matchers.containsString;
+
+import java.util.concurrent.TimeUnit;
+
+import org.hamcrest.StringDescription;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.shazam.shazamcrest.matcher.CustomisableMatcher;
+import com.shazam.shazamcrest.model.Bean;
+import com.shazam.shazamcrest.model.ParentBean;
+import com.shazam.shazamcrest.model.cyclic.CircularReferenceBean;
+
+/**
+ * Measures the throughput of sameBeanAs() comparing equal beans, as in a passing test. A new matcher is created for
+ * each comparison, like assertThat does. Run with <code>-prof gc</code> to measure the allocation rate.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class SameBeanAsBenchmark {
+	private ParentBean expectedFlat;
+	private ParentBean actualFlat;
+	private ParentBean differentFlat;
+	private Bean expectedDeep;
+	private Bean actualDeep;
+	private Bean expectedCollections;
+	private Bean actualCollections;
+	private CircularReferenceBean expectedCyclic;
+	private CircularReferenceBean actualCyclic;
+	private ParentBean expectedWithList;
+	private ParentBean actualWithList;
+
+	@Setup
+	public void setUp() {
+		expectedFlat = Beans.flat();
+		actualFlat = Beans.flat();
+		differentFlat = ParentBean.Builder.parent().parentString("other").childBean("child", 2).build();
+		expectedDeep = Beans.deep();
+		actualDeep = Beans.deep();
+		expectedCollections = Beans.largeSetAndMap();
+		actualCollections = Beans.largeSetAndMap();
+		expectedCyclic = Beans.cyclic();
+		actualCyclic = Beans.cyclic();
+		expectedWithList = Beans.withList();
+		actualWithList = Beans.withList();
+	}
+
+	@Benchmark
+	public boolean flatBeans() {
+		return sameBeanAs(expectedFlat).matches(actualFlat);
+	}
+
+	/**
+	 * Compares different beans and renders the diagnostic, as in a failing test.
+	 */
+	@Benchmark
+	public String flatBeansMismatch() {
+		CustomisableMatcher<ParentBean> matcher = sameBeanAs(expectedFlat);
+		matcher.matches(differentFlat);
+		StringDescription description = new StringDescription();
+		matcher.describeMismatch(differentFlat, description);
+		return description.toString();
+	}
+
+	@Benchmark
+	public boolean deepBeans() {
+		return sameBeanAs(expectedDeep).matches(actualDeep);
+	}
+
+	@Benchmark
+	public boolean largeSetsAndMaps() {
+		return sameBeanAs(expectedCollections).matches(actualCollections);
+	}
+
+	@Benchmark
+	public boolean cyclicGraphs() {
+		return sameBeanAs(expectedCyclic).matches(actualCyclic);
+	}
+
+	@Benchmark
+	public boolean ignoringManyFields() {
+		return sameBeanAs(expectedWithList)
+				.ignoring("childBean.childInteger")
+				.ignoring("childBeanList.childInteger")
+				.ignoring("childBeanMap")
+				.ignoring(containsString("String"))
+				.matches(actualWithList);
+	}
+}
@@ -0,0 +1,122 @@
+/*
+ * Copyright 2013 Shazam Entertainment Limited
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License.
+ *
+ * You may obtain a copy of the License at http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions and limitations under the License.
+ */
+package com.shazam.shazamcrest.matcher;
+
+import static java.util.Collections.emptyList;
+import static java.util.Collections.emptyMap;
+import static java.util.Collections.emptySet;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.hamcrest.Matcher;
+import org.json.JSONException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.skyscreamer.jsonassert.JSONCompare;
+import org.skyscreamer.jsonassert.JSONCompareMode;
+import org.skyscreamer.jsonassert.JSONCompareResult;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonElement;
+import com.shazam.shazamcrest.CyclicReferenceDetector;
+import com.shazam.shazamcrest.FieldsIgnorer;
+import com.shazam.shazamcrest.benchmark.Beans;
+import com.shazam.shazamcrest.model.Bean;
+import com.shazam.shazamcrest.model.ParentBean;
+import com.shazam.shazamcrest.model.cyclic.CircularReferenceBean;
+
+/**
+ * Measures the stages of the sameBeanAs() pipeline separately, so that a regression can be traced to one of them. It
+ * lives in the package of the matchers to reach the {@link GsonProvider}.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class PipelineStagesBenchmark {
+	private static final List<Class<?>> NO_TYPES = emptyList();
+	private static final List<Matcher<String>> NO_FIELDS = emptyList();
+	private static final Set<Class<?>> NO_CIRCULAR_REFERENCES = emptySet();
+	private static final Map<Class<?>, Matcher<?>> NO_CUSTOM_MATCHERS = emptyMap();
+
+	private CircularReferenceBean cyclic;
+	private Bean collections;
+	private ParentBean withList;
+	private Gson gson;
+	private Set<String> pathsToIgnore;
+	private String expectedJson;
+	private String actualJson;
+
+	@Setup
+	public void setUp() {
+		cyclic = Beans.cyclic();
+		collections = Beans.largeSetAndMap();
+		withList = Beans.withList();
+		gson = newGsonProvider().gsonForActual();
+		pathsToIgnore = new HashSet<String>();
+		pathsToIgnore.add("childBean.childInteger");
+		pathsToIgnore.add("childBeanList.childInteger");
+		pathsToIgnore.add("childBeanMap");
+		expectedJson = gson.toJson(Beans.withList());
+		actualJson = gson.toJson(Beans.withList());
+	}
+
+	@Benchmark
+	public Set<Class<?>> cyclicReferenceDetector() {
+		return CyclicReferenceDetector.getClassesWithCircularReferences(cyclic);
+	}
+
+	/**
+	 * Builds the Gson instance of a new matcher, with its type adapters.
+	 */
+	@Benchmark
+	public Gson gsonProviderCreation() {
+		return newGsonProvider().gsonForActual();
+	}
+
+	/**
+	 * Serialises a bean holding large sets and maps, which are ordered by the json of their elements.
+	 */
+	@Benchmark
+	public JsonElement gsonProviderSerialisation() {
+		return gson.toJsonTree(collections);
+	}
+
+	/**
+	 * Serialises a bean and removes the ignored paths from its tree.
+	 */
+	@Benchmark
+	public JsonElement fieldsIgnorer() {
+		return FieldsIgnorer.findPaths(gson, withList, pathsToIgnore);
+	}
+
+	@Benchmark
+	public JSONCompareResult jsonAssert() throws JSONException {
+		return JSONCompare.compareJSON(expectedJson, actualJson, JSONCompareMode.STRICT);
+	}
+
+	private static GsonProvider newGsonProvider() {
+		return new GsonProvider(NO_TYPES, NO_FIELDS, NO_CIRCULAR_REFERENCES, NO_CUSTOM_MATCHERS, true);
+	}
+}
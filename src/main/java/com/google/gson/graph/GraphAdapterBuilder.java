@@ -22,6 +22,7 @@ import com.google.gson.reflect.TypeToken;
 import com.google.gson.stream.JsonReader;
 import com.google.gson.stream.JsonToken;
 import com.google.gson.stream.JsonWriter;
+import com.shazam.shazamcrest.FlightRecorderEvents;
 
 import java.io.IOException;
 import java.lang.reflect.Type;
@@ -108,6 +109,7 @@ public final class GraphAdapterBuilder {
 					}
 
 					if (writeEntireGraph) {
+						Object event = FlightRecorderEvents.get().beginGraphWrite();
 						graphThreadLocal.set(graph);
 						try {
 							out.beginObject();
@@ -120,6 +122,9 @@ public final class GraphAdapterBuilder {
 						} finally {
 							graphThreadLocal.remove();
 						}
+						if (event != null) {
+							FlightRecorderEvents.get().endGraphWrite(event, value.getClass(), graph.map.size());
+						}
 					} else {
 						out.value(element.id);
 					}
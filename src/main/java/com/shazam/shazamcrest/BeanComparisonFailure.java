@@ -0,0 +1,34 @@
+/*
+ * Copyright 2013 Shazam Entertainment Limited
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License.
+ * 
+ * You may obtain a copy of the License at http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions and limitations under the License.
+ */
+package com.shazam.shazamcrest;
+
+import java.util.List;
+
+import org.junit.ComparisonFailure;
+
+/**
+ * {@link ComparisonFailure} which also holds the structured list of the differences between the beans.
+ */
+public class BeanComparisonFailure extends ComparisonFailure {
+	private static final long serialVersionUID = 1L;
+	private final transient List<Difference> differences;
+
+	public BeanComparisonFailure(String message, String expected, String actual, List<Difference> differences) {
+		super(message, expected, actual);
+		this.differences = differences;
+	}
+
+	/**
+	 * @return the differences between the beans, computed on first access
+	 */
+	public List<Difference> getDifferences() {
+		return differences;
+	}
+}
@@ -0,0 +1,144 @@
+/*
+ * Copyright 2013 Shazam Entertainment Limited
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License.
+ * 
+ * You may obtain a copy of the License at http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions and limitations under the License.
+ */
+package com.shazam.shazamcrest;
+
+import static java.lang.Math.max;
+import static java.lang.Math.min;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Trims the expected and actual json to a window of context lines around their differences, replacing the lines in
+ * between with a marker stating which lines have been omitted.
+ * <p>
+ * The lines before the first difference and after the last one are shared by both documents, so they are elided the
+ * same way on both sides and the diff shown by the IDE still lines up. When the documents have the same number of
+ * lines the equal lines between the differences are elided too, otherwise the whole region between the first and the
+ * last difference is kept. Each trimmed document is limited to a fixed number of lines.
+ * <p>
+ * The documents are trimmed once they have been rendered in full, so trimming shortens the failure reported but does
+ * not bound the memory used to build it.
+ */
+class ComparisonWindow {
+	/**
+	 * System property setting the number of context lines to keep around the differences. When it is not set the
+	 * documents are not trimmed.
+	 */
+	static final String CONTEXT_LINES_PROPERTY = "shazamcrest.contextLines";
+	static final int MAX_LINES = 1000;
+
+	private final String[] expected;
+	private final String[] actual;
+	private final int contextLines;
+
+	private ComparisonWindow(String expected, String actual, int contextLines) {
+		this.expected = expected.split("\n", -1);
+		this.actual = actual.split("\n", -1);
+		this.contextLines = max(0, contextLines);
+	}
+
+	/**
+	 * @return the number of context lines set with {@link #CONTEXT_LINES_PROPERTY}, or null if it is not set or is
+	 *         not a number
+	 */
+	static Integer contextLines() {
+		String contextLines = System.getProperty(CONTEXT_LINES_PROPERTY);
+		if (contextLines == null) {
+			return null;
+		}
+		try {
+			return Integer.valueOf(contextLines.trim());
+		} catch (NumberFormatException e) {
+			return null;
+		}
+	}
+
+	/**
+	 * @return the expected and actual documents trimmed around their differences
+	 */
+	static String[] trim(String expected, String actual, int contextLines) {
+		if (expected.equals(actual)) {
+			return new String[] { expected, actual };
+		}
+		return new ComparisonWindow(expected, actual, contextLines).trim();
+	}
+
+	private String[] trim() {
+		int prefix = 0;
+		while (prefix < min(expected.length, actual.length) && expected[prefix].equals(actual[prefix])) {
+			prefix++;
+		}
+		int suffix = 0;
+		while (suffix < min(expected.length, actual.length) - prefix
+				&& expected[expected.length - 1 - suffix].equals(actual[actual.length - 1 - suffix])) {
+			suffix++;
+		}
+
+		if (expected.length == actual.length) {
+			List<int[]> windows = windowsAroundDifferingLines(prefix, expected.length - suffix);
+			return new String[] { render(expected, windows), render(actual, windows) };
+		}
+		return new String[] {
+				render(expected, window(prefix, expected.length - suffix, expected.length)),
+				render(actual, window(prefix, actual.length - suffix, actual.length)) };
+	}
+
+	private List<int[]> windowsAroundDifferingLines(int from, int to) {
+		List<int[]> windows = new ArrayList<int[]>();
+		int[] current = null;
+		for (int i = from; i < to; i++) {
+			if (expected[i].equals(actual[i])) {
+				continue;
+			}
+			int windowFrom = max(0, i - contextLines);
+			int windowTo = min(expected.length, i + contextLines + 1);
+			if (current != null && windowFrom <= current[1]) {
+				current[1] = windowTo;
+			} else {
+				current = new int[] { windowFrom, windowTo };
+				windows.add(current);
+			}
+		}
+		return windows;
+	}
+
+	private List<int[]> window(int from, int to, int length) {
+		List<int[]> windows = new ArrayList<int[]>();
+		windows.add(new int[] { max(0, from - contextLines), min(length, to + contextLines) });
+		return windows;
+	}
+
+	private static String render(String[] lines, List<int[]> windows) {
+		StringBuilder rendering = new StringBuilder();
+		int next = 0;
+		int rendered = 0;
+		for (int[] window : windows) {
+			if (rendered >= MAX_LINES) {
+				break;
+			}
+			appendElision(rendering, next, window[0]);
+			int to = min(window[1], window[0] + MAX_LINES - rendered);
+			for (int i = window[0]; i < to; i++) {
+				rendering.append(lines[i]).append("\n");
+			}
+			rendered += to - window[0];
+			next = to;
+		}
+		appendElision(rendering, next, lines.length);
+		return rendering.substring(0, rendering.length() - 1);
+	}
+
+	private static void appendElision(StringBuilder rendering, int from, int to) {
+		if (from < to) {
+			rendering.append("[... lines ").append(from + 1).append("-").append(to).append(" omitted ...]\n");
+		}
+	}
+}
@@ -10,11 +10,18 @@
 package com.shazam.shazamcrest;
 
 import java.lang.reflect.Field;
+import java.time.temporal.TemporalAccessor;
+import java.time.temporal.TemporalAmount;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Date;
 import java.util.HashSet;
 import java.util.IdentityHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 
 import static java.lang.reflect.Modifier.isStatic;
 import static java.util.Collections.newSetFromMap;
@@ -24,9 +31,11 @@ import static org.apache.commons.lang3.ClassUtils.isPrimitiveOrWrapper;
  * Detects classes with fields that have circular reference and returns a set of those classes.
  */
 public class CyclicReferenceDetector {
+    private static final Map<Class<?>, Field[]> INSTANCE_FIELDS = new ConcurrentHashMap<Class<?>, Field[]>();
 
     private Set<Object> nodesInPaths = newSetFromMap(new IdentityHashMap<Object, Boolean>());
     private Set<Object> objectsWithCircularReferences = newSetFromMap(new IdentityHashMap<Object, Boolean>());
+    private long visitedObjects;
     
     /**
      * Returns a set of classes that have circular reference.
@@ -34,13 +43,32 @@ public class CyclicReferenceDetector {
      * @param object the object to check if it has circular reference fields
      */
     public static Set<Class<?>> getClassesWithCircularReferences(Object object) {
+        return getClassesWithCircularReferences(object, null);
+    }
+
+    /**
+     * Returns a set of classes that have circular reference, and counts the objects visited to find them.
+     *
+     * @param object the object to check if it has circular reference fields
+     * @param visitedObjects the counter to add the number of visited objects to, or null
+     */
+    public static Set<Class<?>> getClassesWithCircularReferences(Object object, AtomicLong visitedObjects) {
         CyclicReferenceDetector cyclicReferenceDetector = new CyclicReferenceDetector();
+        Object event = FlightRecorderEvents.get().beginCycleDetection();
 
         if (object != null) {
             cyclicReferenceDetector.detectCircularReferenceOnObject(object);
         }
+        if (visitedObjects != null) {
+            visitedObjects.addAndGet(cyclicReferenceDetector.visitedObjects);
+        }
 
-        return getClasses(cyclicReferenceDetector.objectsWithCircularReferences);
+        Set<Class<?>> classes = getClasses(cyclicReferenceDetector.objectsWithCircularReferences);
+        if (event != null) {
+            FlightRecorderEvents.get().endCycleDetection(event, object == null ? null : object.getClass(),
+                    cyclicReferenceDetector.visitedObjects, classes.size());
+        }
+        return classes;
     }
 
     /**
@@ -68,23 +96,38 @@ public class CyclicReferenceDetector {
             return;
         }
 
-        for (Field field : clazz.getDeclaredFields()) {
-            field.setAccessible(true);
-
-            if (!isStatic(field.getModifiers())) {
-                try {
-                    Object fieldValue = field.get(object);
-                    if (fieldValue != null) {
-                        detectCircularReferenceOnObject(fieldValue);
-                    }
-                } catch (IllegalAccessException e) {
-                    throw new RuntimeException(e);
+        for (Field field : instanceFieldsOf(clazz)) {
+            try {
+                Object fieldValue = field.get(object);
+                if (fieldValue != null) {
+                    detectCircularReferenceOnObject(fieldValue);
                 }
+            } catch (IllegalAccessException e) {
+                throw new RuntimeException(e);
             }
         }
         detectCircularReferencesFromTheSuperClass(object, clazz);
     }
 
+    /**
+     * Returns the accessible instance fields declared by the class, looked up once per class.
+     */
+    private static Field[] instanceFieldsOf(Class<?> clazz) {
+        Field[] fields = INSTANCE_FIELDS.get(clazz);
+        if (fields == null) {
+            List<Field> instanceFields = new ArrayList<Field>();
+            for (Field field : clazz.getDeclaredFields()) {
+                if (!isStatic(field.getModifiers())) {
+                    field.setAccessible(true);
+                    instanceFields.add(field);
+                }
+            }
+            fields = instanceFields.toArray(new Field[instanceFields.size()]);
+            INSTANCE_FIELDS.put(clazz, fields);
+        }
+        return fields;
+    }
+
     /**
      * Detects circular reference on a given field.
      * If a field is a {@link Iterable} or a {@link Map}, loops through the values and
@@ -94,6 +137,7 @@ public class CyclicReferenceDetector {
      */
     @SuppressWarnings({ "unchecked", "rawtypes" })
 	private void detectCircularReferenceOnObject(Object object) {
+        visitedObjects++;
         boolean isValid = validateAnObject(object);
         boolean isInPath = nodesInPaths.contains(object);
 
@@ -160,11 +204,12 @@ public class CyclicReferenceDetector {
 
     /**
      * Checks to see if the given object is primitive or wrapper class, {@link String}, {@link Class}, instance of {@link Iterable},
-     * instance of {@link Map} or instance of {@link Enum}.
+     * instance of {@link Map}, instance of {@link Enum} or a date/time value.
      *
      * @param object The object to validate
      * @return true if the object is not primitive/wrapper class and not an instance of
-     * 			{@link String}, {@link Iterable}, {@link Map} or {@link Enum})
+     * 			{@link String}, {@link Iterable}, {@link Map}, {@link Enum}, {@link Date}, {@link TemporalAccessor}
+     * 			or {@link TemporalAmount})
      */
     private boolean validateAnObject(Object object) {
         return !isPrimitiveOrWrapper(object.getClass())
@@ -172,6 +217,9 @@ public class CyclicReferenceDetector {
                 && object.getClass() != Class.class
                 && !(object instanceof Iterable)
                 && !(object instanceof Map)
-                && !(object instanceof Enum);
+                && !(object instanceof Enum)
+                && !(object instanceof Date)
+                && !(object instanceof TemporalAccessor)
+                && !(object instanceof TemporalAmount);
     }
 }
\ No newline at end of file
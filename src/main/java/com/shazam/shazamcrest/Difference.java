@@ -0,0 +1,117 @@
+/*
+ * Copyright 2013 Shazam Entertainment Limited
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License.
+ * 
+ * You may obtain a copy of the License at http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions and limitations under the License.
+ */
+package com.shazam.shazamcrest;
+
+import com.google.gson.JsonElement;
+
+/**
+ * A single difference between the expected and the actual bean, addressed by the JSON Pointer of the value in their
+ * json representation. The values are only rendered when requested.
+ */
+public class Difference {
+	/**
+	 * The kind of difference.
+	 */
+	public enum Kind {
+		/** The value is present in both beans but differs. */
+		CHANGED,
+		/** The field or element is expected but missing from the actual bean. */
+		MISSING,
+		/** The field or element is in the actual bean but not expected. */
+		UNEXPECTED
+	}
+
+	private final String path;
+	private final Kind kind;
+	private final JsonElement expected;
+	private final JsonElement actual;
+
+	public Difference(String path, Kind kind, JsonElement expected, JsonElement actual) {
+		this.path = path;
+		this.kind = kind;
+		this.expected = expected;
+		this.actual = actual;
+	}
+
+	/**
+	 * The path addresses the trees as they are compared: the elements of the lists compared in any order are moved to
+	 * the position of their expected counterpart, those of the lists matched by key are aligned by key with the equal
+	 * pairs removed, and sampled arrays only hold their sample. Within those lists the indexes are therefore not the
+	 * positions of the elements in the actual bean.
+	 *
+	 * @return the JSON Pointer of the value, e.g. "/childBeanList/1/childString", or "" for the whole bean
+	 */
+	public String getPath() {
+		return path;
+	}
+
+	public Kind getKind() {
+		return kind;
+	}
+
+	/**
+	 * @return the json representation of the expected value, or null if it is unexpected
+	 */
+	public String getExpected() {
+		return expected == null ? null : expected.toString();
+	}
+
+	/**
+	 * @return the json representation of the actual value, or null if it is missing
+	 */
+	public String getActual() {
+		return actual == null ? null : actual.toString();
+	}
+
+	/**
+	 * @param parentPath the JSON Pointer of the compared beans in an enclosing structure, e.g. "/3"
+	 * @return the same difference, addressed from the enclosing structure
+	 */
+	public Difference at(String parentPath) {
+		return new Difference(parentPath + path, kind, expected, actual);
+	}
+
+	/**
+	 * Differences are equal if they have the same path, kind and values, compared without rendering them.
+	 */
+	@Override
+	public boolean equals(Object object) {
+		if (!(object instanceof Difference)) {
+			return false;
+		}
+		Difference other = (Difference) object;
+		return path.equals(other.path) && kind == other.kind && areEqual(expected, other.expected) && areEqual(actual, other.actual);
+	}
+
+	@Override
+	public int hashCode() {
+		return 31 * (31 * (31 * path.hashCode() + kind.hashCode()) + hashCodeOf(expected)) + hashCodeOf(actual);
+	}
+
+	private static boolean areEqual(JsonElement element, JsonElement other) {
+		return element == null ? other == null : element.equals(other);
+	}
+
+	private static int hashCodeOf(JsonElement element) {
+		return element == null ? 0 : element.hashCode();
+	}
+
+	@Override
+	public String toString() {
+		switch (kind) {
+		case MISSING:
+			return path + ": missing " + getExpected();
+		case UNEXPECTED:
+			return path + ": unexpected " + getActual();
+		default:
+			return path + ": expected " + getExpected() + " but was " + getActual();
+		}
+	}
+}
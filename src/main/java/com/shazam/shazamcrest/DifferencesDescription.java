@@ -0,0 +1,42 @@
+/*
+ * Copyright 2013 Shazam Entertainment Limited
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License.
+ *
+ * You may obtain a copy of the License at http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions and limitations under the License.
+ */
+package com.shazam.shazamcrest;
+
+/**
+ * {@link ComparisonDescription} in which the matchers only record the structured differences of the beans, up to a
+ * limit, without rendering their json. The rendering is left to whoever reports the differences, e.g.
+ * {@link SoftAssertions}.
+ */
+public class DifferencesDescription extends ComparisonDescription {
+	private final int differenceLimit;
+	private boolean limitReached;
+
+	/**
+	 * @param differenceLimit the maximum number of differences to record
+	 */
+	public DifferencesDescription(int differenceLimit) {
+		this.differenceLimit = differenceLimit;
+	}
+
+	public int getDifferenceLimit() {
+		return differenceLimit;
+	}
+
+	/**
+	 * @return true if the comparison stopped at the limit, so that there may be more differences than the ones recorded
+	 */
+	public boolean isLimitReached() {
+		return limitReached;
+	}
+
+	public void setLimitReached(boolean limitReached) {
+		this.limitReached = limitReached;
+	}
+}
@@ -9,65 +9,98 @@
  */
 package com.shazam.shazamcrest;
 
-import static com.google.common.collect.Lists.newArrayList;
-import static com.google.common.collect.Sets.newTreeSet;
 import static java.lang.Math.max;
 import static java.util.Arrays.asList;
+import static java.util.Collections.sort;
 
+import java.util.ArrayList;
 import java.util.Collection;
-import java.util.Comparator;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
-import java.util.Map;
 import java.util.Set;
-import java.util.TreeSet;
 import java.util.regex.Pattern;
 
 import com.google.gson.Gson;
 import com.google.gson.JsonArray;
 import com.google.gson.JsonElement;
-import com.google.gson.JsonParser;
+import com.google.gson.JsonNull;
 
 /**
  * Responsible for traversing the Json tree and ignore the specified set of field paths.
  */
 public class FieldsIgnorer {
-	public static final String MARKER = "!_TO_BE_SORTED_!";
 	
 	public static JsonElement findPaths(Gson gson, Object object, Set<String> pathsToFind) {
-		JsonParser jsonParser = new JsonParser();
-		JsonElement jsonElement = jsonParser.parse(gson.toJson(object));
-		
-		JsonElement filteredJson = findPaths(jsonElement, pathsToFind);
-		if (object != null && (Set.class.isAssignableFrom(object.getClass()) || Map.class.isAssignableFrom(object.getClass()))) {
-			return sortArray(filteredJson);
-		}
-		return filteredJson;
+		return findPaths(serialise(gson, object), pathsToFind);
 	}
 
-	private static JsonElement findPaths(JsonElement jsonElement, Set<String> pathsToFind) {
-		if (pathsToFind.isEmpty()) {
-			return jsonElement;
+	/**
+	 * Serialises the object into a tree, whose paths can then be ignored with
+	 * {@link #findPaths(UnorderedJsonTreeWriter, Set)}.
+	 */
+	public static UnorderedJsonTreeWriter serialise(Gson gson, Object object) {
+		UnorderedJsonTreeWriter jsonTreeWriter = new UnorderedJsonTreeWriter();
+		if (object == null) {
+			gson.toJson(JsonNull.INSTANCE, jsonTreeWriter);
+		} else {
+			gson.toJson(object, object.getClass(), jsonTreeWriter);
 		}
+		return jsonTreeWriter;
+	}
+
+	/**
+	 * Ignores the given paths in a serialised tree, sorting again the sets and maps whose fields have been ignored.
+	 */
+	public static JsonElement findPaths(UnorderedJsonTreeWriter jsonTreeWriter, Set<String> pathsToFind) {
+		return findPaths(jsonTreeWriter, pathsToFind, new HashSet<String>());
+	}
+
+	/**
+	 * Ignores the given paths in a serialised tree, sorting again the sets and maps whose fields have been ignored, and
+	 * adds the field paths of those sets and maps to sortedPaths.
+	 */
+	public static JsonElement findPaths(UnorderedJsonTreeWriter jsonTreeWriter, Set<String> pathsToFind, Set<String> sortedPaths) {
+		JsonElement jsonElement = jsonTreeWriter.get();
 		
-		String pathToFind = headOf(pathsToFind);
-		List<String> pathSegments = asList(pathToFind.split(Pattern.quote(".")));
-		try {
-			findPath(jsonElement, pathToFind, pathSegments);
-		} catch (IllegalArgumentException e) {
-			throw new IllegalArgumentException(pathToFind + " does not exist");
-		}
-		return findPaths(jsonElement, removePathFromSet(pathsToFind, pathToFind));
+		UnorderedArrays unorderedArrays = new UnorderedArrays(jsonTreeWriter, new HashSet<String>(), sortedPaths);
+		findPaths(jsonElement, pathsToFind, unorderedArrays);
+		unorderedArrays.sortIfUnordered("", jsonElement);
+		return jsonElement;
+	}
+
+	/**
+	 * Ignores the given paths in a tree which has not been serialised from a bean, e.g. parsed from a file. Its arrays
+	 * are kept in their order.
+	 */
+	public static JsonElement findPaths(JsonElement jsonElement, Set<String> pathsToFind) {
+		return findPaths(jsonElement, pathsToFind, new HashSet<String>());
 	}
 
-	private static Set<String> removePathFromSet(Set<String> setToRemoveFrom, String stringToRemove) {
-		Set<String> set = new HashSet<String>(setToRemoveFrom);
-		set.remove(stringToRemove);
-		return set;
+	/**
+	 * Ignores the given paths in a tree which has not been serialised from a bean, e.g. parsed from a file, sorting
+	 * again the arrays at pathsToSort, e.g. the paths sorted in the tree of the bean it is compared with. The other
+	 * arrays are kept in their order.
+	 */
+	public static JsonElement findPaths(JsonElement jsonElement, Set<String> pathsToFind, Set<String> pathsToSort) {
+		UnorderedArrays unorderedArrays = new UnorderedArrays(new UnorderedJsonTreeWriter(), pathsToSort, new HashSet<String>());
+		findPaths(jsonElement, pathsToFind, unorderedArrays);
+		unorderedArrays.sortIfUnordered("", jsonElement);
+		return jsonElement;
+	}
+
+	private static void findPaths(JsonElement jsonElement, Set<String> pathsToFind, UnorderedArrays unorderedArrays) {
+		for (String pathToFind : pathsToFind) {
+			List<String> pathSegments = asList(pathToFind.split(Pattern.quote(".")));
+			try {
+				findPath(jsonElement, "", pathToFind, pathSegments, unorderedArrays);
+			} catch (IllegalArgumentException e) {
+				throw new IllegalArgumentException(pathToFind + " does not exist");
+			}
+		}
 	}
 
-	private static void findPath(JsonElement jsonElement, String pathToFind, final List<String> pathSegments) {
+	private static void findPath(JsonElement jsonElement, String path, String pathToFind, final List<String> pathSegments, UnorderedArrays unorderedArrays) {
 		String field = headOf(pathSegments);
 		
 		if (jsonElement.isJsonArray()) {
@@ -77,7 +110,7 @@ public class FieldsIgnorer {
 				if (arrayElement.isJsonNull()) {
 					continue;
 				}
-				findPath(arrayElement, pathToFind, pathSegments);
+				findPath(arrayElement, path, pathToFind, pathSegments, unorderedArrays);
 			}
 		} else {
 			if (pathSegments.size() == 1) {
@@ -85,36 +118,70 @@ public class FieldsIgnorer {
 			} else {
 				JsonElement child = jsonElement.getAsJsonObject().get(field);
 				if (child == null) {
-					child = jsonElement.getAsJsonObject().get(MARKER + field);
-					if (child == null) {
-						return;
-					}
-					List<String> tail = pathSegments.subList(1, pathSegments.size());
-					findPath(child, pathToFind, tail);
-					
-					child = sortArray(child);
-					jsonElement.getAsJsonObject().add(MARKER + field, child);
-				} else {
-					List<String> tail = pathSegments.subList(1, pathSegments.size());
-					findPath(child, pathToFind, tail);
+					return;
 				}
+				String childPath = path.isEmpty() ? field : path + "." + field;
+				List<String> tail = pathSegments.subList(1, pathSegments.size());
+				findPath(child, childPath, pathToFind, tail, unorderedArrays);
+				
+				unorderedArrays.sortIfUnordered(childPath, child);
 			}
 		}
 	}
 	
-	private static JsonElement sortArray(JsonElement jsonElement) {
-		TreeSet<JsonElement> orderedSet = newTreeSet(new Comparator<JsonElement>() {
-			@Override
-			public int compare(JsonElement o1, JsonElement o2) {
-				return o1.toString().compareTo(o2.toString());
+	/**
+	 * Tells which arrays of a tree are unordered, either marked by the writer which serialised the tree or found at
+	 * the given paths, and records the paths of the arrays it sorts.
+	 */
+	private static class UnorderedArrays {
+		private final UnorderedJsonTreeWriter jsonTreeWriter;
+		private final Set<String> pathsToSort;
+		private final Set<String> sortedPaths;
+
+		UnorderedArrays(UnorderedJsonTreeWriter jsonTreeWriter, Set<String> pathsToSort, Set<String> sortedPaths) {
+			this.jsonTreeWriter = jsonTreeWriter;
+			this.pathsToSort = pathsToSort;
+			this.sortedPaths = sortedPaths;
+		}
+
+		void sortIfUnordered(String path, JsonElement jsonElement) {
+			if (jsonTreeWriter.isUnordered(jsonElement) || (jsonElement.isJsonArray() && pathsToSort.contains(path))) {
+				sortArray(jsonElement);
+				sortedPaths.add(path);
 			}
-		});
-		orderedSet.addAll(newArrayList(jsonElement.getAsJsonArray().iterator()));
-		JsonArray jsonArray = new JsonArray();
-		for (JsonElement element : orderedSet) {
-			jsonArray.add(element);
 		}
-		return jsonArray;
+	}
+
+	private static void sortArray(JsonElement jsonElement) {
+		JsonArray jsonArray = jsonElement.getAsJsonArray();
+		List<RenderedElement> renderedElements = new ArrayList<RenderedElement>();
+		for (JsonElement element : jsonArray) {
+			renderedElements.add(new RenderedElement(element));
+		}
+		sort(renderedElements);
+		
+		for (int i = 0; i < renderedElements.size(); i++) {
+			jsonArray.set(i, renderedElements.get(i).element);
+		}
+	}
+
+	/**
+	 * Pairs a {@link JsonElement} with its Json representation, so that each element is rendered only once while
+	 * sorting. Elements with the same representation are all retained.
+	 */
+	private static class RenderedElement implements Comparable<RenderedElement> {
+		private final JsonElement element;
+		private final String json;
+
+		RenderedElement(JsonElement element) {
+			this.element = element;
+			this.json = element.toString();
+		}
+
+		@Override
+		public int compareTo(RenderedElement other) {
+			return json.compareTo(other.json);
+		}
 	}
 
 	private static void ignorePath(JsonElement jsonElement, String pathToIgnore) {
@@ -123,7 +190,6 @@ public class FieldsIgnorer {
 				throw new IllegalArgumentException();
 			}
 			jsonElement.getAsJsonObject().remove(getLastSegmentOf(pathToIgnore));
-			jsonElement.getAsJsonObject().remove(MARKER + getLastSegmentOf(pathToIgnore));
 		}
 	}
 	
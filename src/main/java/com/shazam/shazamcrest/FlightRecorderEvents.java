@@ -0,0 +1,79 @@
+/*
+ * Copyright 2013 Shazam Entertainment Limited
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License.
+ *
+ * You may obtain a copy of the License at http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions and limitations under the License.
+ */
+package com.shazam.shazamcrest;
+
+/**
+ * Emits Java Flight Recorder events around the phases of the comparisons, the detection of circular references and
+ * the serialisation of object graphs, so that the time spent in assertions shows in the recordings of test suites.
+ * <p>
+ * The events are only emitted on Java 11 and later, when they are enabled in the recording; otherwise the methods of
+ * this class do nothing. Each begin method returns the begun event, or null if it is not recorded, to be passed to the
+ * matching end method.
+ */
+public class FlightRecorderEvents {
+	private static final String IMPLEMENTATION = "com.shazam.shazamcrest.jfr.JdkFlightRecorderEvents";
+	private static final FlightRecorderEvents INSTANCE = create();
+
+	protected FlightRecorderEvents() {
+	}
+
+	public static FlightRecorderEvents get() {
+		return INSTANCE;
+	}
+
+	public Object beginPhase() {
+		return null;
+	}
+
+	/**
+	 * @param phase the name of the phase, see {@link com.shazam.shazamcrest.matcher.PhaseListener.Phase}
+	 * @param beanType the class of the root bean, or null
+	 * @param bytes the length in UTF-8 of the json built or rendered in the phase, or -1
+	 * @param nodes the number of objects or json values visited in the phase, or -1
+	 */
+	public void endPhase(Object event, String phase, Class<?> beanType, long bytes, long nodes) {
+	}
+
+	public Object beginCycleDetection() {
+		return null;
+	}
+
+	/**
+	 * @param rootType the class of the object searched for circular references
+	 * @param visitedObjects the number of objects visited
+	 * @param circularReferenceTypes the number of classes found with circular references
+	 */
+	public void endCycleDetection(Object event, Class<?> rootType, long visitedObjects, int circularReferenceTypes) {
+	}
+
+	public Object beginGraphWrite() {
+		return null;
+	}
+
+	/**
+	 * @param rootType the class of the first object of the graph
+	 * @param nodes the number of objects written in the graph
+	 */
+	public void endGraphWrite(Object event, Class<?> rootType, long nodes) {
+	}
+
+	/**
+	 * Loads the events of the flight recorder if they have been compiled and the JVM supports them.
+	 */
+	private static FlightRecorderEvents create() {
+		try {
+			return (FlightRecorderEvents) Class.forName(IMPLEMENTATION).getDeclaredConstructor().newInstance();
+		} catch (Exception e) {
+			return new FlightRecorderEvents();
+		} catch (LinkageError e) {
+			return new FlightRecorderEvents();
+		}
+	}
+}
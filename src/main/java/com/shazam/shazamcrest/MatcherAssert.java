@@ -9,11 +9,17 @@
 */
 package com.shazam.shazamcrest;
 
+import java.util.List;
+
 import org.hamcrest.Description;
 import org.hamcrest.Matcher;
 import org.junit.ComparisonFailure;
 
+import com.shazam.shazamcrest.matcher.CustomisableMatcher;
+import com.shazam.shazamcrest.matcher.MatcherConfiguration;
+
 import static com.shazam.shazamcrest.ResultComparison.containsComparableJson;
+import static com.shazam.shazamcrest.matcher.Matchers.allSameBeansAs;
 
 /**
  * Modified version of {@link org.hamcrest.MatcherAssert}. If the matcher doesn't match, uses
@@ -22,6 +28,30 @@ import static com.shazam.shazamcrest.ResultComparison.containsComparableJson;
  * pop-up window highlighting the String differences.
  */
 public class MatcherAssert {
+	/**
+	 * Checks that each actual bean is the same as the expected bean at the same position, comparing all the pairs
+	 * before reporting the differing ones together.
+	 *
+	 * @param actualBeans the beans to check
+	 * @param expectedBeans the expected beans, in the same order
+	 * @param configuration configures the comparison of each pair, e.g. the fields to ignore
+	 * @see com.shazam.shazamcrest.matcher.Matchers#allSameBeansAs(List, MatcherConfiguration)
+	 */
+	public static <T> void assertAllSameBeans(List<T> actualBeans, List<T> expectedBeans, MatcherConfiguration<T> configuration) {
+		assertThat(actualBeans, allSameBeansAs(expectedBeans, configuration));
+	}
+
+	/**
+	 * @see #assertAllSameBeans(List, List, MatcherConfiguration)
+	 */
+	public static <T> void assertAllSameBeans(List<T> actualBeans, List<T> expectedBeans) {
+		assertAllSameBeans(actualBeans, expectedBeans, new MatcherConfiguration<T>() {
+			@Override
+			public void configure(CustomisableMatcher<T> matcher) {
+			}
+		});
+	}
+
 	/**
 	 * @see org.hamcrest.MatcherAssert#assertThat(Object, Matcher)
 	 */
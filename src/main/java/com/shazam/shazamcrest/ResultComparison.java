@@ -19,8 +19,9 @@ import org.junit.ComparisonFailure;
  */
 class ResultComparison {
 	/**
-	 * Throws a {@link ComparisonFailure} if the description passed in is of type {@link ComparisonDescription},
-	 * and the mismatch has been defined as a comparison failure.
+	 * Throws a {@link BeanComparisonFailure} if the description passed in is of type {@link ComparisonDescription},
+	 * and the mismatch has been defined as a comparison failure. The expected and actual json are trimmed around their
+	 * differences if the {@link ComparisonWindow#CONTEXT_LINES_PROPERTY} system property is set.
 	 * 
 	 * @param reason the {@link MatcherAssert#assertThat(String, Object, org.hamcrest.Matcher)} reason
 	 * @param description the {@link Description} which potentially holds the comparison failure information
@@ -30,10 +31,19 @@ class ResultComparison {
 		if (description instanceof ComparisonDescription) {
 			ComparisonDescription shazamDescription = (ComparisonDescription) description;
 			if (shazamDescription.isComparisonFailure()) {
-				throw new ComparisonFailure(
+				String expected = shazamDescription.getExpected();
+				String actual = shazamDescription.getActual();
+				Integer contextLines = ComparisonWindow.contextLines();
+				if (contextLines != null && expected != null && actual != null) {
+					String[] window = ComparisonWindow.trim(expected, actual, contextLines);
+					expected = window[0];
+					actual = window[1];
+				}
+				throw new BeanComparisonFailure(
 						comparisonFailureMessage(reason, shazamDescription),
-						shazamDescription.getExpected(),
-						shazamDescription.getActual()
+						expected,
+						actual,
+						shazamDescription.getDifferences()
 				);
 			}
 		}
@@ -0,0 +1,172 @@
+/*
+ * Copyright 2013 Shazam Entertainment Limited
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License.
+ *
+ * You may obtain a copy of the License at http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions and limitations under the License.
+*/
+package com.shazam.shazamcrest;
+
+import static org.apache.commons.lang3.StringUtils.isNotBlank;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.hamcrest.Matcher;
+import org.hamcrest.StringDescription;
+import org.junit.rules.Verifier;
+
+/**
+ * Collects the failed assertions of a test instead of throwing on the first one, and reports them all at the end,
+ * either from {@link #assertAll()} or as a JUnit rule:
+ * <pre>
+ * &#64;Rule
+ * public SoftAssertions softly = new SoftAssertions();
+ * </pre>
+ * The failures of bean comparisons are recorded as their structured differences, up to a limit per assertion, without
+ * rendering the json of the beans. The differences are only rendered in the final report, where identical failures
+ * appear once.
+ */
+public class SoftAssertions extends Verifier {
+	private static final int DEFAULT_DIFFERENCES_PER_ASSERTION = 10;
+
+	private final int differencesPerAssertion;
+	private final Map<Failure, Integer> failures = new LinkedHashMap<Failure, Integer>();
+
+	public SoftAssertions() {
+		this(DEFAULT_DIFFERENCES_PER_ASSERTION);
+	}
+
+	/**
+	 * @param differencesPerAssertion the maximum number of differences recorded for each failed assertion
+	 */
+	public SoftAssertions(int differencesPerAssertion) {
+		if (differencesPerAssertion < 1) {
+			throw new IllegalArgumentException("Differences per assertion must be at least 1, was " + differencesPerAssertion);
+		}
+		this.differencesPerAssertion = differencesPerAssertion;
+	}
+
+	/**
+	 * @see MatcherAssert#assertThat(Object, Matcher)
+	 */
+	public <T> void assertThat(T actual, Matcher<? super T> matcher) {
+		assertThat("", actual, matcher);
+	}
+
+	/**
+	 * Records the failure, if the object does not match, instead of throwing it.
+	 *
+	 * @see MatcherAssert#assertThat(String, Object, Matcher)
+	 */
+	public <T> void assertThat(String reason, T actual, Matcher<? super T> matcher) {
+		if (matcher.matches(actual)) {
+			return;
+		}
+		DifferencesDescription description = new DifferencesDescription(differencesPerAssertion);
+		matcher.describeMismatch(actual, description);
+		Failure failure = new Failure(reason, description, matcher);
+		Integer occurrences = failures.get(failure);
+		failures.put(failure, occurrences == null ? 1 : occurrences + 1);
+	}
+
+	/**
+	 * Throws a {@link BeanComparisonFailure} listing the differences of all the failed assertions, or an
+	 * {@link AssertionError} if none of them compared beans. Does nothing if no assertion failed.
+	 */
+	public void assertAll() {
+		if (failures.isEmpty()) {
+			return;
+		}
+		StringBuilder message = new StringBuilder(failures.size() + " soft assertions failed");
+		StringBuilder expected = new StringBuilder();
+		StringBuilder actual = new StringBuilder();
+		List<Difference> differences = new ArrayList<Difference>();
+		int number = 1;
+		for (Map.Entry<Failure, Integer> entry : failures.entrySet()) {
+			String prefix = "[" + number++ + "]";
+			entry.getKey().appendTo(prefix, entry.getValue(), message, expected, actual);
+			differences.addAll(entry.getKey().differences);
+		}
+		if (differences.isEmpty()) {
+			throw new AssertionError(message.toString());
+		}
+		throw new BeanComparisonFailure(message.toString(), expected.toString(), actual.toString(), differences);
+	}
+
+	@Override
+	protected void verify() {
+		assertAll();
+	}
+
+	/**
+	 * A failed assertion, compared with the others by its reason, message and differences.
+	 */
+	private static class Failure {
+		private final String reason;
+		private final String message;
+		private final List<Difference> differences;
+		private final boolean limitReached;
+
+		/**
+		 * Keeps the differences of bean comparisons, or the description of the other matchers and of their mismatch,
+		 * as reported by {@link org.hamcrest.MatcherAssert}.
+		 */
+		Failure(String reason, DifferencesDescription description, Matcher<?> matcher) {
+			this.reason = reason;
+			this.differences = new ArrayList<Difference>(description.getDifferences());
+			this.message = description.isComparisonFailure() ? description.getDifferencesMessage() : describe(matcher, description);
+			this.limitReached = description.isLimitReached();
+		}
+
+		private static String describe(Matcher<?> matcher, DifferencesDescription mismatchDescription) {
+			StringDescription description = new StringDescription();
+			description.appendText("Expected: ").appendDescriptionOf(matcher).appendText("\n     but: ").appendText(mismatchDescription.toString());
+			return description.toString();
+		}
+
+		void appendTo(String prefix, int occurrences, StringBuilder message, StringBuilder expected, StringBuilder actual) {
+			message.append("\n").append(prefix);
+			if (isNotBlank(reason)) {
+				message.append(" ").append(reason);
+			}
+			if (occurrences > 1) {
+				message.append(" (").append(occurrences).append(" times)");
+			}
+			if (isNotBlank(this.message)) {
+				message.append("\n").append(this.message);
+			}
+			for (Difference difference : differences) {
+				message.append("\n").append(difference);
+				expected.append(prefix).append(" ").append(difference.getPath()).append(": ").append(valueOf(difference.getExpected())).append("\n");
+				actual.append(prefix).append(" ").append(difference.getPath()).append(": ").append(valueOf(difference.getActual())).append("\n");
+			}
+			if (limitReached) {
+				message.append("\nstopped after ").append(differences.size()).append(" differences");
+			}
+		}
+
+		private static String valueOf(String value) {
+			return value == null ? "(absent)" : value;
+		}
+
+		@Override
+		public boolean equals(Object object) {
+			if (!(object instanceof Failure)) {
+				return false;
+			}
+			Failure other = (Failure) object;
+			return reason.equals(other.reason) && String.valueOf(message).equals(String.valueOf(other.message))
+					&& differences.equals(other.differences);
+		}
+
+		@Override
+		public int hashCode() {
+			return 31 * (31 * reason.hashCode() + String.valueOf(message).hashCode()) + differences.hashCode();
+		}
+	}
+}
@@ -0,0 +1,220 @@
+/*
+ * Copyright 2013 Shazam Entertainment Limited
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License.
+ *
+ * You may obtain a copy of the License at http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions and limitations under the License.
+ */
+package com.shazam.shazamcrest;
+
+import static java.util.Collections.newSetFromMap;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonNull;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonPrimitive;
+import com.google.gson.stream.JsonWriter;
+
+/**
+ * {@link JsonWriter} which builds a {@link JsonElement} tree, keeping track of the arrays representing unordered
+ * collections, like sets and maps, so that they can be sorted again once some of their fields have been ignored.
+ */
+public class UnorderedJsonTreeWriter extends JsonWriter {
+	private static final Writer UNWRITABLE_WRITER = new Writer() {
+		@Override
+		public void write(char[] buffer, int offset, int counter) {
+			throw new AssertionError();
+		}
+
+		@Override
+		public void flush() {
+			throw new AssertionError();
+		}
+
+		@Override
+		public void close() {
+			throw new AssertionError();
+		}
+	};
+
+	private final List<JsonElement> stack = new ArrayList<JsonElement>();
+	private final Set<JsonElement> unorderedArrays = newSetFromMap(new IdentityHashMap<JsonElement, Boolean>());
+	private String pendingName;
+	private JsonElement product = JsonNull.INSTANCE;
+
+	public UnorderedJsonTreeWriter() {
+		super(UNWRITABLE_WRITER);
+	}
+
+	/**
+	 * Begins an array whose elements order is not relevant for the comparison.
+	 *
+	 * @param out the writer the array is written to
+	 * @return the writer
+	 */
+	public static JsonWriter beginUnorderedArray(JsonWriter out) throws IOException {
+		if (out instanceof UnorderedJsonTreeWriter) {
+			return ((UnorderedJsonTreeWriter) out).beginUnorderedArray();
+		}
+		return out.beginArray();
+	}
+
+	/**
+	 * Returns the tree built by this writer.
+	 */
+	public JsonElement get() {
+		if (!stack.isEmpty()) {
+			throw new IllegalStateException("Expected one JSON element but was " + stack);
+		}
+		return product;
+	}
+
+	/**
+	 * Returns true if the element is an array whose elements order is not relevant for the comparison.
+	 *
+	 * @param jsonElement the element of the tree built by this writer
+	 */
+	public boolean isUnordered(JsonElement jsonElement) {
+		return unorderedArrays.contains(jsonElement);
+	}
+
+	private JsonWriter beginUnorderedArray() throws IOException {
+		beginArray();
+		unorderedArrays.add(peek());
+		return this;
+	}
+
+	@Override
+	public JsonWriter beginArray() throws IOException {
+		JsonArray array = new JsonArray();
+		put(array);
+		stack.add(array);
+		return this;
+	}
+
+	@Override
+	public JsonWriter endArray() throws IOException {
+		if (stack.isEmpty() || pendingName != null || !peek().isJsonArray()) {
+			throw new IllegalStateException();
+		}
+		stack.remove(stack.size() - 1);
+		return this;
+	}
+
+	@Override
+	public JsonWriter beginObject() throws IOException {
+		JsonObject object = new JsonObject();
+		put(object);
+		stack.add(object);
+		return this;
+	}
+
+	@Override
+	public JsonWriter endObject() throws IOException {
+		if (stack.isEmpty() || pendingName != null || !peek().isJsonObject()) {
+			throw new IllegalStateException();
+		}
+		stack.remove(stack.size() - 1);
+		return this;
+	}
+
+	@Override
+	public JsonWriter name(String name) throws IOException {
+		if (stack.isEmpty() || pendingName != null || !peek().isJsonObject()) {
+			throw new IllegalStateException();
+		}
+		pendingName = name;
+		return this;
+	}
+
+	@Override
+	public JsonWriter value(String value) throws IOException {
+		if (value == null) {
+			return nullValue();
+		}
+		put(new JsonPrimitive(value));
+		return this;
+	}
+
+	@Override
+	public JsonWriter nullValue() throws IOException {
+		put(JsonNull.INSTANCE);
+		return this;
+	}
+
+	@Override
+	public JsonWriter value(boolean value) throws IOException {
+		put(new JsonPrimitive(value));
+		return this;
+	}
+
+	@Override
+	public JsonWriter value(double value) throws IOException {
+		if (!isLenient() && (Double.isNaN(value) || Double.isInfinite(value))) {
+			throw new IllegalArgumentException("JSON forbids NaN and infinities: " + value);
+		}
+		put(new JsonPrimitive(value));
+		return this;
+	}
+
+	@Override
+	public JsonWriter value(long value) throws IOException {
+		put(new JsonPrimitive(value));
+		return this;
+	}
+
+	@Override
+	public JsonWriter value(Number value) throws IOException {
+		if (value == null) {
+			return nullValue();
+		}
+		if (!isLenient()) {
+			double d = value.doubleValue();
+			if (Double.isNaN(d) || Double.isInfinite(d)) {
+				throw new IllegalArgumentException("JSON forbids NaN and infinities: " + value);
+			}
+		}
+		put(new JsonPrimitive(value));
+		return this;
+	}
+
+	@Override
+	public void flush() throws IOException {
+	}
+
+	@Override
+	public void close() throws IOException {
+		if (!stack.isEmpty()) {
+			throw new IOException("Incomplete document");
+		}
+	}
+
+	private JsonElement peek() {
+		return stack.get(stack.size() - 1);
+	}
+
+	private void put(JsonElement value) {
+		if (pendingName != null) {
+			if (!value.isJsonNull() || getSerializeNulls()) {
+				peek().getAsJsonObject().add(pendingName, value);
+			}
+			pendingName = null;
+		} else if (stack.isEmpty()) {
+			product = value;
+		} else if (peek().isJsonArray()) {
+			peek().getAsJsonArray().add(value);
+		} else {
+			throw new IllegalStateException();
+		}
+	}
+}
@@ -0,0 +1,122 @@
+/*
+ * Copyright 2013 Shazam Entertainment Limited
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License.
+ *
+ * You may obtain a copy of the License at http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions and limitations under the License.
+ */
+package com.shazam.shazamcrest.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+import com.shazam.shazamcrest.FlightRecorderEvents;
+
+/**
+ * {@link FlightRecorderEvents} emitted through the jdk.jfr API of Java 11 and later. This package is not compiled by
+ * Java 8 builds.
+ */
+public class JdkFlightRecorderEvents extends FlightRecorderEvents {
+
+	@Override
+	public Object beginPhase() {
+		return begin(new MatcherPhaseEvent());
+	}
+
+	@Override
+	public void endPhase(Object event, String phase, Class<?> beanType, long bytes, long nodes) {
+		MatcherPhaseEvent phaseEvent = (MatcherPhaseEvent) event;
+		phaseEvent.phase = phase;
+		phaseEvent.beanType = beanType;
+		phaseEvent.bytes = bytes;
+		phaseEvent.nodes = nodes;
+		phaseEvent.commit();
+	}
+
+	@Override
+	public Object beginCycleDetection() {
+		return begin(new CycleDetectionEvent());
+	}
+
+	@Override
+	public void endCycleDetection(Object event, Class<?> rootType, long visitedObjects, int circularReferenceTypes) {
+		CycleDetectionEvent cycleDetectionEvent = (CycleDetectionEvent) event;
+		cycleDetectionEvent.rootType = rootType;
+		cycleDetectionEvent.visitedObjects = visitedObjects;
+		cycleDetectionEvent.circularReferenceTypes = circularReferenceTypes;
+		cycleDetectionEvent.commit();
+	}
+
+	@Override
+	public Object beginGraphWrite() {
+		return begin(new GraphWriteEvent());
+	}
+
+	@Override
+	public void endGraphWrite(Object event, Class<?> rootType, long nodes) {
+		GraphWriteEvent graphWriteEvent = (GraphWriteEvent) event;
+		graphWriteEvent.rootType = rootType;
+		graphWriteEvent.nodes = nodes;
+		graphWriteEvent.commit();
+	}
+
+	private static Event begin(Event event) {
+		if (!event.isEnabled()) {
+			return null;
+		}
+		event.begin();
+		return event;
+	}
+
+	@Name("com.shazam.shazamcrest.MatcherPhase")
+	@Label("Matcher Phase")
+	@Category("Shazamcrest")
+	@Description("A phase of the comparison of an expected and an actual bean")
+	static class MatcherPhaseEvent extends Event {
+		@Label("Phase")
+		String phase;
+
+		@Label("Bean Type")
+		Class<?> beanType;
+
+		@Label("Bytes")
+		@DataAmount(DataAmount.BYTES)
+		long bytes;
+
+		@Label("Nodes")
+		long nodes;
+	}
+
+	@Name("com.shazam.shazamcrest.CycleDetection")
+	@Label("Cycle Detection")
+	@Category("Shazamcrest")
+	@Description("The search of the classes with circular references in a bean")
+	static class CycleDetectionEvent extends Event {
+		@Label("Root Type")
+		Class<?> rootType;
+
+		@Label("Visited Objects")
+		long visitedObjects;
+
+		@Label("Circular Reference Types")
+		int circularReferenceTypes;
+	}
+
+	@Name("com.shazam.shazamcrest.GraphWrite")
+	@Label("Graph Write")
+	@Category("Shazamcrest")
+	@Description("The serialisation of a graph of objects with circular references")
+	static class GraphWriteEvent extends Event {
+		@Label("Root Type")
+		Class<?> rootType;
+
+		@Label("Nodes")
+		long nodes;
+	}
+}
@@ -0,0 +1,128 @@
+/*
+ * Copyright 2013 Shazam Entertainment Limited
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License.
+ *
+ * You may obtain a copy of the License at http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions and limitations under the License.
+ */
+package com.shazam.shazamcrest.matcher;
+
+import static com.shazam.shazamcrest.Difference.Kind.MISSING;
+import static com.shazam.shazamcrest.Difference.Kind.UNEXPECTED;
+import static java.lang.Math.max;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.hamcrest.Description;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonElement;
+import com.shazam.shazamcrest.ComparisonDescription;
+import com.shazam.shazamcrest.Difference;
+
+/**
+ * {@link DiagnosingCustomisableMatcher} which compares a list of actual beans with a list of expected beans, pair by
+ * pair. All the pairs are compared with the configuration of this matcher and the {@link Gson} instances it keeps, and
+ * all the differing pairs are reported together.
+ */
+class AllSameBeansMatcher<T> extends DiagnosingCustomisableMatcher<T> {
+	private final List<T> expectedBeans;
+	private List<?> lastActualBeans;
+	private List<Integer> mismatches;
+
+	public AllSameBeansMatcher(List<T> expectedBeans) {
+		super(null);
+		this.expectedBeans = expectedBeans;
+	}
+
+	@Override
+	public void describeTo(Description description) {
+		description.appendText("the " + expectedBeans.size() + " expected beans");
+	}
+
+	/**
+	 * Finds the differing pairs whenever the mismatch is not described, as the beans may have changed since the last
+	 * assertion, and only reuses them to describe the mismatch of the list just compared.
+	 */
+	@Override
+	protected boolean matches(Object actual, Description mismatchDescription) {
+		if (!(actual instanceof List)) {
+			mismatchDescription.appendText("was not a list of beans");
+			return false;
+		}
+		List<?> actualBeans = (List<?>) actual;
+		if (mismatchDescription == Description.NONE || actualBeans != lastActualBeans) {
+			lastActualBeans = actualBeans;
+			mismatches = findMismatches(actualBeans);
+		}
+		if (mismatches.isEmpty()) {
+			return true;
+		}
+		if (mismatchDescription != Description.NONE) {
+			describeMismatches(actualBeans, mismatchDescription);
+		}
+		return false;
+	}
+
+	private List<Integer> findMismatches(List<?> actualBeans) {
+		List<Integer> indexes = new ArrayList<Integer>();
+		for (int i = 0; i < max(expectedBeans.size(), actualBeans.size()); i++) {
+			if (i >= expectedBeans.size() || i >= actualBeans.size()
+					|| !matchesElement(expectedBeans.get(i), actualBeans.get(i), Description.NONE)) {
+				indexes.add(i);
+			}
+		}
+		return indexes;
+	}
+
+	/**
+	 * Compares the differing pairs again to describe them, and joins their differences and json representations.
+	 */
+	private void describeMismatches(List<?> actualBeans, Description mismatchDescription) {
+		int comparedBeans = max(expectedBeans.size(), actualBeans.size());
+		StringBuilder message = new StringBuilder(mismatches.size() + " of " + comparedBeans + " beans differ");
+		StringBuilder expectedJson = new StringBuilder();
+		StringBuilder actualJson = new StringBuilder();
+		List<Difference> differences = new ArrayList<Difference>();
+		for (Integer index : mismatches) {
+			String prefix = "[" + index + "]";
+			if (index >= actualBeans.size()) {
+				Gson gsonForExpected = gsonProvider().gsonForExpected();
+				JsonElement expectedTree = filterJson(gsonForExpected, expectedBeans.get(index));
+				message.append("\n").append(prefix).append(": missing bean");
+				expectedJson.append(prefix).append(" ").append(gsonForExpected.toJson(expectedTree)).append("\n");
+				differences.add(new Difference("/" + index, MISSING, expectedTree, null));
+			} else if (index >= expectedBeans.size()) {
+				Gson gsonForActual = gsonProvider().gsonForActual();
+				JsonElement actualTree = filterJson(gsonForActual, actualBeans.get(index));
+				message.append("\n").append(prefix).append(": unexpected bean");
+				actualJson.append(prefix).append(" ").append(gsonForActual.toJson(actualTree)).append("\n");
+				differences.add(new Difference("/" + index, UNEXPECTED, null, actualTree));
+			} else {
+				ComparisonDescription pairDescription = new ComparisonDescription();
+				matchesElement(expectedBeans.get(index), actualBeans.get(index), pairDescription);
+				if (pairDescription.isComparisonFailure()) {
+					message.append("\n").append(prefix).append(": ").append(pairDescription.getDifferencesMessage());
+					expectedJson.append(prefix).append(" ").append(pairDescription.getExpected()).append("\n");
+					actualJson.append(prefix).append(" ").append(pairDescription.getActual()).append("\n");
+					for (Difference difference : pairDescription.getDifferences()) {
+						differences.add(difference.at("/" + index));
+					}
+				} else {
+					message.append("\n").append(prefix).append(": ").append(pairDescription.toString());
+				}
+			}
+		}
+		if (expectedJson.length() == 0 && actualJson.length() == 0) {
+			mismatchDescription.appendText(message.toString());
+			return;
+		}
+		if (mismatchDescription instanceof ComparisonDescription) {
+			((ComparisonDescription) mismatchDescription).setDifferences(differences);
+		}
+		appendMismatchDescription(mismatchDescription, expectedJson.toString(), actualJson.toString(), message.toString());
+	}
+}
@@ -0,0 +1,249 @@
+/*
+ * Copyright 2013 Shazam Entertainment Limited
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License.
+ *
+ * You may obtain a copy of the License at http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions and limitations under the License.
+ */
+package com.shazam.shazamcrest.matcher;
+
+import static java.lang.Math.min;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+
+/**
+ * Holds the paths of the lists and arrays to be compared regardless of the order of their elements, or whether all
+ * of them are. Before the trees are compared, the elements of those arrays in the actual tree are moved to the
+ * position of their equivalent element in the expected tree.
+ * <p>
+ * Elements are paired by bucketing the actual ones by a structural hash, which ignores the order where it is not
+ * relevant, and comparing them deeply only within a bucket.
+ */
+class AnyOrderLists {
+	private boolean anyOrder;
+	private final Set<String> paths = new HashSet<String>();
+
+	void set() {
+		anyOrder = true;
+	}
+
+	void set(String fieldPath) {
+		paths.add(fieldPath);
+	}
+
+	boolean isEmpty() {
+		return !anyOrder && paths.isEmpty();
+	}
+
+	/**
+	 * Walks the expected and actual trees side by side and reorders the arrays of the actual tree to be compared in any
+	 * order, following the order of their equivalent elements in the expected tree. Elements without an equivalent are
+	 * moved to the positions left free, in their original order.
+	 */
+	void apply(JsonElement expected, JsonElement actual) {
+		if (isEmpty()) {
+			return;
+		}
+		new Alignment().align("", expected, actual);
+	}
+
+	private boolean isAnyOrder(String path) {
+		return anyOrder || paths.contains(path);
+	}
+
+	private static String childPath(String path, String field) {
+		return path.isEmpty() ? field : path + "." + field;
+	}
+
+	/**
+	 * A single alignment of two trees, caching the structural hash of their elements.
+	 */
+	private class Alignment {
+		private final Map<JsonElement, Integer> hashes = new IdentityHashMap<JsonElement, Integer>();
+
+		void align(String path, JsonElement expected, JsonElement actual) {
+			if (expected.isJsonArray() && actual.isJsonArray()) {
+				JsonArray expectedArray = expected.getAsJsonArray();
+				JsonArray actualArray = actual.getAsJsonArray();
+				if (isAnyOrder(path)) {
+					reorder(path, expectedArray, actualArray);
+				}
+				for (int i = 0; i < min(expectedArray.size(), actualArray.size()); i++) {
+					align(path, expectedArray.get(i), actualArray.get(i));
+				}
+			} else if (expected.isJsonObject() && actual.isJsonObject()) {
+				JsonObject actualObject = actual.getAsJsonObject();
+				for (Entry<String, JsonElement> entry : expected.getAsJsonObject().entrySet()) {
+					JsonElement actualElement = actualObject.get(entry.getKey());
+					if (actualElement != null) {
+						align(childPath(path, entry.getKey()), entry.getValue(), actualElement);
+					}
+				}
+			}
+		}
+
+		private void reorder(String path, JsonArray expected, JsonArray actual) {
+			Map<Integer, List<Integer>> buckets = bucketByHash(path, actual);
+			boolean[] paired = new boolean[actual.size()];
+			List<JsonElement> reordered = new ArrayList<JsonElement>();
+			for (JsonElement expectedElement : expected) {
+				Integer pair = removeEquivalent(path, expectedElement, actual, buckets.get(hash(path, expectedElement)));
+				reordered.add(pair == null ? null : actual.get(pair));
+				if (pair != null) {
+					paired[pair] = true;
+				}
+			}
+
+			Iterator<JsonElement> unpaired = unpaired(actual, paired);
+			for (int i = 0; i < reordered.size(); i++) {
+				if (reordered.get(i) == null && unpaired.hasNext()) {
+					reordered.set(i, unpaired.next());
+				}
+			}
+			while (unpaired.hasNext()) {
+				reordered.add(unpaired.next());
+			}
+
+			int position = 0;
+			for (JsonElement element : reordered) {
+				if (element != null) {
+					actual.set(position++, element);
+				}
+			}
+		}
+
+		private Map<Integer, List<Integer>> bucketByHash(String path, JsonArray array) {
+			Map<Integer, List<Integer>> buckets = new HashMap<Integer, List<Integer>>();
+			for (int i = 0; i < array.size(); i++) {
+				Integer hash = hash(path, array.get(i));
+				List<Integer> bucket = buckets.get(hash);
+				if (bucket == null) {
+					bucket = new LinkedList<Integer>();
+					buckets.put(hash, bucket);
+				}
+				bucket.add(i);
+			}
+			return buckets;
+		}
+
+		private Iterator<JsonElement> unpaired(JsonArray actual, boolean[] paired) {
+			List<JsonElement> unpaired = new ArrayList<JsonElement>();
+			for (int i = 0; i < paired.length; i++) {
+				if (!paired[i]) {
+					unpaired.add(actual.get(i));
+				}
+			}
+			return unpaired.iterator();
+		}
+
+		/**
+		 * Removes from the bucket and returns the index of the first element of the array equivalent to the expected
+		 * one, or null if there is none.
+		 */
+		private Integer removeEquivalent(String path, JsonElement expected, JsonArray array, List<Integer> bucket) {
+			if (bucket == null) {
+				return null;
+			}
+			Iterator<Integer> iterator = bucket.iterator();
+			while (iterator.hasNext()) {
+				Integer candidate = iterator.next();
+				if (areEquivalent(path, expected, array.get(candidate))) {
+					iterator.remove();
+					return candidate;
+				}
+			}
+			return null;
+		}
+
+		private boolean areEquivalent(String path, JsonElement expected, JsonElement actual) {
+			if (expected.isJsonArray() && actual.isJsonArray()) {
+				JsonArray expectedArray = expected.getAsJsonArray();
+				JsonArray actualArray = actual.getAsJsonArray();
+				if (expectedArray.size() != actualArray.size()) {
+					return false;
+				}
+				if (isAnyOrder(path)) {
+					return areEquivalentInAnyOrder(path, expectedArray, actualArray);
+				}
+				for (int i = 0; i < expectedArray.size(); i++) {
+					if (!areEquivalent(path, expectedArray.get(i), actualArray.get(i))) {
+						return false;
+					}
+				}
+				return true;
+			}
+			if (expected.isJsonObject() && actual.isJsonObject()) {
+				JsonObject actualObject = actual.getAsJsonObject();
+				Set<Entry<String, JsonElement>> expectedEntries = expected.getAsJsonObject().entrySet();
+				if (expectedEntries.size() != actualObject.entrySet().size()) {
+					return false;
+				}
+				for (Entry<String, JsonElement> entry : expectedEntries) {
+					JsonElement actualElement = actualObject.get(entry.getKey());
+					if (actualElement == null || !areEquivalent(childPath(path, entry.getKey()), entry.getValue(), actualElement)) {
+						return false;
+					}
+				}
+				return true;
+			}
+			return JsonTrees.areEqual(expected, actual);
+		}
+
+		private boolean areEquivalentInAnyOrder(String path, JsonArray expected, JsonArray actual) {
+			Map<Integer, List<Integer>> buckets = bucketByHash(path, actual);
+			for (JsonElement element : expected) {
+				if (removeEquivalent(path, element, actual, buckets.get(hash(path, element))) == null) {
+					return false;
+				}
+			}
+			return true;
+		}
+
+		/**
+		 * Returns a hash of the element structure, which does not depend on the order of the elements of the arrays to
+		 * be compared in any order, nor on the order of the object fields.
+		 */
+		private int hash(String path, JsonElement element) {
+			Integer hash = hashes.get(element);
+			if (hash == null) {
+				hash = computeHash(path, element);
+				hashes.put(element, hash);
+			}
+			return hash;
+		}
+
+		private int computeHash(String path, JsonElement element) {
+			if (element.isJsonArray()) {
+				boolean anyOrder = isAnyOrder(path);
+				int hash = anyOrder ? 0 : 1;
+				for (JsonElement arrayElement : element.getAsJsonArray()) {
+					hash = anyOrder ? hash + hash(path, arrayElement) : 31 * hash + hash(path, arrayElement);
+				}
+				return hash;
+			}
+			if (element.isJsonObject()) {
+				int hash = 0;
+				for (Entry<String, JsonElement> entry : element.getAsJsonObject().entrySet()) {
+					hash += entry.getKey().hashCode() ^ hash(childPath(path, entry.getKey()), entry.getValue());
+				}
+				return hash;
+			}
+			return JsonTrees.hash(element);
+		}
+	}
+}
@@ -0,0 +1,313 @@
+/*
+ * Copyright 2013 Shazam Entertainment Limited
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License.
+ *
+ * You may obtain a copy of the License at http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions and limitations under the License.
+ */
+package com.shazam.shazamcrest.matcher;
+
+import static java.lang.Math.min;
+import static java.util.Arrays.fill;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map.Entry;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+
+/**
+ * Describes the differences between arrays as the elements missing from, or unexpected in, the actual array, rather
+ * than by position. Arrays of the same length whose only edits replace elements in place are still compared by
+ * position, so that the differences within the replaced elements are reported.
+ * <p>
+ * The edits are found with the linear space variant of the Myers diff algorithm, bisecting on the middle snake, and
+ * elements are compared by their structural hash before being compared deeply. The memory used is proportional to
+ * the length of the arrays. When the halves to diff are further apart than a fixed edit distance, they are reported as
+ * a whole, so that very different arrays are not compared in quadratic time.
+ */
+class ArrayDiff {
+	static final int MAX_EDITS_PER_ARRAY = 10;
+	private static final int MAX_ELEMENT_LENGTH = 80;
+	private static final int MAX_EDIT_DISTANCE = 512;
+
+	private boolean describesAll = true;
+
+	/**
+	 * Walks the expected and actual trees side by side and describes the edits turning each differing expected array
+	 * into the actual one.
+	 */
+	List<String> describe(JsonElement expected, JsonElement actual) {
+		List<String> differences = new ArrayList<String>();
+		describe("", expected, actual, differences);
+		describesAll &= !differences.isEmpty();
+		return differences;
+	}
+
+	/**
+	 * Returns true if the edits described account for all the differences between the trees, which then need no
+	 * other description.
+	 */
+	boolean describesAll() {
+		return describesAll;
+	}
+
+	private void describe(String path, JsonElement expected, JsonElement actual, List<String> differences) {
+		if (JsonTrees.areEqual(expected, actual)) {
+			return;
+		}
+		if (expected.isJsonArray() && actual.isJsonArray()) {
+			JsonArray expectedArray = expected.getAsJsonArray();
+			JsonArray actualArray = actual.getAsJsonArray();
+			List<Edit> edits = edits(expectedArray, actualArray);
+			if (!areReplacements(edits)) {
+				describeEdits(path, edits, differences);
+				return;
+			}
+			for (int i = 0; i < expectedArray.size(); i++) {
+				describe(path + "[" + i + "]", expectedArray.get(i), actualArray.get(i), differences);
+			}
+		} else if (expected.isJsonObject() && actual.isJsonObject()) {
+			describesAll &= expected.getAsJsonObject().entrySet().size() == actual.getAsJsonObject().entrySet().size();
+			for (Entry<String, JsonElement> entry : expected.getAsJsonObject().entrySet()) {
+				JsonElement actualElement = actual.getAsJsonObject().get(entry.getKey());
+				if (actualElement != null) {
+					String fieldPath = path.isEmpty() ? entry.getKey() : path + "." + entry.getKey();
+					describe(fieldPath, entry.getValue(), actualElement, differences);
+				} else {
+					describesAll = false;
+				}
+			}
+		} else {
+			describesAll = false;
+		}
+	}
+
+	/**
+	 * Returns true if the edits only replace ranges of elements with as many elements at the same position.
+	 */
+	private static boolean areReplacements(List<Edit> edits) {
+		if (edits.size() % 2 != 0) {
+			return false;
+		}
+		for (int i = 0; i < edits.size(); i += 2) {
+			Edit first = edits.get(i);
+			Edit second = edits.get(i + 1);
+			if (first.isMissing() == second.isMissing() || first.from() != second.from() || first.to() != second.to()) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Returns the ranges of elements missing from or unexpected in the actual array, in order.
+	 */
+	static List<Edit> edits(JsonArray expected, JsonArray actual) {
+		return new Bisection(expected, actual).edits();
+	}
+
+	private static void describeEdits(String path, List<Edit> edits, List<String> differences) {
+		for (int i = 0; i < min(edits.size(), MAX_EDITS_PER_ARRAY); i++) {
+			differences.add(path + edits.get(i).description());
+		}
+		if (edits.size() > MAX_EDITS_PER_ARRAY) {
+			differences.add(path + ": " + (edits.size() - MAX_EDITS_PER_ARRAY) + " more edits");
+		}
+	}
+
+	private static String abbreviate(JsonElement element) {
+		String rendering = element.toString();
+		return rendering.length() <= MAX_ELEMENT_LENGTH ? rendering : rendering.substring(0, MAX_ELEMENT_LENGTH) + "...";
+	}
+
+	/**
+	 * A range of consecutive elements missing from the actual array, addressed by their index in the expected one,
+	 * or unexpected in the actual array, addressed by their index in it.
+	 */
+	static class Edit {
+		private final boolean missing;
+		private final JsonArray array;
+		private final int from;
+		private int to;
+
+		Edit(boolean missing, JsonArray array, int from, int to) {
+			this.missing = missing;
+			this.array = array;
+			this.from = from;
+			this.to = to;
+		}
+
+		boolean isMissing() {
+			return missing;
+		}
+
+		int from() {
+			return from;
+		}
+
+		int to() {
+			return to;
+		}
+
+		String description() {
+			String kind = missing ? "missing" : "unexpected";
+			if (to - from == 1) {
+				return "[" + from + "]: " + kind + " element " + abbreviate(array.get(from));
+			}
+			return "[" + from + ".." + (to - 1) + "]: " + (to - from) + " " + kind + " elements";
+		}
+	}
+
+	/**
+	 * A single diff of two arrays, holding the hashes of their elements and the diagonal vectors shared by the
+	 * recursive bisections.
+	 */
+	private static class Bisection {
+		private final JsonArray expected;
+		private final JsonArray actual;
+		private final int[] expectedHashes;
+		private final int[] actualHashes;
+		private final int[] forward;
+		private final int[] backward;
+		private final List<Edit> edits = new ArrayList<Edit>();
+
+		Bisection(JsonArray expected, JsonArray actual) {
+			this.expected = expected;
+			this.actual = actual;
+			this.expectedHashes = hashes(expected);
+			this.actualHashes = hashes(actual);
+			int vectorLength = expected.size() + actual.size() + 3;
+			this.forward = new int[vectorLength];
+			this.backward = new int[vectorLength];
+		}
+
+		List<Edit> edits() {
+			diff(0, expected.size(), 0, actual.size());
+			return edits;
+		}
+
+		private void diff(int expectedFrom, int expectedTo, int actualFrom, int actualTo) {
+			while (expectedFrom < expectedTo && actualFrom < actualTo && areEqual(expectedFrom, actualFrom)) {
+				expectedFrom++;
+				actualFrom++;
+			}
+			while (expectedFrom < expectedTo && actualFrom < actualTo && areEqual(expectedTo - 1, actualTo - 1)) {
+				expectedTo--;
+				actualTo--;
+			}
+			if (expectedFrom == expectedTo) {
+				addEdit(false, actual, actualFrom, actualTo);
+			} else if (actualFrom == actualTo) {
+				addEdit(true, expected, expectedFrom, expectedTo);
+			} else {
+				bisect(expectedFrom, expectedTo, actualFrom, actualTo);
+			}
+		}
+
+		/**
+		 * Finds the middle snake of the edit graph walking forward and backward at the same time, and diffs the two
+		 * halves separately.
+		 */
+		private void bisect(int expectedFrom, int expectedTo, int actualFrom, int actualTo) {
+			int n = expectedTo - expectedFrom;
+			int m = actualTo - actualFrom;
+			int maxD = (n + m + 1) / 2;
+			int offset = maxD;
+			int length = 2 * maxD;
+			fill(forward, 0, length + 2, -1);
+			fill(backward, 0, length + 2, -1);
+			forward[offset + 1] = 0;
+			backward[offset + 1] = 0;
+			int delta = n - m;
+			boolean front = delta % 2 != 0;
+			int k1Start = 0;
+			int k1End = 0;
+			int k2Start = 0;
+			int k2End = 0;
+			for (int d = 0; d < min(maxD, MAX_EDIT_DISTANCE / 2); d++) {
+				for (int k1 = -d + k1Start; k1 <= d - k1End; k1 += 2) {
+					int k1Offset = offset + k1;
+					int x1 = k1 == -d || (k1 != d && forward[k1Offset - 1] < forward[k1Offset + 1]) ? forward[k1Offset + 1] : forward[k1Offset - 1] + 1;
+					int y1 = x1 - k1;
+					while (x1 < n && y1 < m && areEqual(expectedFrom + x1, actualFrom + y1)) {
+						x1++;
+						y1++;
+					}
+					forward[k1Offset] = x1;
+					if (x1 > n) {
+						k1End += 2;
+					} else if (y1 > m) {
+						k1Start += 2;
+					} else if (front) {
+						int k2Offset = offset + delta - k1;
+						if (k2Offset >= 0 && k2Offset < length && backward[k2Offset] != -1 && x1 >= n - backward[k2Offset]) {
+							split(expectedFrom, expectedTo, actualFrom, actualTo, x1, y1);
+							return;
+						}
+					}
+				}
+				for (int k2 = -d + k2Start; k2 <= d - k2End; k2 += 2) {
+					int k2Offset = offset + k2;
+					int x2 = k2 == -d || (k2 != d && backward[k2Offset - 1] < backward[k2Offset + 1]) ? backward[k2Offset + 1] : backward[k2Offset - 1] + 1;
+					int y2 = x2 - k2;
+					while (x2 < n && y2 < m && areEqual(expectedTo - 1 - x2, actualTo - 1 - y2)) {
+						x2++;
+						y2++;
+					}
+					backward[k2Offset] = x2;
+					if (x2 > n) {
+						k2End += 2;
+					} else if (y2 > m) {
+						k2Start += 2;
+					} else if (!front) {
+						int k1Offset = offset + delta - k2;
+						if (k1Offset >= 0 && k1Offset < length && forward[k1Offset] != -1) {
+							int x1 = forward[k1Offset];
+							int y1 = offset + x1 - k1Offset;
+							if (x1 >= n - x2) {
+								split(expectedFrom, expectedTo, actualFrom, actualTo, x1, y1);
+								return;
+							}
+						}
+					}
+				}
+			}
+			addEdit(true, expected, expectedFrom, expectedTo);
+			addEdit(false, actual, actualFrom, actualTo);
+		}
+
+		private void split(int expectedFrom, int expectedTo, int actualFrom, int actualTo, int x, int y) {
+			diff(expectedFrom, expectedFrom + x, actualFrom, actualFrom + y);
+			diff(expectedFrom + x, expectedTo, actualFrom + y, actualTo);
+		}
+
+		private void addEdit(boolean missing, JsonArray array, int from, int to) {
+			if (from == to) {
+				return;
+			}
+			Edit last = edits.isEmpty() ? null : edits.get(edits.size() - 1);
+			if (last != null && last.missing == missing && last.to == from) {
+				last.to = to;
+			} else {
+				edits.add(new Edit(missing, array, from, to));
+			}
+		}
+
+		private boolean areEqual(int expectedIndex, int actualIndex) {
+			return expectedHashes[expectedIndex] == actualHashes[actualIndex]
+					&& JsonTrees.areEqual(expected.get(expectedIndex), actual.get(actualIndex));
+		}
+
+		private static int[] hashes(JsonArray array) {
+			int[] hashes = new int[array.size()];
+			for (int i = 0; i < hashes.length; i++) {
+				hashes[i] = JsonTrees.hash(array.get(i));
+			}
+			return hashes;
+		}
+	}
+}
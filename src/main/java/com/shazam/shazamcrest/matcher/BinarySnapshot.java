@@ -0,0 +1,197 @@
+/*
+ * Copyright 2013 Shazam Entertainment Limited
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License.
+ *
+ * You may obtain a copy of the License at http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions and limitations under the License.
+ */
+package com.shazam.shazamcrest.matcher;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.nio.file.StandardOpenOption.READ;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Map.Entry;
+
+import com.google.common.hash.Funnels;
+import com.google.common.hash.HashFunction;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import com.google.gson.Gson;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonNull;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonPrimitive;
+
+/**
+ * A {@link Snapshot} stored in a compact binary encoding of the json tree, preceded by the 128 bit hash of the
+ * encoding. An actual tree whose encoding has the same hash is known to match without reading the rest of the file.
+ * <p>
+ * Each value is a tag byte followed by its content: strings and numbers as length prefixed UTF-8, arrays and objects
+ * as the number of their elements followed by the elements, the fields of objects as a name and a value.
+ */
+class BinarySnapshot extends Snapshot {
+	private static final byte[] MAGIC = { 'S', 'H', 'Z', 1 };
+	private static final HashFunction HASH_FUNCTION = Hashing.murmur3_128();
+	private static final int HASH_LENGTH = HASH_FUNCTION.bits() / 8;
+	private static final byte NULL = 0;
+	private static final byte TRUE = 1;
+	private static final byte FALSE = 2;
+	private static final byte NUMBER = 3;
+	private static final byte STRING = 4;
+	private static final byte ARRAY = 5;
+	private static final byte OBJECT = 6;
+
+	BinarySnapshot(String name) {
+		super(name, ".bin");
+	}
+
+	@Override
+	boolean isKnownToMatch(JsonElement actualTree) {
+		if (!exists()) {
+			return false;
+		}
+		return Arrays.equals(readHash(), hash(actualTree));
+	}
+
+	private byte[] readHash() {
+		try {
+			DataInputStream in = new DataInputStream(Files.newInputStream(path, READ));
+			try {
+				readHeader(in);
+				byte[] hash = new byte[HASH_LENGTH];
+				in.readFully(hash);
+				return hash;
+			} finally {
+				in.close();
+			}
+		} catch (IOException e) {
+			throw new IllegalStateException("Cannot read snapshot " + path, e);
+		}
+	}
+
+	@Override
+	protected JsonElement read(ByteBufferInputStream content) throws IOException {
+		DataInputStream in = new DataInputStream(new BufferedInputStream(content));
+		readHeader(in);
+		in.skipBytes(HASH_LENGTH);
+		return decode(in);
+	}
+
+	@Override
+	protected byte[] encode(Gson gson, JsonElement tree) throws IOException {
+		ByteArrayOutputStream content = new ByteArrayOutputStream();
+		content.write(MAGIC);
+		content.write(hash(tree));
+		DataOutputStream out = new DataOutputStream(content);
+		encode(tree, out);
+		out.flush();
+		return content.toByteArray();
+	}
+
+	private void readHeader(DataInputStream in) throws IOException {
+		byte[] magic = new byte[MAGIC.length];
+		in.readFully(magic);
+		if (!Arrays.equals(magic, MAGIC)) {
+			throw new IOException(path + " is not a binary snapshot");
+		}
+	}
+
+	static byte[] hash(JsonElement tree) {
+		Hasher hasher = HASH_FUNCTION.newHasher();
+		try {
+			DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Funnels.asOutputStream(hasher)));
+			encode(tree, out);
+			out.flush();
+		} catch (IOException e) {
+			throw new IllegalStateException(e);
+		}
+		return hasher.hash().asBytes();
+	}
+
+	private static void encode(JsonElement element, DataOutputStream out) throws IOException {
+		if (element.isJsonNull()) {
+			out.writeByte(NULL);
+		} else if (element.isJsonArray()) {
+			JsonArray array = element.getAsJsonArray();
+			out.writeByte(ARRAY);
+			out.writeInt(array.size());
+			for (JsonElement arrayElement : array) {
+				encode(arrayElement, out);
+			}
+		} else if (element.isJsonObject()) {
+			JsonObject object = element.getAsJsonObject();
+			out.writeByte(OBJECT);
+			out.writeInt(object.entrySet().size());
+			for (Entry<String, JsonElement> entry : object.entrySet()) {
+				writeString(entry.getKey(), out);
+				encode(entry.getValue(), out);
+			}
+		} else {
+			JsonPrimitive primitive = element.getAsJsonPrimitive();
+			if (primitive.isBoolean()) {
+				out.writeByte(primitive.getAsBoolean() ? TRUE : FALSE);
+			} else if (primitive.isNumber()) {
+				out.writeByte(NUMBER);
+				writeString(primitive.getAsNumber().toString(), out);
+			} else {
+				out.writeByte(STRING);
+				writeString(primitive.getAsString(), out);
+			}
+		}
+	}
+
+	private static JsonElement decode(DataInputStream in) throws IOException {
+		byte tag = in.readByte();
+		switch (tag) {
+		case NULL:
+			return JsonNull.INSTANCE;
+		case TRUE:
+			return new JsonPrimitive(true);
+		case FALSE:
+			return new JsonPrimitive(false);
+		case NUMBER:
+			return new JsonPrimitive(new BigDecimal(readString(in)));
+		case STRING:
+			return new JsonPrimitive(readString(in));
+		case ARRAY:
+			JsonArray array = new JsonArray();
+			for (int i = in.readInt(); i > 0; i--) {
+				array.add(decode(in));
+			}
+			return array;
+		case OBJECT:
+			JsonObject object = new JsonObject();
+			for (int i = in.readInt(); i > 0; i--) {
+				String name = readString(in);
+				object.add(name, decode(in));
+			}
+			return object;
+		default:
+			throw new IOException("Unknown tag " + tag);
+		}
+	}
+
+	private static void writeString(String string, DataOutputStream out) throws IOException {
+		byte[] bytes = string.getBytes(UTF_8);
+		out.writeInt(bytes.length);
+		out.write(bytes);
+	}
+
+	private static String readString(DataInputStream in) throws IOException {
+		byte[] bytes = new byte[in.readInt()];
+		in.readFully(bytes);
+		return new String(bytes, UTF_8);
+	}
+}
@@ -0,0 +1,86 @@
+/*
+ * Copyright 2013 Shazam Entertainment Limited
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License.
+ *
+ * You may obtain a copy of the License at http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions and limitations under the License.
+ */
+package com.shazam.shazamcrest.matcher;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.google.common.util.concurrent.Uninterruptibles;
+
+/**
+ * Runs the serialisation of one side of a comparison while the other side is serialised by the calling thread. The
+ * executor is shared by all the matchers and uses a virtual thread per task when the runtime provides them, or a
+ * cached pool of daemon threads otherwise.
+ */
+class ConcurrentSerialisation {
+	private static final ExecutorService EXECUTOR = createExecutor();
+
+	static <T> Future<T> submit(Callable<T> serialisation) {
+		return EXECUTOR.submit(serialisation);
+	}
+
+	/**
+	 * Waits for the serialisation and rethrows its failure as is, so that a {@link CustomMatcherException} thrown on
+	 * the other thread is handled as if the serialisation ran on the calling one.
+	 */
+	static <T> T get(Future<T> serialisation) {
+		try {
+			return serialisation.get();
+		} catch (ExecutionException e) {
+			Throwable cause = e.getCause();
+			if (cause instanceof RuntimeException) {
+				throw (RuntimeException) cause;
+			}
+			if (cause instanceof Error) {
+				throw (Error) cause;
+			}
+			throw new IllegalStateException(cause);
+		} catch (InterruptedException e) {
+			await(serialisation);
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException(e);
+		}
+	}
+
+	/**
+	 * Waits for the serialisation whose result is no longer needed, ignoring its failure. Gson does not check for
+	 * interruption, so the serialisation cannot be cancelled, and it must not outlive the comparison which shares its
+	 * type adapters.
+	 */
+	static void await(Future<?> serialisation) {
+		try {
+			Uninterruptibles.getUninterruptibly(serialisation);
+		} catch (ExecutionException e) {
+			// the comparison has already been decided by the other side
+		}
+	}
+
+	private static ExecutorService createExecutor() {
+		try {
+			return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+		} catch (Exception e) {
+			return Executors.newCachedThreadPool(new ThreadFactory() {
+				private final AtomicInteger count = new AtomicInteger();
+
+				@Override
+				public Thread newThread(Runnable runnable) {
+					Thread thread = new Thread(runnable, "shazamcrest-serialisation-" + count.incrementAndGet());
+					thread.setDaemon(true);
+					return thread;
+				}
+			});
+		}
+	}
+}
@@ -0,0 +1,28 @@
+/*
+ * Copyright 2013 Shazam Entertainment Limited
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License.
+ *
+ * You may obtain a copy of the License at http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions and limitations under the License.
+ */
+package com.shazam.shazamcrest.matcher;
+
+import com.google.gson.JsonElement;
+
+/**
+ * {@link DiagnosingCustomisableMatcher} which only compares the fields which are not null in the expected bean, and
+ * matches lists and arrays containing the expected elements in any order.
+ */
+class ContainsBeanMatcher<T> extends DiagnosingCustomisableMatcher<T> {
+
+	public ContainsBeanMatcher(T expected) {
+		super(expected);
+	}
+
+	@Override
+	protected JsonElement selectComparedTree(JsonElement expectedTree, JsonElement actualTree) {
+		return new SubsetProjection().project(expectedTree, actualTree);
+	}
+}
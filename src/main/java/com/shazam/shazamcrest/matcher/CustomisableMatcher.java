@@ -68,4 +68,135 @@ public interface CustomisableMatcher<T> extends Matcher<T> {
 	 * @return the instance of the matcher
 	 */
 	<V> CustomisableMatcher<T> with(Class<V> clazz, Matcher<V> matcher);
-}
\ No newline at end of file
+
+	/**
+	 * Specify the tolerance within which all the float and double values are considered equal.
+	 * Example:
+	 * <pre>sameBeanAs(expected).withTolerance(0.001)</pre>
+	 *
+	 * @param tolerance the maximum absolute difference between expected and actual values.
+	 * @return the instance of the matcher
+	 */
+	CustomisableMatcher<T> withTolerance(double tolerance);
+
+	/**
+	 * Specify the tolerance within which the float and double values at the given path are considered equal.
+	 * It takes precedence over the tolerances specified by type and globally.
+	 * Example:
+	 * <pre>sameBeanAs(expected).withTolerance("beanField.samples", 0.001)</pre>
+	 *
+	 * @param fieldPath the path of the field, or of the array or collection of numbers, to be compared with tolerance.
+	 * @param tolerance the maximum absolute difference between expected and actual values.
+	 * @return the instance of the matcher
+	 */
+	CustomisableMatcher<T> withTolerance(String fieldPath, double tolerance);
+
+	/**
+	 * Specify the tolerance within which the values of the given floating point type are considered equal.
+	 * It takes precedence over the global tolerance.
+	 * Example:
+	 * <pre>sameBeanAs(expected).withTolerance(float.class, 0.001)</pre>
+	 *
+	 * @param type either float or double, primitive or wrapper.
+	 * @param tolerance the maximum absolute difference between expected and actual values.
+	 * @return the instance of the matcher
+	 */
+	CustomisableMatcher<T> withTolerance(Class<?> type, double tolerance);
+
+	/**
+	 * Specify that all the lists and arrays are to be compared regardless of the order of their elements.
+	 * Example:
+	 * <pre>sameBeanAs(expected).anyOrder()</pre>
+	 *
+	 * @return the instance of the matcher
+	 */
+	CustomisableMatcher<T> anyOrder();
+
+	/**
+	 * Specify the path of the list or array to be compared regardless of the order of its elements.
+	 * Example:
+	 * <pre>sameBeanAs(expected).anyOrder("beanField.subBeanList")</pre>
+	 *
+	 * @param fieldPath the path of the list or array to be compared in any order.
+	 * @return the instance of the matcher
+	 */
+	CustomisableMatcher<T> anyOrder(String fieldPath);
+
+	/**
+	 * Specify the path of the list or array whose elements are matched by the value of a key field rather than by
+	 * their position. Only the elements which differ, or whose key is missing or unexpected, are reported.
+	 * Example:
+	 * <pre>sameBeanAs(expected).byKey("orders", "orderId")</pre>
+	 *
+	 * @param fieldPath the path of the list or array whose elements are matched by key.
+	 * @param keyField the path of the key field within each element.
+	 * @return the instance of the matcher
+	 */
+	CustomisableMatcher<T> byKey(String fieldPath, String keyField);
+
+	/**
+	 * Specify the maximum number of differences to report on mismatch. The comparison stops at the given number of
+	 * differences and the mismatch message only lists them, without the detailed diagnostics.
+	 * Example:
+	 * <pre>sameBeanAs(expected).withDifferenceLimit(5)</pre>
+	 *
+	 * @param maxDifferences the number of differences after which the comparison stops, at least 1.
+	 * @return the instance of the matcher
+	 */
+	CustomisableMatcher<T> withDifferenceLimit(int maxDifferences);
+
+	/**
+	 * Specify that the comparison stops at the first difference, for when only whether the beans match is relevant.
+	 * Same as {@link #withDifferenceLimit(int)} with a limit of 1.
+	 *
+	 * @return the instance of the matcher
+	 */
+	CustomisableMatcher<T> failFast();
+
+	/**
+	 * Specify that the lists, sets, maps and arrays with at least the given number of elements are compared on a
+	 * random sample of their elements, along with their size and a hash of their whole content. The seed of the sample
+	 * is reported on mismatch and can be set with the shazamcrest.sampleSeed system property to reproduce it.
+	 * Example:
+	 * <pre>sameBeanAs(expected).withSampling(10000, 100)</pre>
+	 *
+	 * @param minSize the number of elements from which the collections are sampled
+	 * @param sampleSize the number of elements sampled, at least 1 and below the minimum size
+	 * @return the instance of the matcher
+	 */
+	CustomisableMatcher<T> withSampling(int minSize, int sampleSize);
+
+	/**
+	 * Specify that the expected bean is serialised on a shared executor while the actual one is serialised by the
+	 * calling thread, which shortens the comparison of large beans. The comparison always waits for the serialisation
+	 * of the expected bean, even when the one of the actual bean fails or is known to match.
+	 * Example:
+	 * <pre>sameBeanAs(expected).withConcurrentSerialisation()</pre>
+	 *
+	 * @return the instance of the matcher
+	 */
+	CustomisableMatcher<T> withConcurrentSerialisation();
+
+	/**
+	 * Specify the maximum number of elements to compare when the beans are iterators, streams or iterables other than
+	 * collections. Such sequences are compared one element at a time, without collecting them, and the comparison
+	 * stops at the first differing element or after the given number of elements.
+	 * Example:
+	 * <pre>sameBeanAs(expectedRows).withSequenceLimit(1000)</pre>
+	 *
+	 * @param maxElements the number of elements after which the comparison stops, at least 1.
+	 * @return the instance of the matcher
+	 */
+	CustomisableMatcher<T> withSequenceLimit(int maxElements);
+
+	/**
+	 * Specify a listener notified of the time spent in each phase of the comparisons, instead of the one named by the
+	 * system property <code>shazamcrest.phaseListener</code>.
+	 * Example:
+	 * <pre>sameBeanAs(expected).withPhaseListener(buildMetrics)</pre>
+	 *
+	 * @param listener the listener to notify, or null to time nothing.
+	 * @return the instance of the matcher
+	 */
+	CustomisableMatcher<T> withPhaseListener(PhaseListener listener);
+}
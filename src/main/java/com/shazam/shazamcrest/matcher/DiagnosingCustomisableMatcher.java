@@ -12,6 +12,11 @@ package com.shazam.shazamcrest.matcher;
 import com.google.gson.Gson;
 import com.google.gson.JsonElement;
 import com.shazam.shazamcrest.ComparisonDescription;
+import com.shazam.shazamcrest.Difference;
+import com.shazam.shazamcrest.DifferencesDescription;
+import com.shazam.shazamcrest.UnorderedJsonTreeWriter;
+import com.shazam.shazamcrest.matcher.PhaseListener.Phase;
+import com.shazam.shazamcrest.matcher.Phases.Timing;
 import org.hamcrest.Description;
 import org.hamcrest.DiagnosingMatcher;
 import org.hamcrest.Matcher;
@@ -21,15 +26,19 @@ import org.skyscreamer.jsonassert.JSONAssert;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
 
 import static com.shazam.shazamcrest.BeanFinder.findBeanAt;
 import static com.shazam.shazamcrest.CyclicReferenceDetector.getClassesWithCircularReferences;
-import static com.shazam.shazamcrest.FieldsIgnorer.MARKER;
 import static com.shazam.shazamcrest.FieldsIgnorer.findPaths;
+import static com.shazam.shazamcrest.FieldsIgnorer.serialise;
 
 /**
  * Extends the functionalities of {@link DiagnosingMatcher} with the possibility to specify fields and object types to
@@ -42,6 +51,18 @@ class DiagnosingCustomisableMatcher<T> extends DiagnosingMatcher<T> implements C
 	protected final List<Class<?>> typesToIgnore = new ArrayList<Class<?>>();
 	protected final List<Matcher<String>> patternsToIgnore = new ArrayList<Matcher<String>>();
     protected final Set<Class<?>> circularReferenceTypes = new HashSet<Class<?>>();
+	protected final NumericTolerances numericTolerances = new NumericTolerances();
+	private final AnyOrderLists anyOrderLists = new AnyOrderLists();
+	private final KeyedLists keyedLists = new KeyedLists();
+	private final SampledArrays sampledArrays = new SampledArrays();
+	private int differenceLimit = StructuredDifferences.UNLIMITED;
+	private int sequenceLimit = LazySequence.UNLIMITED;
+	private boolean concurrentSerialisation;
+	private Object expectedSequence;
+	private SequenceMismatch sequenceMismatch;
+	private GsonProvider gsonProvider;
+	private int gsonProviderCircularReferenceTypes;
+	private Phases phases;
 	protected final T expected;
 
     public DiagnosingCustomisableMatcher(T expected) {
@@ -50,8 +71,18 @@ class DiagnosingCustomisableMatcher<T> extends DiagnosingMatcher<T> implements C
 
 	@Override
 	public void describeTo(Description description) {
-		Gson gsonForExpected = new GsonProvider(typesToIgnore, patternsToIgnore, circularReferenceTypes, classCustomMatchers).gsonForExpected();
-		description.appendText(filterJson(gsonForExpected, expected));
+		GsonProvider gsonProvider = gsonProvider();
+		Gson gsonForExpected = gsonProvider.gsonForExpected();
+		try {
+			if (sequenceMismatch != null && sequenceMismatch.index != -1) {
+				description.appendText("[" + sequenceMismatch.index + "] ").appendText(sequenceMismatch.hasExpected
+						? gsonForExpected.toJson(filterJson(gsonForExpected, sequenceMismatch.expectedElement)) : "no element");
+				return;
+			}
+			description.appendText(gsonForExpected.toJson(expectedTree(gsonForExpected)));
+		} finally {
+			gsonProvider.primitiveArrays().clear();
+		}
 		for (String fieldPath : pathCustomMatchers.keySet()) {
 			description.appendText("\nand ")
 				.appendText(fieldPath).appendText(" ")
@@ -66,29 +97,95 @@ class DiagnosingCustomisableMatcher<T> extends DiagnosingMatcher<T> implements C
 
 	@Override
 	protected boolean matches(Object actual, Description mismatchDescription) {
-        circularReferenceTypes.addAll(getClassesWithCircularReferences(actual));
-        circularReferenceTypes.addAll(getClassesWithCircularReferences(expected));
-		Gson gsonForExpected = new GsonProvider(typesToIgnore, patternsToIgnore, circularReferenceTypes, classCustomMatchers).gsonForExpected();
-		Gson gsonForActual = new GsonProvider(typesToIgnore, patternsToIgnore, circularReferenceTypes, classCustomMatchers).gsonForActual();
-
-		if (!areCustomMatchersMatching(actual, mismatchDescription, gsonForActual)) {
-			return false;
+		if (LazySequence.isLazy(actual) || LazySequence.isLazy(expected)) {
+			if (LazySequence.isSequence(actual) && LazySequence.isSequence(expected)) {
+				return matchesSequence(actual, mismatchDescription);
+			}
+			if (LazySequence.isLazy(actual)) {
+				actual = LazySequence.toList(actual);
+			}
 		}
-		
-		String expectedJson = filterJson(gsonForExpected, expected);
+		return matches(expected, actual, mismatchDescription, false);
+	}
+
+	/**
+	 * Compares an expected bean other than the one of this matcher with an actual bean, with the configuration of this
+	 * matcher. The hooks of the subclasses do not apply.
+	 */
+	protected boolean matchesElement(Object expectedElement, Object actualElement, Description mismatchDescription) {
+		return matches(expectedElement, actualElement, mismatchDescription, true);
+	}
 
-		if (actual == null) {
-			if ("null".equals(expectedJson)) {
+	/**
+	 * Compares the expected bean, or an element of the expected sequence, with the actual one. The hooks of the
+	 * subclasses only apply to the whole expected bean.
+	 */
+	private boolean matches(Object expected, Object actual, Description mismatchDescription, boolean element) {
+		Phases phases = phases();
+		Class<?> beanType = Phases.typeOf(expected != null ? expected : actual);
+		Timing timing = phases.start();
+		AtomicLong visitedObjects = timing != null ? new AtomicLong() : null;
+        circularReferenceTypes.addAll(getClassesWithCircularReferences(actual, visitedObjects));
+        circularReferenceTypes.addAll(getClassesWithCircularReferences(expected, visitedObjects));
+		phases.end(timing, Phase.CYCLE_DETECTION, beanType, -1, visitedObjects == null ? -1 : visitedObjects.get());
+		timing = phases.start();
+		GsonProvider gsonProvider = gsonProvider();
+		Gson gsonForExpected = gsonProvider.gsonForExpected();
+		Gson gsonForActual = gsonProvider.gsonForActual();
+		phases.end(timing, Phase.GSON_CONSTRUCTION, beanType);
+
+		try {
+			if (!areCustomMatchersMatching(actual, mismatchDescription, gsonForActual)) {
+				return false;
+			}
+
+			Future<JsonElement> expectedSerialisation = concurrentSerialisation
+					? ConcurrentSerialisation.submit(expectedSerialisation(expected, gsonForExpected, element)) : null;
+			JsonElement actualTree;
+			try {
+				actualTree = actual == null ? null : filterJson(gsonForActual, actual);
+			} catch (RuntimeException e) {
+				await(expectedSerialisation);
+				throw e;
+			}
+			if (actualTree != null && !element && isKnownToMatch(actualTree)) {
+				await(expectedSerialisation);
 				return true;
 			}
+			JsonElement expectedTree = expectedSerialisation != null ? ConcurrentSerialisation.get(expectedSerialisation)
+					: element ? filterJson(gsonForExpected, expected) : expectedTree(gsonForExpected);
 
-			return appendMismatchDescription(mismatchDescription, expectedJson, "null", "actual was null");
-		}
+			if (actual == null) {
+				if (expectedTree.isJsonNull()) {
+					return true;
+				}
+				if (mismatchDescription == Description.NONE) {
+					return false;
+				}
 
-		try {
-			String actualJson = filterJson(gsonForActual, actual);
+				return appendMismatchDescription(mismatchDescription, gsonForExpected.toJson(expectedTree), "null", "actual was null");
+			}
+
+			timing = phases.start();
+			actualTree = selectComparedTree(expectedTree, actualTree);
+			KeyedLists.Alignments alignments = keyedLists.apply(expectedTree, actualTree);
+			anyOrderLists.apply(expectedTree, actualTree);
+			numericTolerances.apply(expectedTree, actualTree, gsonProvider.primitiveArrays());
+			List<String> notes = alignments.describe();
+			notes.addAll(sampledArrays.apply(expectedTree, actualTree));
 
-			return assertEquals(expectedJson, actualJson, mismatchDescription);
+			boolean matching = JsonTrees.areEqual(expectedTree, actualTree);
+			phases.end(timing, Phase.COMPARISON, beanType, expectedTree, actualTree);
+			if (matching) {
+				return true;
+			}
+			if (mismatchDescription == Description.NONE) {
+				return false;
+			}
+			timing = phases.start();
+			boolean described = describeDifferences(mismatchDescription, expectedTree, actualTree, notes, gsonProvider);
+			phases.end(timing, Phase.DIAGNOSTICS, beanType, renderedLength(mismatchDescription), -1);
+			return described;
 		} catch (CustomMatcherException e) {
 			mismatchDescription.appendText(e.getClassSimpleName() + " ");
 			e.getMatcher().describeMismatch(e.getObject(), mismatchDescription);
@@ -96,7 +193,206 @@ class DiagnosingCustomisableMatcher<T> extends DiagnosingMatcher<T> implements C
 				mismatchDescription.appendText("\n" + e.getJsonSnippet());
 			}
 			return false;
+		} finally {
+			gsonProvider.primitiveArrays().clear();
+		}
+	}
+
+	/**
+	 * Describes the differences between the trees which do not match, rendering them unless the description only
+	 * records the differences.
+	 */
+	private boolean describeDifferences(Description mismatchDescription, JsonElement expectedTree, JsonElement actualTree,
+			List<String> notes, GsonProvider gsonProvider) {
+		Gson gsonForExpected = gsonProvider.gsonForExpected();
+		Gson gsonForActual = gsonProvider.gsonForActual();
+		if (mismatchDescription instanceof DifferencesDescription) {
+			return recordDifferences((DifferencesDescription) mismatchDescription, expectedTree, actualTree, notes);
+		}
+		if (differenceLimit != StructuredDifferences.UNLIMITED) {
+			StructuredDifferences structuredDifferences = new StructuredDifferences(expectedTree, actualTree, differenceLimit);
+			if (!structuredDifferences.isEmpty()) {
+				return appendLimitedMismatchDescription(mismatchDescription, notes, structuredDifferences);
+			}
+		}
+		String expectedJson = gsonForExpected.toJson(expectedTree);
+		String actualJson = gsonForActual.toJson(actualTree);
+		List<String> differences = new ArrayList<String>(notes);
+		ArrayDiff arrayDiff = new ArrayDiff();
+		differences.addAll(arrayDiff.describe(expectedTree, actualTree));
+		if (gsonProvider.primitiveArrays().renderMismatches(expectedTree, actualTree)) {
+			expectedJson = gsonForExpected.toJson(expectedTree);
+			actualJson = gsonForActual.toJson(actualTree);
 		}
+
+		StructuredDifferences structuredDifferences = new StructuredDifferences(expectedTree, actualTree, StructuredDifferences.UNLIMITED);
+		if (mismatchDescription instanceof ComparisonDescription) {
+			((ComparisonDescription) mismatchDescription).setDifferences(structuredDifferences);
+		}
+		if (arrayDiff.describesAll()) {
+			return appendMismatchDescription(mismatchDescription, expectedJson, actualJson, withDifferences(differences, null));
+		}
+		return assertEquals(expectedJson, actualJson, differences, structuredDifferences, mismatchDescription);
+	}
+
+	/**
+	 * Returns the length in UTF-8 of the rendered expected and actual json, or -1 if they have not been rendered.
+	 */
+	private static long renderedLength(Description mismatchDescription) {
+		if (!(mismatchDescription instanceof ComparisonDescription)) {
+			return -1;
+		}
+		ComparisonDescription comparisonDescription = (ComparisonDescription) mismatchDescription;
+		if (comparisonDescription.getExpected() == null || comparisonDescription.getActual() == null) {
+			return -1;
+		}
+		return Phases.utf8Length(comparisonDescription.getExpected()) + Phases.utf8Length(comparisonDescription.getActual());
+	}
+
+	/**
+	 * Returns the {@link GsonProvider} of this matcher, which is reused by its comparisons, and so its {@link Gson}
+	 * instances, until types with circular references are found or the types to serialise differently change.
+	 */
+	protected GsonProvider gsonProvider() {
+		if (gsonProvider == null || gsonProviderCircularReferenceTypes != circularReferenceTypes.size()) {
+			gsonProvider = new GsonProvider(typesToIgnore, patternsToIgnore, circularReferenceTypes, classCustomMatchers,
+					summarisesPrimitiveArrays());
+			gsonProviderCircularReferenceTypes = circularReferenceTypes.size();
+		}
+		return gsonProvider;
+	}
+
+	private Callable<JsonElement> expectedSerialisation(final Object expected, final Gson gsonForExpected, final boolean element) {
+		return new Callable<JsonElement>() {
+			@Override
+			public JsonElement call() {
+				return element ? filterJson(gsonForExpected, expected) : expectedTree(gsonForExpected);
+			}
+		};
+	}
+
+	private static void await(Future<?> serialisation) {
+		if (serialisation != null) {
+			ConcurrentSerialisation.await(serialisation);
+		}
+	}
+
+	/**
+	 * Compares the sequences element by element, pulling the elements one at a time and stopping at the first
+	 * mismatch or at the sequence limit. Only the mismatching pair is kept, so that the mismatch can be described
+	 * without iterating the sequences again. The sequences are compared again whenever the mismatch is not described,
+	 * as an iterable can produce other elements each time it is asserted.
+	 */
+	private boolean matchesSequence(Object actual, Description mismatchDescription) {
+		if (mismatchDescription == Description.NONE || sequenceMismatch == null || sequenceMismatch.actual != actual) {
+			sequenceMismatch = findSequenceMismatch(actual);
+		}
+		if (sequenceMismatch.index == -1) {
+			return true;
+		}
+		if (mismatchDescription == Description.NONE) {
+			return false;
+		}
+		String prefix = "[" + sequenceMismatch.index + "]: ";
+		if (!sequenceMismatch.hasExpected || !sequenceMismatch.hasActual) {
+			GsonProvider gsonProvider = gsonProvider();
+			if (sequenceMismatch.hasExpected) {
+				Gson gsonForExpected = gsonProvider.gsonForExpected();
+				String expectedJson = gsonForExpected.toJson(filterJson(gsonForExpected, sequenceMismatch.expectedElement));
+				return appendMismatchDescription(mismatchDescription, expectedJson, "", prefix + "missing element");
+			}
+			Gson gsonForActual = gsonProvider.gsonForActual();
+			String actualJson = gsonForActual.toJson(filterJson(gsonForActual, sequenceMismatch.actualElement));
+			return appendMismatchDescription(mismatchDescription, "", actualJson, prefix + "unexpected element");
+		}
+		mismatchDescription.appendText(prefix);
+		matches(sequenceMismatch.expectedElement, sequenceMismatch.actualElement, mismatchDescription, true);
+		if (mismatchDescription instanceof ComparisonDescription) {
+			ComparisonDescription comparisonDescription = (ComparisonDescription) mismatchDescription;
+			if (comparisonDescription.isComparisonFailure()) {
+				comparisonDescription.setDifferencesMessage(prefix + comparisonDescription.getDifferencesMessage());
+			}
+		}
+		return false;
+	}
+
+	private SequenceMismatch findSequenceMismatch(Object actual) {
+		if (expectedSequence == null) {
+			expectedSequence = LazySequence.singleUse(expected);
+		}
+		Iterator<?> expectedElements = LazySequence.iterator(expectedSequence);
+		Iterator<?> actualElements = LazySequence.iterator(actual);
+		for (int index = 0; index < sequenceLimit; index++) {
+			boolean hasExpected = expectedElements.hasNext();
+			boolean hasActual = actualElements.hasNext();
+			if (!hasExpected && !hasActual) {
+				break;
+			}
+			Object expectedElement = hasExpected ? expectedElements.next() : null;
+			Object actualElement = hasActual ? actualElements.next() : null;
+			if (!hasExpected || !hasActual || !matches(expectedElement, actualElement, Description.NONE, true)) {
+				return new SequenceMismatch(actual, index, hasExpected, expectedElement, hasActual, actualElement);
+			}
+		}
+		return new SequenceMismatch(actual, -1, false, null, false, null);
+	}
+
+	/**
+	 * The first pair of elements which differ between the expected and the actual sequence, or the position where one
+	 * of them ends, or a match when the index is -1.
+	 */
+	private static class SequenceMismatch {
+		private final Object actual;
+		private final int index;
+		private final boolean hasExpected;
+		private final Object expectedElement;
+		private final boolean hasActual;
+		private final Object actualElement;
+
+		SequenceMismatch(Object actual, int index, boolean hasExpected, Object expectedElement, boolean hasActual, Object actualElement) {
+			this.actual = actual;
+			this.index = index;
+			this.hasExpected = hasExpected;
+			this.expectedElement = expectedElement;
+			this.hasActual = hasActual;
+			this.actualElement = actualElement;
+		}
+	}
+
+	/**
+	 * Returns true if the actual tree is known to match without building the expected one, by default false.
+	 */
+	protected boolean isKnownToMatch(JsonElement actualTree) {
+		return false;
+	}
+
+	/**
+	 * Returns the json tree of the expected bean, without the fields to ignore.
+	 */
+	protected JsonElement expectedTree(Gson gsonForExpected) {
+		return filterJson(gsonForExpected, expected);
+	}
+
+	/**
+	 * Returns true if large primitive arrays are serialised as a summary of their content, by default true. Matchers
+	 * comparing with json which has not been serialised by shazamcrest need the arrays in full.
+	 */
+	protected boolean summarisesPrimitiveArrays() {
+		return true;
+	}
+
+	/**
+	 * Returns the part of the actual tree to be compared with the expected one, by default the whole tree.
+	 */
+	protected JsonElement selectComparedTree(JsonElement expectedTree, JsonElement actualTree) {
+		return actualTree;
+	}
+
+	/**
+	 * Returns true if lists in any order, lists matched by key, numeric tolerances or sampling have been configured.
+	 */
+	protected boolean hasComparisonOptions() {
+		return !anyOrderLists.isEmpty() || !keyedLists.isEmpty() || !numericTolerances.isEmpty() || !sampledArrays.isEmpty();
 	}
 
 	private boolean areCustomMatchersMatching(Object actual, Description mismatchDescription, Gson gson) {
@@ -128,12 +424,14 @@ class DiagnosingCustomisableMatcher<T> extends DiagnosingMatcher<T> implements C
 	@Override
 	public CustomisableMatcher<T> ignoring(Class<?> clazz) {
 		typesToIgnore.add(clazz);
+		gsonProvider = null;
 		return this;
 	}
 	
 	@Override
 	public CustomisableMatcher<T> ignoring(Matcher<String> fieldNamePattern) {
 	    patternsToIgnore.add(fieldNamePattern);
+	    gsonProvider = null;
 	    return this;
 	}
 
@@ -146,6 +444,87 @@ class DiagnosingCustomisableMatcher<T> extends DiagnosingMatcher<T> implements C
 	@Override
 	public <V> CustomisableMatcher<T> with(Class<V> clazz, Matcher<V> matcher) {
 		classCustomMatchers.put(clazz, matcher);
+		gsonProvider = null;
+		return this;
+	}
+
+	@Override
+	public CustomisableMatcher<T> withTolerance(double tolerance) {
+		numericTolerances.set(tolerance);
+		return this;
+	}
+
+	@Override
+	public CustomisableMatcher<T> withTolerance(String fieldPath, double tolerance) {
+		numericTolerances.set(fieldPath, tolerance);
+		return this;
+	}
+
+	@Override
+	public CustomisableMatcher<T> withTolerance(Class<?> type, double tolerance) {
+		numericTolerances.set(type, tolerance);
+		return this;
+	}
+
+	@Override
+	public CustomisableMatcher<T> anyOrder() {
+		anyOrderLists.set();
+		return this;
+	}
+
+	@Override
+	public CustomisableMatcher<T> anyOrder(String fieldPath) {
+		anyOrderLists.set(fieldPath);
+		return this;
+	}
+
+	@Override
+	public CustomisableMatcher<T> byKey(String fieldPath, String keyField) {
+		keyedLists.set(fieldPath, keyField);
+		return this;
+	}
+
+	@Override
+	public CustomisableMatcher<T> withDifferenceLimit(int maxDifferences) {
+		if (maxDifferences < 1) {
+			throw new IllegalArgumentException("Difference limit must be at least 1, was " + maxDifferences);
+		}
+		differenceLimit = maxDifferences;
+		return this;
+	}
+
+	@Override
+	public CustomisableMatcher<T> failFast() {
+		return withDifferenceLimit(1);
+	}
+
+	@Override
+	public CustomisableMatcher<T> withSampling(int minSize, int sampleSize) {
+		if (sampleSize < 1 || minSize <= sampleSize) {
+			throw new IllegalArgumentException("Sample size must be at least 1 and below the minimum size, was " + sampleSize + " of " + minSize);
+		}
+		sampledArrays.set(minSize, sampleSize);
+		return this;
+	}
+
+	@Override
+	public CustomisableMatcher<T> withConcurrentSerialisation() {
+		concurrentSerialisation = true;
+		return this;
+	}
+
+	@Override
+	public CustomisableMatcher<T> withSequenceLimit(int maxElements) {
+		if (maxElements < 1) {
+			throw new IllegalArgumentException("Sequence limit must be at least 1, was " + maxElements);
+		}
+		sequenceLimit = maxElements;
+		return this;
+	}
+
+	@Override
+	public CustomisableMatcher<T> withPhaseListener(PhaseListener listener) {
+		phases = new Phases(listener);
 		return this;
 	}
 
@@ -161,16 +540,82 @@ class DiagnosingCustomisableMatcher<T> extends DiagnosingMatcher<T> implements C
 		return false;
 	}
 
-	private boolean assertEquals(final String expectedJson, String actualJson, Description mismatchDescription) {
+	/**
+	 * Describes the differences found up to the limit without rendering the trees: the expected and actual values
+	 * of the failure only list the differing values, by path.
+	 */
+	private boolean appendLimitedMismatchDescription(Description mismatchDescription, List<String> notes, StructuredDifferences structuredDifferences) {
+		List<String> differences = new ArrayList<String>(notes);
+		StringBuilder expectedValues = new StringBuilder();
+		StringBuilder actualValues = new StringBuilder();
+		for (Difference difference : structuredDifferences) {
+			differences.add(difference.toString());
+			expectedValues.append(difference.getPath()).append(": ").append(valueOf(difference.getExpected())).append("\n");
+			actualValues.append(difference.getPath()).append(": ").append(valueOf(difference.getActual())).append("\n");
+		}
+		String expectedJson = expectedValues.toString();
+		String actualJson = actualValues.toString();
+		String message = structuredDifferences.isLimitReached() ? "stopped after " + differenceLimit + " differences" : "";
+		if (mismatchDescription instanceof ComparisonDescription) {
+			((ComparisonDescription) mismatchDescription).setDifferences(structuredDifferences);
+		}
+		return appendMismatchDescription(mismatchDescription, expectedJson, actualJson, withDifferences(differences, message).trim());
+	}
+
+	private static String valueOf(String value) {
+		return value == null ? "(absent)" : value;
+	}
+
+	/**
+	 * Records the differences in the description without rendering the trees. Only the differing values are kept, so
+	 * that the trees can be collected. Trees without any difference match.
+	 */
+	private static boolean recordDifferences(DifferencesDescription description, JsonElement expectedTree, JsonElement actualTree, List<String> notes) {
+		StructuredDifferences structuredDifferences = new StructuredDifferences(expectedTree, actualTree, description.getDifferenceLimit());
+		List<Difference> differences = new ArrayList<Difference>(structuredDifferences);
+		if (differences.isEmpty()) {
+			return true;
+		}
+		description.setComparisonFailure(true);
+		description.setDifferences(differences);
+		description.setLimitReached(structuredDifferences.isLimitReached());
+		description.setDifferencesMessage(withDifferences(notes, "").trim());
+		return false;
+	}
+
+	/**
+	 * Describes the differences found by JSONAssert, or the ones of the trees when JSONAssert finds none, as it compares
+	 * numbers as doubles rather than by their exact value.
+	 */
+	private boolean assertEquals(final String expectedJson, String actualJson, List<String> differences,
+			List<Difference> structuredDifferences, Description mismatchDescription) {
 		try {
 			JSONAssert.assertEquals(expectedJson, actualJson, true);
 		} catch (AssertionError e) {
-			return appendMismatchDescription(mismatchDescription, expectedJson, actualJson, e.getMessage());
+			return appendMismatchDescription(mismatchDescription, expectedJson, actualJson, withDifferences(differences, e.getMessage()));
 		} catch (JSONException e) {
 			return appendMismatchDescription(mismatchDescription, expectedJson, actualJson, e.getMessage());
 		}
 
-		return true;
+		List<String> treeDifferences = new ArrayList<String>(differences);
+		for (Difference difference : structuredDifferences) {
+			treeDifferences.add(difference.toString());
+		}
+		return appendMismatchDescription(mismatchDescription, expectedJson, actualJson, withDifferences(treeDifferences, null));
+	}
+
+	/**
+	 * Returns the differences found, one per line, followed by the message of the comparison unless it is null.
+	 */
+	private static String withDifferences(List<String> differences, String message) {
+		StringBuilder messageWithDifferences = new StringBuilder();
+		for (String difference : differences) {
+			messageWithDifferences.append(messageWithDifferences.length() == 0 ? "" : "\n").append(difference);
+		}
+		if (message != null) {
+			messageWithDifferences.append(messageWithDifferences.length() == 0 ? "" : "\n").append(message);
+		}
+		return messageWithDifferences.toString();
 	}
 
 	private void appendFieldJsonSnippet(Object actual, Description mismatchDescription, Gson gson) {
@@ -188,16 +633,41 @@ class DiagnosingCustomisableMatcher<T> extends DiagnosingMatcher<T> implements C
 		}
 	}
 
-	private String filterJson(Gson gson, Object object) {
+	protected JsonElement filterJson(Gson gson, Object object) {
+		Phases phases = phases();
+		Timing timing = phases.start();
+		if (timing == null) {
+			return filterPaths(serialise(gson, object));
+		}
+		UnorderedJsonTreeWriter jsonTreeWriter = serialise(gson, object);
+		phases.end(timing, Phase.SERIALISATION, Phases.typeOf(object), jsonTreeWriter.get());
+		timing = phases.start();
+		JsonElement jsonElement = filterPaths(jsonTreeWriter);
+		phases.end(timing, Phase.PATH_FILTERING, Phases.typeOf(object), jsonElement);
+		return jsonElement;
+	}
+
+	/**
+	 * Removes the paths to filter from a serialised tree.
+	 */
+	protected JsonElement filterPaths(UnorderedJsonTreeWriter jsonTreeWriter) {
+		return findPaths(jsonTreeWriter, pathsToFilter());
+	}
+
+	/**
+	 * Returns the phases notifying the listener of this matcher, or the one named by the system property.
+	 */
+	private Phases phases() {
+		if (phases == null) {
+			phases = Phases.configured();
+		}
+		return phases;
+	}
+
+	protected Set<String> pathsToFilter() {
 		Set<String> set = new HashSet<String>();
 		set.addAll(pathsToIgnore);
 		set.addAll(pathCustomMatchers.keySet());
-		JsonElement filteredJson = findPaths(gson, object, set);
-
-		return removeSetMarker(gson.toJson(filteredJson));
-	}
-	
-	private String removeSetMarker(String json) {
-		return json.replaceAll(MARKER, "");
+		return set;
 	}
 }
\ No newline at end of file
@@ -0,0 +1,240 @@
+/*
+ * Copyright 2013 Shazam Entertainment Limited
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License.
+ *
+ * You may obtain a copy of the License at http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions and limitations under the License.
+ */
+package com.shazam.shazamcrest.matcher;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonPrimitive;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+
+/**
+ * Compares a json document written by hand with the json tree of a bean. Unlike the trees of two beans, the fields of
+ * the document may be in any order, numbers may be written differently, e.g. 1 for 1.0, and null fields may be
+ * present.
+ * <p>
+ * The document can be compared as a stream, without building its tree, or its tree can be aligned with the one of
+ * the bean before the usual comparison, for diagnostics.
+ */
+class DocumentComparison {
+	private final Set<String> pathsToIgnore;
+
+	DocumentComparison(Set<String> pathsToIgnore) {
+		this.pathsToIgnore = pathsToIgnore;
+	}
+
+	/**
+	 * Reads the document token by token and returns true if it has the same content as the actual tree. Stops at the
+	 * first difference.
+	 */
+	boolean matches(JsonReader expected, JsonElement actual) {
+		try {
+			return matches("", expected, actual);
+		} catch (IOException e) {
+			throw new JsonParseException(e);
+		}
+	}
+
+	private boolean matches(String path, JsonReader expected, JsonElement actual) throws IOException {
+		switch (expected.peek()) {
+		case BEGIN_OBJECT:
+			return actual.isJsonObject() && matchesObject(path, expected, actual.getAsJsonObject());
+		case BEGIN_ARRAY:
+			return actual.isJsonArray() && matchesArray(path, expected, actual.getAsJsonArray());
+		case NULL:
+			expected.nextNull();
+			return actual.isJsonNull();
+		case BOOLEAN:
+			return actual.isJsonPrimitive() && actual.getAsJsonPrimitive().isBoolean()
+					&& expected.nextBoolean() == actual.getAsBoolean();
+		case NUMBER:
+			return actual.isJsonPrimitive() && actual.getAsJsonPrimitive().isNumber()
+					&& areEqualNumbers(expected.nextString(), actual.getAsNumber());
+		default:
+			return actual.isJsonPrimitive() && actual.getAsJsonPrimitive().isString()
+					&& expected.nextString().equals(actual.getAsString());
+		}
+	}
+
+	private boolean matchesObject(String path, JsonReader expected, JsonObject actual) throws IOException {
+		int fields = 0;
+		expected.beginObject();
+		while (expected.hasNext()) {
+			String name = expected.nextName();
+			String fieldPath = path.isEmpty() ? name : path + "." + name;
+			JsonElement actualElement = actual.get(name);
+			if (pathsToIgnore.contains(fieldPath)) {
+				expected.skipValue();
+			} else if (actualElement == null) {
+				if (expected.peek() != JsonToken.NULL) {
+					return false;
+				}
+				expected.nextNull();
+			} else {
+				fields++;
+				if (!matches(fieldPath, expected, actualElement)) {
+					return false;
+				}
+			}
+		}
+		expected.endObject();
+		return fields == actual.entrySet().size();
+	}
+
+	private boolean matchesArray(String path, JsonReader expected, JsonArray actual) throws IOException {
+		int index = 0;
+		expected.beginArray();
+		while (expected.hasNext()) {
+			if (index >= actual.size() || !matches(path, expected, actual.get(index++))) {
+				return false;
+			}
+		}
+		expected.endArray();
+		return index == actual.size();
+	}
+
+	/**
+	 * Aligns the tree of the document with the actual one: the fields of the objects are put in the order of the
+	 * actual ones, the null fields missing from the actual objects are removed, and the numbers equal to the actual
+	 * ones are replaced with them.
+	 */
+	void align(JsonElement expected, JsonElement actual) {
+		if (expected.isJsonObject() && actual.isJsonObject()) {
+			alignObject(expected.getAsJsonObject(), actual.getAsJsonObject());
+		} else if (expected.isJsonArray() && actual.isJsonArray()) {
+			alignArray(expected.getAsJsonArray(), actual.getAsJsonArray());
+		}
+	}
+
+	/**
+	 * Aligns each element of the expected array with the actual element at the same position, or with the first
+	 * actual element it is equivalent to, so that the arrays compared in any order or by key are aligned too.
+	 */
+	private void alignArray(JsonArray expected, JsonArray actual) {
+		boolean[] paired = new boolean[actual.size()];
+		for (int i = 0; i < expected.size(); i++) {
+			int pair = findEquivalent(expected.get(i), actual, paired, i);
+			if (pair == -1) {
+				if (i >= actual.size()) {
+					continue;
+				}
+				pair = i;
+			}
+			paired[pair] = true;
+			if (isEqualNumber(expected.get(i), actual.get(pair))) {
+				expected.set(i, actual.get(pair));
+			} else {
+				align(expected.get(i), actual.get(pair));
+			}
+		}
+	}
+
+	private static int findEquivalent(JsonElement expected, JsonArray actual, boolean[] paired, int position) {
+		if (position < actual.size() && !paired[position] && areEquivalent(expected, actual.get(position))) {
+			return position;
+		}
+		for (int i = 0; i < actual.size(); i++) {
+			if (!paired[i] && areEquivalent(expected, actual.get(i))) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * Returns true if the trees have the same content by the rules of the document comparison.
+	 */
+	private static boolean areEquivalent(JsonElement expected, JsonElement actual) {
+		if (expected.isJsonObject() && actual.isJsonObject()) {
+			int fields = 0;
+			JsonObject actualObject = actual.getAsJsonObject();
+			for (Entry<String, JsonElement> entry : expected.getAsJsonObject().entrySet()) {
+				JsonElement actualElement = actualObject.get(entry.getKey());
+				if (actualElement == null && !entry.getValue().isJsonNull()) {
+					return false;
+				}
+				if (actualElement != null) {
+					fields++;
+					if (!areEquivalent(entry.getValue(), actualElement)) {
+						return false;
+					}
+				}
+			}
+			return fields == actualObject.entrySet().size();
+		}
+		if (expected.isJsonArray() && actual.isJsonArray()) {
+			JsonArray expectedArray = expected.getAsJsonArray();
+			JsonArray actualArray = actual.getAsJsonArray();
+			if (expectedArray.size() != actualArray.size()) {
+				return false;
+			}
+			for (int i = 0; i < expectedArray.size(); i++) {
+				if (!areEquivalent(expectedArray.get(i), actualArray.get(i))) {
+					return false;
+				}
+			}
+			return true;
+		}
+		return isEqualNumber(expected, actual) || expected.equals(actual);
+	}
+
+	private void alignObject(JsonObject expected, JsonObject actual) {
+		Map<String, JsonElement> fields = new LinkedHashMap<String, JsonElement>();
+		for (Entry<String, JsonElement> entry : actual.entrySet()) {
+			JsonElement expectedElement = expected.get(entry.getKey());
+			if (expectedElement != null) {
+				fields.put(entry.getKey(), isEqualNumber(expectedElement, entry.getValue()) ? entry.getValue() : expectedElement);
+				align(expectedElement, entry.getValue());
+			}
+		}
+		List<String> names = new ArrayList<String>();
+		for (Entry<String, JsonElement> entry : expected.entrySet()) {
+			names.add(entry.getKey());
+			if (!fields.containsKey(entry.getKey()) && !entry.getValue().isJsonNull()) {
+				fields.put(entry.getKey(), entry.getValue());
+			}
+		}
+		for (String name : names) {
+			expected.remove(name);
+		}
+		for (Entry<String, JsonElement> field : fields.entrySet()) {
+			expected.add(field.getKey(), field.getValue());
+		}
+	}
+
+	private static boolean isEqualNumber(JsonElement expected, JsonElement actual) {
+		if (!expected.isJsonPrimitive() || !actual.isJsonPrimitive()) {
+			return false;
+		}
+		JsonPrimitive expectedPrimitive = expected.getAsJsonPrimitive();
+		JsonPrimitive actualPrimitive = actual.getAsJsonPrimitive();
+		return expectedPrimitive.isNumber() && actualPrimitive.isNumber()
+				&& areEqualNumbers(expectedPrimitive.getAsNumber().toString(), actualPrimitive.getAsNumber());
+	}
+
+	private static boolean areEqualNumbers(String expected, Number actual) {
+		try {
+			return new BigDecimal(expected).compareTo(new BigDecimal(actual.toString())) == 0;
+		} catch (NumberFormatException e) {
+			return expected.equals(actual.toString());
+		}
+	}
+}
@@ -15,13 +15,11 @@ import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Ordering;
 import com.google.gson.ExclusionStrategy;
 import com.google.gson.FieldAttributes;
-import com.google.gson.FieldNamingStrategy;
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
 import com.google.gson.JsonArray;
 import com.google.gson.JsonElement;
-import com.google.gson.JsonObject;
-import com.google.gson.JsonPrimitive;
+import com.google.gson.JsonNull;
 import com.google.gson.JsonSerializationContext;
 import com.google.gson.JsonSerializer;
 import com.google.gson.TypeAdapter;
@@ -30,23 +28,26 @@ import com.google.gson.graph.GraphAdapterBuilder;
 import com.google.gson.reflect.TypeToken;
 import com.google.gson.stream.JsonReader;
 import com.google.gson.stream.JsonWriter;
+import org.apache.commons.lang3.time.FastDateFormat;
 import org.hamcrest.Matcher;
 
 import java.io.IOException;
-import java.lang.reflect.Field;
 import java.lang.reflect.Type;
-import java.text.SimpleDateFormat;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZonedDateTime;
 import java.util.ArrayList;
 import java.util.Collection;
-import java.util.Comparator;
 import java.util.Date;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
+import java.util.TreeMap;
 
-import static com.google.common.collect.Sets.newTreeSet;
-import static com.shazam.shazamcrest.FieldsIgnorer.MARKER;
+import static com.shazam.shazamcrest.UnorderedJsonTreeWriter.beginUnorderedArray;
 import static org.apache.commons.lang3.ClassUtils.isPrimitiveOrWrapper;
 
 /**
@@ -55,18 +56,24 @@ import static org.apache.commons.lang3.ClassUtils.isPrimitiveOrWrapper;
  */
 class GsonProvider {
 
-	private static final SimpleDateFormat DATE_FORMAT = new SimpleDateFormat("MMM d, yyyy hh:mm:ss.SSS aa");
+	private static final FastDateFormat DATE_FORMAT = FastDateFormat.getInstance("MMM d, yyyy hh:mm:ss.SSS aa");
 
 	private final List<Class<?>> typesToIgnore;
 	private final List<Matcher<String>> fieldsToIgnore;
 	private final Set<Class<?>> circularReferenceTypes;
 	private final Map<Class<?>, Matcher<?>> typesWithCustomMatchers;
+	private final PrimitiveArraysTypeAdapterFactory primitiveArrays = new PrimitiveArraysTypeAdapterFactory();
+	private final boolean summarisePrimitiveArrays;
+	private Gson gsonForActual;
+	private Gson gsonForExpected;
 
-	GsonProvider(List<Class<?>> typesToIgnore, List<Matcher<String>> fieldsToIgnore, Set<Class<?>> circularReferenceTypes, Map<Class<?>, Matcher<?>> typesWithCustomMatchers) {
+	GsonProvider(List<Class<?>> typesToIgnore, List<Matcher<String>> fieldsToIgnore, Set<Class<?>> circularReferenceTypes, Map<Class<?>, Matcher<?>> typesWithCustomMatchers,
+			boolean summarisePrimitiveArrays) {
 		this.typesToIgnore = typesToIgnore;
 		this.fieldsToIgnore = fieldsToIgnore;
 		this.circularReferenceTypes = circularReferenceTypes;
 		this.typesWithCustomMatchers = typesWithCustomMatchers;
+		this.summarisePrimitiveArrays = summarisePrimitiveArrays;
 	}
 
 	/**
@@ -76,33 +83,49 @@ class GsonProvider {
 	 * @return an instance of {@link Gson}
      */
 	Gson gsonForActual() {
-		GsonBuilder gsonBuilder = initGsonBuilder();
+		if (gsonForActual == null) {
+			GsonBuilder gsonBuilder = initGsonBuilder();
 
-		registerTypesWithCustomMatchersSerialisation(gsonBuilder, typesWithCustomMatchers);
-		registerExclusionStrategies(gsonBuilder, typesToIgnore, fieldsToIgnore);
+			registerTypesWithCustomMatchersSerialisation(gsonBuilder, typesWithCustomMatchers);
+			registerExclusionStrategies(gsonBuilder, typesToIgnore, fieldsToIgnore);
 
-		return gsonBuilder.create();
+			gsonForActual = gsonBuilder.create();
+		}
+		return gsonForActual;
 	}
 
 	Gson gsonForExpected() {
-		GsonBuilder gsonBuilder = initGsonBuilder();
+		if (gsonForExpected == null) {
+			GsonBuilder gsonBuilder = initGsonBuilder();
 
-		registerExclusionStrategies(gsonBuilder, both(typesToIgnore, typesWithCustomMatchers.keySet()), fieldsToIgnore);
+			registerExclusionStrategies(gsonBuilder, both(typesToIgnore, typesWithCustomMatchers.keySet()), fieldsToIgnore);
 
-		return gsonBuilder.create();
+			gsonForExpected = gsonBuilder.create();
+		}
+		return gsonForExpected;
     }
 
+	/**
+	 * Returns the {@link PrimitiveArraysTypeAdapterFactory} shared by the {@link Gson} instances of this provider, which
+	 * keeps the large primitive arrays serialised by them. It keeps none when primitive arrays are serialised in full.
+	 */
+	PrimitiveArraysTypeAdapterFactory primitiveArrays() {
+		return primitiveArrays;
+	}
+
 	private GsonBuilder initGsonBuilder() {
 		final GsonBuilder gsonBuilder = initGson();
 
 		registerCircularReferenceTypes(circularReferenceTypes, gsonBuilder);
 
 		registerGuavaOptionalSerialisation(gsonBuilder);
-		registerSetSerialisation(gsonBuilder);
-		registerMapSerialisation(gsonBuilder);
+		registerSetSerialisation(gsonBuilder, circularReferenceTypes.isEmpty());
+		registerMapSerialisation(gsonBuilder, circularReferenceTypes.isEmpty());
 		registerDateSerialisation(gsonBuilder);
-
-		markSetAndMapFields(gsonBuilder);
+		registerJavaTimeSerialisation(gsonBuilder);
+		if (summarisePrimitiveArrays) {
+			gsonBuilder.registerTypeAdapterFactory(primitiveArrays);
+		}
 
 		return gsonBuilder;
 	}
@@ -166,49 +189,87 @@ class GsonProvider {
         });
 	}
 
-	private static void markSetAndMapFields(final GsonBuilder gsonBuilder) {
-		gsonBuilder.setFieldNamingStrategy(new FieldNamingStrategy() {
+	private static void registerMapSerialisation(final GsonBuilder gsonBuilder, final boolean allowParallel) {
+		final LazyGson lazyGson = new LazyGson(gsonBuilder);
+		gsonBuilder.registerTypeHierarchyAdapter(Map.class, new TypeAdapter<Map<Object, Object>>() {
 			@Override
-			public String translateName(Field f) {
-				if (Set.class.isAssignableFrom(f.getType()) || Map.class.isAssignableFrom(f.getType())) {
-					return MARKER + f.getName();
+			public void write(JsonWriter out, Map<Object, Object> map) throws IOException {
+				if (map == null) {
+					out.nullValue();
+					return;
 				}
-				return f.getName();
+				Gson gson = lazyGson.get();
+
+				ArrayListMultimap<String, Object> objects = mapObjectsByTheirJsonRepresentation(map, gson, allowParallel);
+				writeObjectsOrderedByTheirJsonRepresentation(out, gson, objects, map);
+			}
+
+			@Override
+			public Map<Object, Object> read(JsonReader in) throws IOException {
+				return null;
 			}
 		});
 	}
 
-	private static void registerMapSerialisation(final GsonBuilder gsonBuilder) {
-		gsonBuilder.registerTypeHierarchyAdapter(Map.class, new JsonSerializer<Map<Object, Object>>() {
+	private static void registerSetSerialisation(final GsonBuilder gsonBuilder, final boolean allowParallel) {
+		final LazyGson lazyGson = new LazyGson(gsonBuilder);
+		gsonBuilder.registerTypeHierarchyAdapter(Set.class, new TypeAdapter<Set<Object>>() {
+			@Override
+			public void write(JsonWriter out, Set<Object> set) throws IOException {
+				if (set == null) {
+					out.nullValue();
+					return;
+				}
+				Gson gson = lazyGson.get();
+
+				Collection<Object> orderedSet = orderSetByElementsJsonRepresentation(set, gson, allowParallel);
+				writeObjectsOrderedByTheirJsonRepresentation(out, gson, orderedSet);
+			}
+
 			@Override
-			public JsonElement serialize(Map<Object, Object> map, Type type, JsonSerializationContext context) {
-				Gson gson = gsonBuilder.create();
-				
-        		ArrayListMultimap<String, Object> objects = mapObjectsByTheirJsonRepresentation(map, gson);
-        		return arrayOfObjectsOrderedByTheirJsonRepresentation(gson, objects, map);
+			public Set<Object> read(JsonReader in) throws IOException {
+				return null;
 			}
 		});
 	}
 
-	private static void registerSetSerialisation(final GsonBuilder gsonBuilder) {
-		gsonBuilder.registerTypeHierarchyAdapter(Set.class, new JsonSerializer<Set<Object>>() {
-        	@Override
-        	public JsonElement serialize(Set<Object> set, Type type, JsonSerializationContext context) {
-        		Gson gson = gsonBuilder.create();
+	private static void registerDateSerialisation(final GsonBuilder gsonBuilder) {
+		gsonBuilder.registerTypeHierarchyAdapter(Date.class, new TypeAdapter<Date>() {
+			@Override
+			public void write(JsonWriter out, Date date) throws IOException {
+				out.value(DATE_FORMAT.format(date));
+			}
 
-        		Set<Object> orderedSet = orderSetByElementsJsonRepresentation(set, gson);
-        		return arrayOfObjectsOrderedByTheirJsonRepresentation(gson, orderedSet);
-        	}
-        });
+			@Override
+			public Date read(JsonReader in) throws IOException {
+				return null;
+			}
+		}.nullSafe());
 	}
 
-	private static void registerDateSerialisation(final GsonBuilder gsonBuilder) {
-		gsonBuilder.registerTypeHierarchyAdapter(Date.class, new JsonSerializer<Date>() {
-        	@Override
-        	public JsonElement serialize(Date date, Type type, JsonSerializationContext context) {
-        		return new JsonPrimitive(DATE_FORMAT.format(date));
-        	}
-        });
+	private static void registerJavaTimeSerialisation(final GsonBuilder gsonBuilder) {
+		gsonBuilder.registerTypeAdapter(Instant.class, isoRepresentationAdapter());
+		gsonBuilder.registerTypeAdapter(LocalDate.class, isoRepresentationAdapter());
+		gsonBuilder.registerTypeAdapter(LocalDateTime.class, isoRepresentationAdapter());
+		gsonBuilder.registerTypeAdapter(ZonedDateTime.class, isoRepresentationAdapter());
+		gsonBuilder.registerTypeAdapter(Duration.class, isoRepresentationAdapter());
+	}
+
+	/**
+	 * Serialises java.time values with their ISO-8601 representation, as returned by their toString().
+	 */
+	private static <T> TypeAdapter<T> isoRepresentationAdapter() {
+		return new TypeAdapter<T>() {
+			@Override
+			public void write(JsonWriter out, T value) throws IOException {
+				out.value(value.toString());
+			}
+
+			@Override
+			public T read(JsonReader in) throws IOException {
+				return null;
+			}
+		}.nullSafe();
 	}
 
 	private static void registerCircularReferenceTypes(Set<Class<?>> circularReferenceTypes, GsonBuilder gsonBuilder) {
@@ -232,58 +293,78 @@ class GsonProvider {
 		});
 	}
 
-	private static Set<Object> orderSetByElementsJsonRepresentation(Set<Object> set, final Gson gson) {
-		Set<Object> objects = newTreeSet(new Comparator<Object>() {
-			@Override
-			public int compare(Object o1, Object o2) {
-				return gson.toJson(o1).compareTo(gson.toJson(o2));
+	/**
+	 * Orders the elements of the set by their json representation, keeping the first of the elements with the same
+	 * representation. Each element is serialised once, in parallel for large sets.
+	 */
+	private static Collection<Object> orderSetByElementsJsonRepresentation(Set<Object> set, Gson gson, boolean allowParallel) {
+		Object[] elements = set.toArray();
+		String[] jsons = ParallelTrees.toJson(gson, elements, allowParallel);
+		Map<String, Object> objects = new TreeMap<String, Object>();
+		for (int i = 0; i < elements.length; i++) {
+			if (!objects.containsKey(jsons[i])) {
+				objects.put(jsons[i], elements[i]);
 			}
-		});
-		objects.addAll(set);
-		return objects;
+		}
+		return objects.values();
 	}
 
-	private static ArrayListMultimap<String, Object> mapObjectsByTheirJsonRepresentation(Map<Object, Object> map, Gson gson) {
-    	ArrayListMultimap<String, Object> objects = ArrayListMultimap.create();
-    	for (Entry<Object, Object> mapEntry : map.entrySet()) {
-    		objects.put(gson.toJson(mapEntry.getKey()).concat(gson.toJson(mapEntry.getValue())), mapEntry.getKey());
-    	}
-    	return objects;
-    }
+	private static ArrayListMultimap<String, Object> mapObjectsByTheirJsonRepresentation(Map<Object, Object> map, Gson gson, boolean allowParallel) {
+		Object[] keysAndValues = new Object[2 * map.size()];
+		int i = 0;
+		for (Entry<Object, Object> mapEntry : map.entrySet()) {
+			keysAndValues[i++] = mapEntry.getKey();
+			keysAndValues[i++] = mapEntry.getValue();
+		}
+		String[] jsons = ParallelTrees.toJson(gson, keysAndValues, allowParallel);
+		ArrayListMultimap<String, Object> objects = ArrayListMultimap.create();
+		for (i = 0; i < keysAndValues.length; i += 2) {
+			objects.put(jsons[i].concat(jsons[i + 1]), keysAndValues[i]);
+		}
+		return objects;
+	}
 
-	private static JsonArray arrayOfObjectsOrderedByTheirJsonRepresentation(Gson gson, Set<Object> objects) {
-		JsonArray array = new JsonArray();
+	private static void writeObjectsOrderedByTheirJsonRepresentation(JsonWriter out, Gson gson, Collection<Object> objects) throws IOException {
+		beginUnorderedArray(out);
 		for (Object object : objects) {
-			array.add(gson.toJsonTree(object));
+			write(out, gson, object);
 		}
-		return array;
+		out.endArray();
 	}
 
-	private static JsonArray arrayOfObjectsOrderedByTheirJsonRepresentation(Gson gson, ArrayListMultimap<String, Object> objects, Map<Object, Object> map) {
+	private static void writeObjectsOrderedByTheirJsonRepresentation(JsonWriter out, Gson gson, ArrayListMultimap<String, Object> objects, Map<Object, Object> map) throws IOException {
 		ImmutableList<String> sortedMapKeySet = Ordering.natural().immutableSortedCopy(objects.keySet());
-		JsonArray array = new JsonArray();
+		beginUnorderedArray(out);
 		if (allKeysArePrimitiveOrStringOrEnum(sortedMapKeySet, objects)) {
 			for (String jsonRepresentation : sortedMapKeySet) {
 				List<Object> objectsInTheSet = objects.get(jsonRepresentation);
 				for (Object objectInTheSet : objectsInTheSet) {
-					JsonObject jsonObject = new JsonObject();
-					jsonObject.add(String.valueOf(objectInTheSet), gson.toJsonTree(map.get(objectInTheSet)));
-					array.add(jsonObject);
+					out.beginObject();
+					out.name(String.valueOf(objectInTheSet));
+					write(out, gson, map.get(objectInTheSet));
+					out.endObject();
 				}
 			}
 		} else {
 			for (String jsonRepresentation : sortedMapKeySet) {
-				JsonArray keyValueArray = new JsonArray();
 				List<Object> objectsInTheSet = objects.get(jsonRepresentation);
 				for (Object objectInTheSet : objectsInTheSet) {
-					keyValueArray.add(gson.toJsonTree(objectInTheSet));
-					keyValueArray.add(gson.toJsonTree(map.get(objectInTheSet)));
-					array.add(keyValueArray);
+					out.beginArray();
+					write(out, gson, objectInTheSet);
+					write(out, gson, map.get(objectInTheSet));
+					out.endArray();
 				}
 			}
 		}
+		out.endArray();
+	}
 
-		return array;
+	private static void write(JsonWriter out, Gson gson, Object object) {
+		if (object == null) {
+			gson.toJson(JsonNull.INSTANCE, out);
+		} else {
+			gson.toJson(object, object.getClass(), out);
+		}
 	}
 
     private static boolean allKeysArePrimitiveOrStringOrEnum(ImmutableList<String> sortedMapKeySet, ArrayListMultimap<String, Object> objects) {
@@ -310,4 +391,24 @@ class GsonProvider {
 
 		return list;
 	}
+
+	/**
+	 * Creates the {@link Gson} used by the set and map adapters to serialise their elements on first use, once all the
+	 * adapters and strategies have been registered on the builder, rather than on every set and map serialised.
+	 */
+	private static class LazyGson {
+		private final GsonBuilder gsonBuilder;
+		private volatile Gson gson;
+
+		LazyGson(GsonBuilder gsonBuilder) {
+			this.gsonBuilder = gsonBuilder;
+		}
+
+		Gson get() {
+			if (gson == null) {
+				gson = gsonBuilder.create();
+			}
+			return gson;
+		}
+	}
 }
@@ -17,7 +17,7 @@ import org.hamcrest.core.IsEqual;
 
 /**
  * {@link DiagnosingCustomisableMatcher} which applies the {@link IsEqual} matcher when the object to compare is a String
- * or a primitive type.
+ * or a primitive type, applying the tolerance specified when it is a float or a double.
  */
 class IsEqualMatcher<T> extends DiagnosingCustomisableMatcher<T> {
 
@@ -33,7 +33,7 @@ class IsEqualMatcher<T> extends DiagnosingCustomisableMatcher<T> {
 	@Override
 	protected boolean matches(Object actual, Description mismatchDescription) {
 		Matcher<T> equalTo = equalTo(expected);
-		boolean matches = equalTo.matches(actual);
+		boolean matches = equalTo.matches(actual) || numericTolerances.areWithinTolerance(expected, actual);
 		if (!matches) {
 			equalTo.describeMismatch(actual, mismatchDescription);
 		}
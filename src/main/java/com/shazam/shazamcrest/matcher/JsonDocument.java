@@ -0,0 +1,113 @@
+/*
+ * Copyright 2013 Shazam Entertainment Limited
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License.
+ *
+ * You may obtain a copy of the License at http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions and limitations under the License.
+ */
+package com.shazam.shazamcrest.matcher;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import com.google.common.io.CharStreams;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonParser;
+import com.google.gson.stream.JsonReader;
+
+/**
+ * The source of an expected json document, which can be read more than once. A document given as a {@link Reader}
+ * is read fully the first time it is needed, as the reader cannot be reset.
+ */
+abstract class JsonDocument {
+
+	static JsonDocument of(final String json) {
+		return new JsonDocument() {
+			@Override
+			protected Reader openReader() {
+				return new StringReader(json);
+			}
+
+			@Override
+			public String toString() {
+				return "json document";
+			}
+		};
+	}
+
+	static JsonDocument of(final Path path) {
+		return new JsonDocument() {
+			@Override
+			protected Reader openReader() throws IOException {
+				return Files.newBufferedReader(path, UTF_8);
+			}
+
+			@Override
+			public String toString() {
+				return path.toString();
+			}
+		};
+	}
+
+	static JsonDocument of(final Reader reader) {
+		return new JsonDocument() {
+			private String json;
+
+			@Override
+			protected synchronized Reader openReader() throws IOException {
+				if (json == null) {
+					try {
+						json = CharStreams.toString(reader);
+					} finally {
+						reader.close();
+					}
+				}
+				return new StringReader(json);
+			}
+
+			@Override
+			public String toString() {
+				return "json document";
+			}
+		};
+	}
+
+	protected abstract Reader openReader() throws IOException;
+
+	/**
+	 * @return a lenient {@link JsonReader} streaming the document
+	 */
+	JsonReader open() {
+		try {
+			JsonReader reader = new JsonReader(openReader());
+			reader.setLenient(true);
+			return reader;
+		} catch (IOException e) {
+			throw new IllegalStateException("Cannot read " + this, e);
+		}
+	}
+
+	JsonElement parse() {
+		JsonReader reader = open();
+		try {
+			return new JsonParser().parse(reader);
+		} finally {
+			close(reader);
+		}
+	}
+
+	static void close(JsonReader reader) {
+		try {
+			reader.close();
+		} catch (IOException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+}
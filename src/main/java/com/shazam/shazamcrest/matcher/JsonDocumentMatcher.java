@@ -0,0 +1,59 @@
+/*
+ * Copyright 2013 Shazam Entertainment Limited
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License.
+ *
+ * You may obtain a copy of the License at http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions and limitations under the License.
+ */
+package com.shazam.shazamcrest.matcher;
+
+import static com.shazam.shazamcrest.FieldsIgnorer.findPaths;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonElement;
+import com.google.gson.stream.JsonReader;
+
+/**
+ * {@link DiagnosingCustomisableMatcher} which compares the actual bean with a {@link JsonDocument}. The document is
+ * first streamed against the json tree of the bean, and only parsed into a tree of its own to describe a mismatch or
+ * when other comparison options, such as lists in any order, have been configured.
+ */
+class JsonDocumentMatcher<T> extends DiagnosingCustomisableMatcher<T> {
+	private final JsonDocument document;
+
+	public JsonDocumentMatcher(JsonDocument document) {
+		super(null);
+		this.document = document;
+	}
+
+	@Override
+	protected boolean isKnownToMatch(JsonElement actualTree) {
+		if (hasComparisonOptions()) {
+			return false;
+		}
+		JsonReader reader = document.open();
+		try {
+			return new DocumentComparison(pathsToFilter()).matches(reader, actualTree);
+		} finally {
+			JsonDocument.close(reader);
+		}
+	}
+
+	@Override
+	protected boolean summarisesPrimitiveArrays() {
+		return false;
+	}
+
+	@Override
+	protected JsonElement expectedTree(Gson gsonForExpected) {
+		return findPaths(document.parse(), pathsToFilter());
+	}
+
+	@Override
+	protected JsonElement selectComparedTree(JsonElement expectedTree, JsonElement actualTree) {
+		new DocumentComparison(pathsToFilter()).align(expectedTree, actualTree);
+		return actualTree;
+	}
+}
@@ -0,0 +1,127 @@
+/*
+ * Copyright 2013 Shazam Entertainment Limited
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License.
+ *
+ * You may obtain a copy of the License at http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions and limitations under the License.
+ */
+package com.shazam.shazamcrest.matcher;
+
+import java.math.BigDecimal;
+import java.util.Map.Entry;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonPrimitive;
+
+/**
+ * Compares json trees without rendering them. The elements of large arrays are compared in parallel.
+ */
+class JsonTrees {
+
+	/**
+	 * Returns true if the two trees are equal as compared by JSONAssert in strict mode: the fields of objects are
+	 * compared by name regardless of their order, and numbers by their value, so that 1 and 1.0 are equal. Unlike
+	 * JSONAssert, which compares numbers as doubles, numbers are compared by their exact value.
+	 */
+	static boolean areEqual(JsonElement expected, JsonElement actual) {
+		if (expected.isJsonObject() && actual.isJsonObject()) {
+			JsonObject expectedObject = expected.getAsJsonObject();
+			JsonObject actualObject = actual.getAsJsonObject();
+			if (expectedObject.entrySet().size() != actualObject.entrySet().size()) {
+				return false;
+			}
+			for (Entry<String, JsonElement> expectedEntry : expectedObject.entrySet()) {
+				JsonElement actualElement = actualObject.get(expectedEntry.getKey());
+				if (actualElement == null || !areEqual(expectedEntry.getValue(), actualElement)) {
+					return false;
+				}
+			}
+			return true;
+		}
+		if (expected.isJsonArray() && actual.isJsonArray()) {
+			JsonArray expectedArray = expected.getAsJsonArray();
+			JsonArray actualArray = actual.getAsJsonArray();
+			if (expectedArray.size() != actualArray.size()) {
+				return false;
+			}
+			if (expectedArray.size() >= ParallelTrees.PARALLELISM_THRESHOLD) {
+				return ParallelTrees.areEqual(expectedArray, actualArray);
+			}
+			for (int i = 0; i < expectedArray.size(); i++) {
+				if (!areEqual(expectedArray.get(i), actualArray.get(i))) {
+					return false;
+				}
+			}
+			return true;
+		}
+		if (expected.isJsonPrimitive() && actual.isJsonPrimitive()) {
+			JsonPrimitive expectedPrimitive = expected.getAsJsonPrimitive();
+			JsonPrimitive actualPrimitive = actual.getAsJsonPrimitive();
+			if (expectedPrimitive.isNumber() && actualPrimitive.isNumber()) {
+				return haveSameValue(expectedPrimitive.getAsNumber(), actualPrimitive.getAsNumber());
+			}
+			return expectedPrimitive.equals(actualPrimitive);
+		}
+		return expected.isJsonNull() && actual.isJsonNull();
+	}
+
+	/**
+	 * Returns a hash of the tree consistent with {@link #areEqual}: numbers are hashed by their value, and the fields
+	 * of objects regardless of their order.
+	 */
+	static int hash(JsonElement element) {
+		if (element.isJsonObject()) {
+			int hash = 0;
+			for (Entry<String, JsonElement> entry : element.getAsJsonObject().entrySet()) {
+				hash += entry.getKey().hashCode() ^ hash(entry.getValue());
+			}
+			return hash;
+		}
+		if (element.isJsonArray()) {
+			int hash = 1;
+			for (JsonElement arrayElement : element.getAsJsonArray()) {
+				hash = 31 * hash + hash(arrayElement);
+			}
+			return hash;
+		}
+		if (element.isJsonPrimitive() && element.getAsJsonPrimitive().isNumber()) {
+			return hashOfValue(element.getAsNumber());
+		}
+		return element.hashCode();
+	}
+
+	private static int hashOfValue(Number number) {
+		if (isIntegral(number)) {
+			return Long.valueOf(number.longValue()).hashCode();
+		}
+		try {
+			BigDecimal value = new BigDecimal(number.toString()).stripTrailingZeros();
+			if (value.scale() <= 0 && value.compareTo(BigDecimal.valueOf(Long.MAX_VALUE)) <= 0
+					&& value.compareTo(BigDecimal.valueOf(Long.MIN_VALUE)) >= 0) {
+				return Long.valueOf(value.longValue()).hashCode();
+			}
+			return value.hashCode();
+		} catch (NumberFormatException e) {
+			return number.toString().hashCode();
+		}
+	}
+
+	private static boolean haveSameValue(Number expected, Number actual) {
+		if (isIntegral(expected) && isIntegral(actual)) {
+			return expected.longValue() == actual.longValue();
+		}
+		try {
+			return new BigDecimal(expected.toString()).compareTo(new BigDecimal(actual.toString())) == 0;
+		} catch (NumberFormatException e) {
+			return expected.toString().equals(actual.toString());
+		}
+	}
+
+	private static boolean isIntegral(Number number) {
+		return number instanceof Integer || number instanceof Long || number instanceof Short || number instanceof Byte;
+	}
+}
@@ -0,0 +1,240 @@
+/*
+ * Copyright 2013 Shazam Entertainment Limited
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License.
+ *
+ * You may obtain a copy of the License at http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions and limitations under the License.
+ */
+package com.shazam.shazamcrest.matcher;
+
+import static java.lang.Math.min;
+import static java.util.Arrays.asList;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.regex.Pattern;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonNull;
+import com.google.gson.JsonObject;
+
+/**
+ * Holds the paths of the lists and arrays whose elements are matched by the value of a key field rather than by
+ * position. Before the trees are compared, the elements of those arrays are paired through a hash index on the key and
+ * aligned, the elements whose key is missing on the other side being aligned with a null. Once the other comparison
+ * options have been applied to the aligned trees, the equal pairs are removed from both trees, so that the diff only
+ * contains the differing records.
+ */
+class KeyedLists {
+	private final Map<String, List<String>> keysByPath = new HashMap<String, List<String>>();
+
+	void set(String fieldPath, String keyField) {
+		keysByPath.put(fieldPath, asList(keyField.split(Pattern.quote("."))));
+	}
+
+	boolean isEmpty() {
+		return keysByPath.isEmpty();
+	}
+
+	/**
+	 * Walks the expected and actual trees side by side and aligns the elements of the keyed arrays by key.
+	 *
+	 * @return the alignments, to be described once the other comparison options have been applied to the trees
+	 */
+	Alignments apply(JsonElement expected, JsonElement actual) {
+		Alignments alignments = new Alignments();
+		if (!isEmpty()) {
+			apply("", expected, actual, alignments);
+		}
+		return alignments;
+	}
+
+	private void apply(String path, JsonElement expected, JsonElement actual, Alignments alignments) {
+		if (expected.isJsonArray() && actual.isJsonArray()) {
+			JsonArray expectedArray = expected.getAsJsonArray();
+			JsonArray actualArray = actual.getAsJsonArray();
+			if (keysByPath.containsKey(path)) {
+				alignments.add(pairByKey(path, keysByPath.get(path), expectedArray, actualArray));
+			}
+			for (int i = 0; i < min(expectedArray.size(), actualArray.size()); i++) {
+				apply(path, expectedArray.get(i), actualArray.get(i), alignments);
+			}
+		} else if (expected.isJsonObject() && actual.isJsonObject()) {
+			JsonObject actualObject = actual.getAsJsonObject();
+			for (Entry<String, JsonElement> entry : expected.getAsJsonObject().entrySet()) {
+				JsonElement actualElement = actualObject.get(entry.getKey());
+				if (actualElement != null) {
+					String fieldPath = path.isEmpty() ? entry.getKey() : path + "." + entry.getKey();
+					apply(fieldPath, entry.getValue(), actualElement, alignments);
+				}
+			}
+		}
+	}
+
+	private Alignment pairByKey(String path, List<String> keyField, JsonArray expected, JsonArray actual) {
+		Map<Key, List<JsonElement>> actualByKey = new HashMap<Key, List<JsonElement>>();
+		List<Key> actualKeys = new ArrayList<Key>();
+		for (JsonElement element : actual) {
+			Key key = new Key(keyOf(element, keyField));
+			List<JsonElement> elements = actualByKey.get(key);
+			if (elements == null) {
+				elements = new LinkedList<JsonElement>();
+				actualByKey.put(key, elements);
+				actualKeys.add(key);
+			}
+			elements.add(element);
+		}
+
+		Alignment alignment = new Alignment(path, keyField, expected, actual);
+		List<JsonElement> expectedElements = new ArrayList<JsonElement>();
+		List<JsonElement> actualElements = new ArrayList<JsonElement>();
+		for (JsonElement expectedElement : expected) {
+			JsonElement key = keyOf(expectedElement, keyField);
+			List<JsonElement> elements = actualByKey.get(new Key(key));
+			expectedElements.add(expectedElement);
+			if (elements == null || elements.isEmpty()) {
+				alignment.add(key, "missing");
+				actualElements.add(JsonNull.INSTANCE);
+			} else {
+				alignment.add(key, null);
+				actualElements.add(elements.remove(0));
+			}
+		}
+		for (Key key : actualKeys) {
+			for (JsonElement actualElement : actualByKey.get(key)) {
+				alignment.add(key.element, "unexpected");
+				expectedElements.add(JsonNull.INSTANCE);
+				actualElements.add(actualElement);
+			}
+		}
+
+		replaceElements(expected, expectedElements);
+		replaceElements(actual, actualElements);
+		return alignment;
+	}
+
+	private static JsonElement keyOf(JsonElement element, List<String> keyField) {
+		JsonElement key = element;
+		for (String field : keyField) {
+			if (!key.isJsonObject() || !key.getAsJsonObject().has(field)) {
+				return JsonNull.INSTANCE;
+			}
+			key = key.getAsJsonObject().get(field);
+		}
+		return key;
+	}
+
+	private static String keyDescription(List<String> keyField, JsonElement key) {
+		StringBuilder description = new StringBuilder();
+		for (String field : keyField) {
+			description.append(description.length() == 0 ? "" : ".").append(field);
+		}
+		return description.append(" ").append(key).toString();
+	}
+
+	private static void replaceElements(JsonArray array, List<JsonElement> elements) {
+		while (array.size() > 0) {
+			array.remove(array.size() - 1);
+		}
+		for (JsonElement element : elements) {
+			array.add(element);
+		}
+	}
+
+	/**
+	 * The value of a key field, equal to the keys of the same value as compared by {@link JsonTrees}, so that 1 and 1.0
+	 * are the same key.
+	 */
+	private static class Key {
+		private final JsonElement element;
+		private final int hash;
+
+		Key(JsonElement element) {
+			this.element = element;
+			this.hash = JsonTrees.hash(element);
+		}
+
+		@Override
+		public boolean equals(Object object) {
+			return object instanceof Key && JsonTrees.areEqual(element, ((Key) object).element);
+		}
+
+		@Override
+		public int hashCode() {
+			return hash;
+		}
+	}
+
+	/**
+	 * The keyed arrays aligned in a pair of trees.
+	 */
+	static class Alignments {
+		private final List<Alignment> alignments = new ArrayList<Alignment>();
+
+		private void add(Alignment alignment) {
+			alignments.add(alignment);
+		}
+
+		/**
+		 * Removes the equal pairs of elements from the keyed arrays.
+		 *
+		 * @return the description of the keys missing, unexpected or with differing elements
+		 */
+		List<String> describe() {
+			List<String> differences = new ArrayList<String>();
+			for (Alignment alignment : alignments) {
+				alignment.describe(differences);
+			}
+			return differences;
+		}
+	}
+
+	/**
+	 * A pair of keyed arrays aligned by key, with the key of each pair of elements and whether its element is missing
+	 * or unexpected.
+	 */
+	private static class Alignment {
+		private final String path;
+		private final List<String> keyField;
+		private final JsonArray expected;
+		private final JsonArray actual;
+		private final List<JsonElement> keys = new ArrayList<JsonElement>();
+		private final List<String> absences = new ArrayList<String>();
+
+		Alignment(String path, List<String> keyField, JsonArray expected, JsonArray actual) {
+			this.path = path;
+			this.keyField = keyField;
+			this.expected = expected;
+			this.actual = actual;
+		}
+
+		void add(JsonElement key, String absence) {
+			keys.add(key);
+			absences.add(absence);
+		}
+
+		void describe(List<String> differences) {
+			List<JsonElement> expectedElements = new ArrayList<JsonElement>();
+			List<JsonElement> actualElements = new ArrayList<JsonElement>();
+			for (int i = 0; i < keys.size(); i++) {
+				String absence = absences.get(i);
+				if (absence == null && JsonTrees.areEqual(expected.get(i), actual.get(i))) {
+					continue;
+				}
+				differences.add(path + ": " + (absence == null ? "different" : absence) + " element with "
+						+ keyDescription(keyField, keys.get(i)));
+				expectedElements.add(expected.get(i));
+				actualElements.add(actual.get(i));
+			}
+			replaceElements(expected, expectedElements);
+			replaceElements(actual, actualElements);
+		}
+	}
+}
@@ -0,0 +1,123 @@
+/*
+ * Copyright 2013 Shazam Entertainment Limited
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License.
+ *
+ * You may obtain a copy of the License at http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions and limitations under the License.
+ */
+package com.shazam.shazamcrest.matcher;
+
+import java.lang.reflect.Array;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.stream.BaseStream;
+
+/**
+ * Gives access, one element at a time, to the sequences which are not collections: iterators, streams and iterables
+ * other than collections, which may produce their elements on demand and only once.
+ */
+class LazySequence {
+	static final int UNLIMITED = Integer.MAX_VALUE;
+
+	/**
+	 * Returns true if the object is an {@link Iterator}, a {@link BaseStream} or an {@link Iterable} other than a
+	 * {@link Collection}.
+	 */
+	static boolean isLazy(Object object) {
+		return object instanceof Iterator || object instanceof BaseStream
+				|| (object instanceof Iterable && !(object instanceof Collection));
+	}
+
+	/**
+	 * Returns true if the object is a lazy sequence, a collection or an array.
+	 */
+	static boolean isSequence(Object object) {
+		return object != null && (isLazy(object) || object instanceof Collection || object.getClass().isArray());
+	}
+
+	static Iterator<?> iterator(Object sequence) {
+		if (sequence instanceof Iterator) {
+			return (Iterator<?>) sequence;
+		}
+		if (sequence instanceof BaseStream) {
+			return ((BaseStream<?, ?>) sequence).iterator();
+		}
+		if (sequence instanceof Iterable) {
+			return ((Iterable<?>) sequence).iterator();
+		}
+		return arrayIterator(sequence);
+	}
+
+	/**
+	 * Returns a sequence which fails with a clear error when it is iterated again after being consumed. Iterators and
+	 * streams can only be iterated once, and their elements are not kept so as to never hold more than the compared
+	 * elements.
+	 */
+	static Object singleUse(Object sequence) {
+		if (sequence instanceof Iterator || sequence instanceof BaseStream) {
+			return new SingleUse(iterator(sequence));
+		}
+		return sequence;
+	}
+
+	/**
+	 * Collects all the elements of the sequence, for the comparisons which need the whole of it.
+	 */
+	static List<Object> toList(Object sequence) {
+		List<Object> elements = new ArrayList<Object>();
+		Iterator<?> iterator = iterator(sequence);
+		while (iterator.hasNext()) {
+			elements.add(iterator.next());
+		}
+		return elements;
+	}
+
+	private static Iterator<Object> arrayIterator(final Object array) {
+		return new Iterator<Object>() {
+			private int index;
+
+			@Override
+			public boolean hasNext() {
+				return index < Array.getLength(array);
+			}
+
+			@Override
+			public Object next() {
+				if (!hasNext()) {
+					throw new NoSuchElementException();
+				}
+				return Array.get(array, index++);
+			}
+
+			@Override
+			public void remove() {
+				throw new UnsupportedOperationException();
+			}
+		};
+	}
+
+	private static class SingleUse implements Iterable<Object> {
+		private Iterator<?> source;
+
+		SingleUse(Iterator<?> source) {
+			this.source = source;
+		}
+
+		@SuppressWarnings("unchecked")
+		@Override
+		public Iterator<Object> iterator() {
+			if (source == null) {
+				throw new IllegalStateException("The expected iterator or stream has already been compared, "
+						+ "use a collection or an iterable to compare it more than once");
+			}
+			Iterator<Object> iterator = (Iterator<Object>) source;
+			source = null;
+			return iterator;
+		}
+	}
+}
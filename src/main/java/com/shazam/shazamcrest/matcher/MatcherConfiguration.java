@@ -0,0 +1,22 @@
+/*
+ * Copyright 2013 Shazam Entertainment Limited
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License.
+ *
+ * You may obtain a copy of the License at http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions and limitations under the License.
+ */
+package com.shazam.shazamcrest.matcher;
+
+/**
+ * Configures a {@link CustomisableMatcher} shared by many comparisons, e.g. the fields to ignore when comparing a batch
+ * of beans.
+ */
+public interface MatcherConfiguration<T> {
+
+	/**
+	 * @param matcher the matcher to configure, e.g. with {@link CustomisableMatcher#ignoring(String)}
+	 */
+	void configure(CustomisableMatcher<T> matcher);
+}
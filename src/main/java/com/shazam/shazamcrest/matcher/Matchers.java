@@ -11,6 +11,12 @@ package com.shazam.shazamcrest.matcher;
 
 import static org.apache.commons.lang3.ClassUtils.isPrimitiveOrWrapper;
 
+import java.io.Reader;
+import java.nio.file.Path;
+import java.util.List;
+
+import org.hamcrest.Matcher;
+
 /**
  * Entry point for the matchers available in Shazamcrest.
  */
@@ -35,4 +41,96 @@ public class Matchers {
 		
 		return new DiagnosingCustomisableMatcher<T>(expected);
 	}
+
+	/**
+	 * Returns a {@link ContainsBeanMatcher} which only checks the fields which are not null in the expected bean,
+	 * ignoring the other fields of the actual bean and the elements of its lists and arrays which are not expected.
+	 * Behaves as {@link #sameBeanAs(Object)} if the expectation is null, a primitive, String or Enum.
+	 * 
+	 * @param expected the expected bean, or part of bean, to match against
+	 * @return an {@link CustomisableMatcher} instance
+	 */
+	public static <T> CustomisableMatcher<T> containsBean(final T expected) {
+		if (expected == null || isPrimitiveOrWrapper(expected.getClass()) || expected.getClass() == String.class || expected.getClass().isEnum()) {
+			return sameBeanAs(expected);
+		}
+		
+		return new ContainsBeanMatcher<T>(expected);
+	}
+
+	/**
+	 * Returns a {@link SnapshotMatcher} which compares the actual bean with the json snapshot of the given name,
+	 * stored in src/test/resources/snapshots/&lt;name&gt;.json. The snapshot is recorded, or updated, by running the
+	 * tests with the shazamcrest.updateSnapshots system property set to true.
+	 * 
+	 * @param name the name of the snapshot
+	 * @return an {@link CustomisableMatcher} instance
+	 */
+	public static <T> CustomisableMatcher<T> sameBeanAsSnapshot(final String name) {
+		return new SnapshotMatcher<T>(new Snapshot(name));
+	}
+
+	/**
+	 * Returns a {@link SnapshotMatcher} which compares the actual bean with the binary snapshot of the given name,
+	 * stored in src/test/resources/snapshots/&lt;name&gt;.bin. The actual bean matches without decoding the snapshot
+	 * when the hash of its encoding is the one stored in the snapshot.
+	 * 
+	 * @param name the name of the snapshot
+	 * @return an {@link CustomisableMatcher} instance
+	 * @see #sameBeanAsSnapshot(String)
+	 */
+	public static <T> CustomisableMatcher<T> sameBeanAsBinarySnapshot(final String name) {
+		return new SnapshotMatcher<T>(new BinarySnapshot(name));
+	}
+
+	/**
+	 * Returns a {@link JsonDocumentMatcher} which compares the actual bean with the given json document. The fields of
+	 * the document may be in any order, numbers are compared by value and null fields may be omitted from the bean.
+	 * 
+	 * @param json the expected json document
+	 * @return an {@link CustomisableMatcher} instance
+	 */
+	public static <T> CustomisableMatcher<T> sameJsonAs(final String json) {
+		return new JsonDocumentMatcher<T>(JsonDocument.of(json));
+	}
+
+	/**
+	 * Returns a {@link JsonDocumentMatcher} which compares the actual bean with the json document in the given UTF-8
+	 * file.
+	 * 
+	 * @param path the file of the expected json document
+	 * @return an {@link CustomisableMatcher} instance
+	 * @see #sameJsonAs(String)
+	 */
+	public static <T> CustomisableMatcher<T> sameJsonAs(final Path path) {
+		return new JsonDocumentMatcher<T>(JsonDocument.of(path));
+	}
+
+	/**
+	 * Returns a {@link JsonDocumentMatcher} which compares the actual bean with the json document read from the given
+	 * reader. The reader is read fully and closed the first time the matcher is used.
+	 * 
+	 * @param reader the reader of the expected json document
+	 * @return an {@link CustomisableMatcher} instance
+	 * @see #sameJsonAs(String)
+	 */
+	public static <T> CustomisableMatcher<T> sameJsonAs(final Reader reader) {
+		return new JsonDocumentMatcher<T>(JsonDocument.of(reader));
+	}
+
+	/**
+	 * Returns a {@link Matcher} which compares a list of actual beans with the given expected beans, pair by pair, and
+	 * reports all the differing pairs together. The pairs are compared with the same configuration and share its
+	 * serialisers, which makes the comparison of many small beans cheaper than one matcher per pair.
+	 * 
+	 * @param expectedBeans the expected beans, in the order of the actual ones
+	 * @param configuration configures the comparison of each pair, e.g. the fields to ignore
+	 * @return a {@link Matcher} of the list of actual beans
+	 */
+	@SuppressWarnings("unchecked")
+	public static <T> Matcher<List<T>> allSameBeansAs(final List<T> expectedBeans, MatcherConfiguration<T> configuration) {
+		AllSameBeansMatcher<T> matcher = new AllSameBeansMatcher<T>(expectedBeans);
+		configuration.configure(matcher);
+		return (Matcher<List<T>>) (Matcher<?>) matcher;
+	}
 }
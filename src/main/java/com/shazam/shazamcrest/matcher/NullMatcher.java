@@ -26,7 +26,7 @@ class NullMatcher<T> extends DiagnosingCustomisableMatcher<T> {
     protected boolean matches(Object actual, Description mismatchDescription) {
         if (actual != null) {
             circularReferenceTypes.addAll(getClassesWithCircularReferences(actual));
-            String actualJson = new GsonProvider(typesToIgnore, patternsToIgnore, circularReferenceTypes, classCustomMatchers).gsonForActual().toJson(actual);
+            String actualJson = gsonProvider().gsonForActual().toJson(actual);
             return appendMismatchDescription(mismatchDescription, "null", actualJson, "actual is not null");
         }
         return true;
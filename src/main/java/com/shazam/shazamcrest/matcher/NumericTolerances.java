@@ -0,0 +1,185 @@
+/*
+ * Copyright 2013 Shazam Entertainment Limited
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License.
+ *
+ * You may obtain a copy of the License at http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions and limitations under the License.
+ */
+package com.shazam.shazamcrest.matcher;
+
+import static java.lang.Math.abs;
+import static java.lang.Math.min;
+import static org.apache.commons.lang3.ClassUtils.primitiveToWrapper;
+
+import java.math.BigInteger;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Map.Entry;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+
+/**
+ * Holds the tolerances within which float and double values are considered equal, either globally, by field path or
+ * by type. The tolerances are applied on the serialised trees before they are compared: numbers are compared as
+ * numbers, and the actual value is replaced with the expected one when they are within tolerance. Expected numbers
+ * parsed from a json document take the type of the actual ones.
+ */
+class NumericTolerances {
+	private Double tolerance;
+	private final Map<String, Double> pathTolerances = new HashMap<String, Double>();
+	private final Map<Class<?>, Double> typeTolerances = new HashMap<Class<?>, Double>();
+
+	void set(double tolerance) {
+		this.tolerance = checkTolerance(tolerance);
+	}
+
+	void set(String fieldPath, double tolerance) {
+		pathTolerances.put(fieldPath, checkTolerance(tolerance));
+	}
+
+	void set(Class<?> type, double tolerance) {
+		Class<?> wrapperType = primitiveToWrapper(type);
+		if (wrapperType != Float.class && wrapperType != Double.class) {
+			throw new IllegalArgumentException("Tolerance can only be applied to float or double, not " + type.getSimpleName());
+		}
+		typeTolerances.put(wrapperType, checkTolerance(tolerance));
+	}
+
+	boolean isEmpty() {
+		return tolerance == null && pathTolerances.isEmpty() && typeTolerances.isEmpty();
+	}
+
+	/**
+	 * Returns true if both objects are floats or doubles within the global tolerance.
+	 */
+	boolean areWithinTolerance(Object expected, Object actual) {
+		if (!isFloatingPoint(expected) || !isFloatingPoint(actual)) {
+			return false;
+		}
+		Double tolerance = toleranceFor(null, expected.getClass());
+		return tolerance != null && isWithin(((Number) expected).doubleValue(), ((Number) actual).doubleValue(), tolerance);
+	}
+
+	/**
+	 * Walks the expected and actual trees side by side and replaces every float or double in the actual tree which
+	 * is within tolerance of the expected one with the expected value.
+	 *
+	 * @param primitiveArrays holds the large arrays serialised as a summary, compared element by element
+	 */
+	void apply(JsonElement expected, JsonElement actual, PrimitiveArraysTypeAdapterFactory primitiveArrays) {
+		if (isEmpty()) {
+			return;
+		}
+		JsonArray expectedHolder = new JsonArray();
+		expectedHolder.add(expected);
+		JsonArray actualHolder = new JsonArray();
+		actualHolder.add(actual);
+		apply("", expectedHolder, actualHolder, primitiveArrays);
+	}
+
+	private void apply(String path, JsonArray expected, JsonArray actual, PrimitiveArraysTypeAdapterFactory primitiveArrays) {
+		for (int i = 0; i < min(expected.size(), actual.size()); i++) {
+			if (isWithinTolerance(path, expected.get(i), actual.get(i), primitiveArrays)) {
+				actual.set(i, expected.get(i));
+			} else {
+				applyNested(path, expected.get(i), actual.get(i), primitiveArrays);
+			}
+		}
+	}
+
+	private void apply(String path, JsonObject expected, JsonObject actual, PrimitiveArraysTypeAdapterFactory primitiveArrays) {
+		for (Entry<String, JsonElement> entry : expected.entrySet()) {
+			JsonElement actualElement = actual.get(entry.getKey());
+			if (actualElement == null) {
+				continue;
+			}
+			String fieldPath = path.isEmpty() ? entry.getKey() : path + "." + entry.getKey();
+			if (isWithinTolerance(fieldPath, entry.getValue(), actualElement, primitiveArrays)) {
+				actual.add(entry.getKey(), entry.getValue());
+			} else {
+				applyNested(fieldPath, entry.getValue(), actualElement, primitiveArrays);
+			}
+		}
+	}
+
+	private void applyNested(String path, JsonElement expected, JsonElement actual, PrimitiveArraysTypeAdapterFactory primitiveArrays) {
+		if (expected.isJsonArray() && actual.isJsonArray()) {
+			apply(path, expected.getAsJsonArray(), actual.getAsJsonArray(), primitiveArrays);
+		} else if (expected.isJsonObject() && actual.isJsonObject()) {
+			apply(path, expected.getAsJsonObject(), actual.getAsJsonObject(), primitiveArrays);
+		}
+	}
+
+	private boolean isWithinTolerance(String path, JsonElement expected, JsonElement actual, PrimitiveArraysTypeAdapterFactory primitiveArrays) {
+		if (!expected.isJsonPrimitive() || !actual.isJsonPrimitive() || expected.equals(actual)) {
+			return false;
+		}
+		if (expected.getAsJsonPrimitive().isNumber() && actual.getAsJsonPrimitive().isNumber()) {
+			Number expectedNumber = expected.getAsNumber();
+			Number actualNumber = actual.getAsNumber();
+			if (isIntegral(expectedNumber) || !isFloatingPoint(actualNumber)) {
+				return false;
+			}
+			Double tolerance = toleranceFor(path, actualNumber.getClass());
+			return tolerance != null && isWithin(expectedNumber.doubleValue(), actualNumber.doubleValue(), tolerance);
+		}
+
+		Object expectedArray = primitiveArrays.arrayOf(expected);
+		Object actualArray = primitiveArrays.arrayOf(actual);
+		if (expectedArray instanceof double[] && actualArray instanceof double[]) {
+			Double tolerance = toleranceFor(path, Double.class);
+			return tolerance != null && areWithin((double[]) expectedArray, (double[]) actualArray, tolerance);
+		}
+		return false;
+	}
+
+	private Double toleranceFor(String path, Class<?> type) {
+		if (path != null && pathTolerances.containsKey(path)) {
+			return pathTolerances.get(path);
+		}
+		if (typeTolerances.containsKey(type)) {
+			return typeTolerances.get(type);
+		}
+		return tolerance;
+	}
+
+	private static boolean areWithin(double[] expected, double[] actual, double tolerance) {
+		if (expected.length != actual.length) {
+			return false;
+		}
+		for (int i = 0; i < expected.length; i++) {
+			if (!isWithin(expected[i], actual[i], tolerance)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private static boolean isWithin(double expected, double actual, double tolerance) {
+		return Double.compare(expected, actual) == 0 || abs(expected - actual) <= tolerance;
+	}
+
+	private static boolean isFloatingPoint(Object object) {
+		return object instanceof Double || object instanceof Float;
+	}
+
+	/**
+	 * Returns true if the number has been serialised from an integral type. Numbers parsed from json, whose type is not
+	 * known, are not.
+	 */
+	private static boolean isIntegral(Number number) {
+		return number instanceof Integer || number instanceof Long || number instanceof Short || number instanceof Byte
+				|| number instanceof BigInteger;
+	}
+
+	private static double checkTolerance(double tolerance) {
+		if (tolerance < 0 || Double.isNaN(tolerance)) {
+			throw new IllegalArgumentException("Tolerance must be a positive number, was " + tolerance);
+		}
+		return tolerance;
+	}
+}
@@ -0,0 +1,147 @@
+/*
+ * Copyright 2013 Shazam Entertainment Limited
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License.
+ *
+ * You may obtain a copy of the License at http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions and limitations under the License.
+ */
+package com.shazam.shazamcrest.matcher;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonArray;
+
+/**
+ * Splits the work on the collections with at least {@link #PARALLELISM_THRESHOLD} elements across the common
+ * {@link ForkJoinPool}: the serialisation of the elements of sets and maps, which are ordered by their json
+ * representation, and the comparison of the elements of arrays.
+ * <p>
+ * The results only depend on the position of the elements, never on the order in which the tasks complete: the json
+ * representations are stored by position and, when serialisations fail, the failure of the first element is thrown.
+ */
+class ParallelTrees {
+	static final int PARALLELISM_THRESHOLD = 1024;
+	private static final int LEAF_SIZE = 256;
+
+	/**
+	 * Returns the json representation of each object, in parallel if allowed and there are enough of them. The
+	 * serialisation of types with circular references must not be parallel, as the references are numbered in order.
+	 */
+	static String[] toJson(Gson gson, Object[] objects, boolean allowParallel) {
+		String[] jsons = new String[objects.length];
+		RuntimeException[] failures = new RuntimeException[objects.length];
+		Serialisation serialisation = new Serialisation(gson, objects, jsons, failures, 0, objects.length);
+		if (allowParallel) {
+			invoke(serialisation);
+		} else {
+			serialisation.serialise();
+		}
+		for (RuntimeException failure : failures) {
+			if (failure != null) {
+				throw failure;
+			}
+		}
+		return jsons;
+	}
+
+	/**
+	 * Returns true if the arrays, of the same size, are equal as compared by {@link JsonTrees}. The elements are
+	 * compared in parallel and the comparison stops as soon as one of the tasks finds a difference.
+	 */
+	static boolean areEqual(JsonArray expected, JsonArray actual) {
+		AtomicBoolean different = new AtomicBoolean();
+		invoke(new Comparison(expected, actual, different, 0, expected.size()));
+		return !different.get();
+	}
+
+	private static void invoke(ForkJoinTask<?> task) {
+		if (ForkJoinTask.inForkJoinPool()) {
+			task.invoke();
+		} else {
+			ForkJoinPool.commonPool().invoke(task);
+		}
+	}
+
+	private static boolean isParallel(int size) {
+		return size >= PARALLELISM_THRESHOLD && ForkJoinPool.getCommonPoolParallelism() > 1;
+	}
+
+	private static class Serialisation extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+		private final Gson gson;
+		private final Object[] objects;
+		private final String[] jsons;
+		private final RuntimeException[] failures;
+		private final int from;
+		private final int to;
+
+		Serialisation(Gson gson, Object[] objects, String[] jsons, RuntimeException[] failures, int from, int to) {
+			this.gson = gson;
+			this.objects = objects;
+			this.jsons = jsons;
+			this.failures = failures;
+			this.from = from;
+			this.to = to;
+		}
+
+		@Override
+		protected void compute() {
+			if (to - from > LEAF_SIZE && isParallel(objects.length)) {
+				int middle = (from + to) >>> 1;
+				invokeAll(new Serialisation(gson, objects, jsons, failures, from, middle),
+						new Serialisation(gson, objects, jsons, failures, middle, to));
+				return;
+			}
+			serialise();
+		}
+
+		void serialise() {
+			for (int i = from; i < to; i++) {
+				try {
+					jsons[i] = gson.toJson(objects[i]);
+				} catch (RuntimeException e) {
+					failures[i] = e;
+					return;
+				}
+			}
+		}
+	}
+
+	private static class Comparison extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+		private final JsonArray expected;
+		private final JsonArray actual;
+		private final AtomicBoolean different;
+		private final int from;
+		private final int to;
+
+		Comparison(JsonArray expected, JsonArray actual, AtomicBoolean different, int from, int to) {
+			this.expected = expected;
+			this.actual = actual;
+			this.different = different;
+			this.from = from;
+			this.to = to;
+		}
+
+		@Override
+		protected void compute() {
+			if (to - from > LEAF_SIZE && isParallel(expected.size())) {
+				int middle = (from + to) >>> 1;
+				invokeAll(new Comparison(expected, actual, different, from, middle),
+						new Comparison(expected, actual, different, middle, to));
+				return;
+			}
+			for (int i = from; i < to && !different.get(); i++) {
+				if (!JsonTrees.areEqual(expected.get(i), actual.get(i))) {
+					different.set(true);
+				}
+			}
+		}
+	}
+}
@@ -0,0 +1,47 @@
+/*
+ * Copyright 2013 Shazam Entertainment Limited
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License.
+ *
+ * You may obtain a copy of the License at http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions and limitations under the License.
+ */
+package com.shazam.shazamcrest.matcher;
+
+/**
+ * Notified of the time spent by the matchers in each phase of a comparison, e.g. to find the tests and the bean types
+ * which make a build slow. It is registered on a matcher with {@link CustomisableMatcher#withPhaseListener(PhaseListener)},
+ * or on all of them by naming its class, which needs a public no argument constructor, in the system property
+ * <code>shazamcrest.phaseListener</code>. The listener may be notified from several threads.
+ */
+public interface PhaseListener {
+
+	/**
+	 * The phases of a comparison.
+	 */
+	enum Phase {
+		/** Looking for the types with circular references in the expected and actual beans. */
+		CYCLE_DETECTION,
+		/** Creating the Gson instances of the matcher, only done again when its configuration changes. */
+		GSON_CONSTRUCTION,
+		/** Serialising a bean into a json tree. */
+		SERIALISATION,
+		/** Removing the ignored paths from a json tree, and sorting again the sets and maps they belonged to. */
+		PATH_FILTERING,
+		/** Comparing the expected and actual json trees, with the options of the matcher. */
+		COMPARISON,
+		/** Describing the differences of beans which do not match. */
+		DIAGNOSTICS
+	}
+
+	/**
+	 * @param phase the completed phase
+	 * @param beanType the class of the serialised bean, or of the expected bean for the other phases, or null
+	 * @param elapsedNanos the time spent in the phase
+	 * @param bytes the length in UTF-8 of the compact json of the trees built in the phase, or of the json rendered
+	 *        by the diagnostics, or -1
+	 * @param nodes the number of objects or json values visited in the phase, or -1
+	 */
+	void phaseCompleted(Phase phase, Class<?> beanType, long elapsedNanos, long bytes, long nodes);
+}
@@ -0,0 +1,210 @@
+/*
+ * Copyright 2013 Shazam Entertainment Limited
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License.
+ *
+ * You may obtain a copy of the License at http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions and limitations under the License.
+ */
+package com.shazam.shazamcrest.matcher;
+
+import java.io.IOException;
+import java.io.Writer;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonElement;
+import com.google.gson.stream.JsonWriter;
+import com.shazam.shazamcrest.FlightRecorderEvents;
+import com.shazam.shazamcrest.matcher.PhaseListener.Phase;
+
+/**
+ * Times the phases of a comparison for a {@link PhaseListener} and the flight recorder. Without a listener, and when the
+ * flight recorder does not record the phases, nothing is timed or counted.
+ */
+class Phases {
+	static final String LISTENER_PROPERTY = "shazamcrest.phaseListener";
+	static final Phases NONE = new Phases(null);
+	private static final Gson GSON = new GsonBuilder().serializeNulls().disableHtmlEscaping().create();
+	private static final FlightRecorderEvents EVENTS = FlightRecorderEvents.get();
+	private static Phases configured;
+
+	private final PhaseListener listener;
+
+	Phases(PhaseListener listener) {
+		this.listener = listener;
+	}
+
+	/**
+	 * Returns the phases notifying the listener named by the system property, created once, or {@link #NONE}.
+	 */
+	static synchronized Phases configured() {
+		String listenerClass = System.getProperty(LISTENER_PROPERTY);
+		if (listenerClass == null) {
+			return NONE;
+		}
+		if (configured == null || !configured.listener.getClass().getName().equals(listenerClass)) {
+			try {
+				configured = new Phases((PhaseListener) Class.forName(listenerClass).getDeclaredConstructor().newInstance());
+			} catch (Exception e) {
+				throw new IllegalStateException("Cannot create the phase listener " + listenerClass, e);
+			}
+		}
+		return configured;
+	}
+
+	/**
+	 * @return the timing of a phase, or null if neither the listener nor the flight recorder are notified
+	 */
+	Timing start() {
+		Object event = EVENTS.beginPhase();
+		if (listener == null && event == null) {
+			return null;
+		}
+		return new Timing(listener == null ? 0 : System.nanoTime(), event);
+	}
+
+	void end(Timing timing, Phase phase, Class<?> beanType) {
+		end(timing, phase, beanType, -1, -1);
+	}
+
+	void end(Timing timing, Phase phase, Class<?> beanType, long bytes, long nodes) {
+		if (timing != null) {
+			notify(timing, phase, beanType, listener == null ? 0 : System.nanoTime() - timing.start, bytes, nodes);
+		}
+	}
+
+	/**
+	 * Notifies the end of a phase which built the given trees, measured after the elapsed time.
+	 */
+	void end(Timing timing, Phase phase, Class<?> beanType, JsonElement... trees) {
+		if (timing != null) {
+			long elapsed = listener == null ? 0 : System.nanoTime() - timing.start;
+			CountingJsonWriter writer = new CountingJsonWriter();
+			for (JsonElement tree : trees) {
+				GSON.toJson(tree, writer);
+			}
+			notify(timing, phase, beanType, elapsed, writer.bytes.count, writer.nodes);
+		}
+	}
+
+	private void notify(Timing timing, Phase phase, Class<?> beanType, long elapsed, long bytes, long nodes) {
+		if (timing.event != null) {
+			EVENTS.endPhase(timing.event, phase.name(), beanType, bytes, nodes);
+		}
+		if (listener != null) {
+			listener.phaseCompleted(phase, beanType, elapsed, bytes, nodes);
+		}
+	}
+
+	static long utf8Length(String string) {
+		ByteCounter counter = new ByteCounter();
+		counter.write(string, 0, string.length());
+		return counter.count;
+	}
+
+	static Class<?> typeOf(Object object) {
+		return object == null ? null : object.getClass();
+	}
+
+	/**
+	 * The start time of a phase, if the listener is notified, and its event, if the flight recorder records it.
+	 */
+	static class Timing {
+		private final long start;
+		private final Object event;
+
+		Timing(long start, Object event) {
+			this.start = start;
+			this.event = event;
+		}
+	}
+
+	/**
+	 * Writes json trees nowhere, counting their values and the length of their compact json.
+	 */
+	private static class CountingJsonWriter extends JsonWriter {
+		private final ByteCounter bytes;
+		private long nodes;
+
+		CountingJsonWriter() {
+			this(new ByteCounter());
+		}
+
+		private CountingJsonWriter(ByteCounter bytes) {
+			super(bytes);
+			this.bytes = bytes;
+			setSerializeNulls(true);
+		}
+
+		@Override
+		public JsonWriter beginArray() throws IOException {
+			nodes++;
+			return super.beginArray();
+		}
+
+		@Override
+		public JsonWriter beginObject() throws IOException {
+			nodes++;
+			return super.beginObject();
+		}
+
+		@Override
+		public JsonWriter value(String value) throws IOException {
+			nodes++;
+			return super.value(value);
+		}
+
+		@Override
+		public JsonWriter value(boolean value) throws IOException {
+			nodes++;
+			return super.value(value);
+		}
+
+		@Override
+		public JsonWriter value(Number value) throws IOException {
+			nodes++;
+			return super.value(value);
+		}
+
+		@Override
+		public JsonWriter nullValue() throws IOException {
+			nodes++;
+			return super.nullValue();
+		}
+	}
+
+	private static class ByteCounter extends Writer {
+		private long count;
+
+		@Override
+		public void write(char[] buffer, int offset, int length) {
+			for (int i = offset; i < offset + length; i++) {
+				count(buffer[i]);
+			}
+		}
+
+		@Override
+		public void write(String string, int offset, int length) {
+			for (int i = offset; i < offset + length; i++) {
+				count(string.charAt(i));
+			}
+		}
+
+		/**
+		 * Counts the UTF-8 length of a character, where each half of a surrogate pair counts for 2 bytes.
+		 */
+		private void count(char c) {
+			count += c < 0x80 ? 1 : c < 0x800 || Character.isSurrogate(c) ? 2 : 3;
+		}
+
+		@Override
+		public void flush() {
+		}
+
+		@Override
+		public void close() {
+		}
+	}
+}
@@ -0,0 +1,275 @@
+/*
+ * Copyright 2013 Shazam Entertainment Limited
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License.
+ *
+ * You may obtain a copy of the License at http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions and limitations under the License.
+ */
+package com.shazam.shazamcrest.matcher;
+
+import static java.lang.Math.max;
+import static java.lang.Math.min;
+import static java.lang.invoke.MethodType.methodType;
+
+import java.io.IOException;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.reflect.Array;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.google.common.hash.Hasher;
+import com.google.common.hash.HashFunction;
+import com.google.common.hash.Hashing;
+import com.google.gson.Gson;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonPrimitive;
+import com.google.gson.TypeAdapter;
+import com.google.gson.TypeAdapterFactory;
+import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+
+/**
+ * {@link TypeAdapterFactory} for byte, int, long and double arrays. Arrays with at least {@link #SUMMARY_THRESHOLD}
+ * elements are serialised as a single summary holding their type, length and a 128 bit hash of their content, rather
+ * than one Json node per element. The arrays are kept by summary until the end of the comparison, so that on mismatch
+ * the first differing element can be located natively and only a window around it rendered.
+ */
+class PrimitiveArraysTypeAdapterFactory implements TypeAdapterFactory {
+	static final int SUMMARY_THRESHOLD = 256;
+	private static final int WINDOW_RADIUS = 16;
+	private static final HashFunction HASH_FUNCTION = Hashing.murmur3_128();
+
+	private final Map<String, Object> arraysBySummary = new ConcurrentHashMap<String, Object>();
+
+	@Override
+	public <T> TypeAdapter<T> create(Gson gson, TypeToken<T> type) {
+		Class<? super T> rawType = type.getRawType();
+		if (rawType != byte[].class && rawType != int[].class && rawType != long[].class && rawType != double[].class) {
+			return null;
+		}
+
+		final TypeAdapter<T> delegateAdapter = gson.getDelegateAdapter(this, type);
+		return new TypeAdapter<T>() {
+			@Override
+			public void write(JsonWriter out, T array) throws IOException {
+				if (array == null || length(array) < SUMMARY_THRESHOLD) {
+					delegateAdapter.write(out, array);
+					return;
+				}
+				String summary = summaryOf(array);
+				arraysBySummary.put(summary, array);
+				out.value(summary);
+			}
+
+			@Override
+			public T read(JsonReader in) throws IOException {
+				return null;
+			}
+		};
+	}
+
+	/**
+	 * Forgets the arrays serialised so far, at the end of each comparison, so that they are not kept alive by the
+	 * factory while it is reused by the matcher.
+	 */
+	void clear() {
+		arraysBySummary.clear();
+	}
+
+	/**
+	 * Returns the array serialised as the given summary, or null if the element is not a summary.
+	 */
+	Object arrayOf(JsonElement jsonElement) {
+		return isString(jsonElement) ? arraysBySummary.get(jsonElement.getAsString()) : null;
+	}
+
+	/**
+	 * Walks the expected and actual trees side by side and replaces each pair of differing array summaries with a
+	 * rendering of the same window of elements around their first mismatch.
+	 *
+	 * @return true if any summary has been replaced
+	 */
+	boolean renderMismatches(JsonElement expected, JsonElement actual) {
+		if (arraysBySummary.isEmpty()) {
+			return false;
+		}
+		JsonArray expectedHolder = new JsonArray();
+		expectedHolder.add(expected);
+		JsonArray actualHolder = new JsonArray();
+		actualHolder.add(actual);
+		return renderMismatches(expectedHolder, actualHolder);
+	}
+
+	private boolean renderMismatches(JsonArray expected, JsonArray actual) {
+		boolean rendered = false;
+		for (int i = 0; i < min(expected.size(), actual.size()); i++) {
+			JsonElement expectedElement = expected.get(i);
+			JsonElement actualElement = actual.get(i);
+			if (isMismatchingSummaries(expectedElement, actualElement)) {
+				Object expectedArray = arraysBySummary.get(expectedElement.getAsString());
+				Object actualArray = arraysBySummary.get(actualElement.getAsString());
+				int mismatch = mismatch(expectedArray, actualArray);
+				expected.set(i, new JsonPrimitive(render(expectedArray, mismatch)));
+				actual.set(i, new JsonPrimitive(render(actualArray, mismatch)));
+				rendered = true;
+			} else {
+				rendered |= renderNestedMismatches(expectedElement, actualElement);
+			}
+		}
+		return rendered;
+	}
+
+	private boolean renderMismatches(JsonObject expected, JsonObject actual) {
+		boolean rendered = false;
+		for (Entry<String, JsonElement> entry : expected.entrySet()) {
+			JsonElement expectedElement = entry.getValue();
+			JsonElement actualElement = actual.get(entry.getKey());
+			if (actualElement == null) {
+				continue;
+			}
+			if (isMismatchingSummaries(expectedElement, actualElement)) {
+				Object expectedArray = arraysBySummary.get(expectedElement.getAsString());
+				Object actualArray = arraysBySummary.get(actualElement.getAsString());
+				int mismatch = mismatch(expectedArray, actualArray);
+				entry.setValue(new JsonPrimitive(render(expectedArray, mismatch)));
+				actual.add(entry.getKey(), new JsonPrimitive(render(actualArray, mismatch)));
+				rendered = true;
+			} else {
+				rendered |= renderNestedMismatches(expectedElement, actualElement);
+			}
+		}
+		return rendered;
+	}
+
+	private boolean renderNestedMismatches(JsonElement expected, JsonElement actual) {
+		if (expected.isJsonArray() && actual.isJsonArray()) {
+			return renderMismatches(expected.getAsJsonArray(), actual.getAsJsonArray());
+		}
+		if (expected.isJsonObject() && actual.isJsonObject()) {
+			return renderMismatches(expected.getAsJsonObject(), actual.getAsJsonObject());
+		}
+		return false;
+	}
+
+	private boolean isMismatchingSummaries(JsonElement expected, JsonElement actual) {
+		if (!isString(expected) || !isString(actual)) {
+			return false;
+		}
+		Object expectedArray = arraysBySummary.get(expected.getAsString());
+		Object actualArray = arraysBySummary.get(actual.getAsString());
+		return expectedArray != null && actualArray != null
+				&& expectedArray.getClass() == actualArray.getClass()
+				&& !expected.equals(actual);
+	}
+
+	private static boolean isString(JsonElement jsonElement) {
+		return jsonElement.isJsonPrimitive() && jsonElement.getAsJsonPrimitive().isString();
+	}
+
+	private static String summaryOf(Object array) {
+		Hasher hasher = HASH_FUNCTION.newHasher();
+		if (array instanceof byte[]) {
+			hasher.putBytes((byte[]) array);
+		} else if (array instanceof int[]) {
+			for (int value : (int[]) array) {
+				hasher.putInt(value);
+			}
+		} else if (array instanceof long[]) {
+			for (long value : (long[]) array) {
+				hasher.putLong(value);
+			}
+		} else {
+			for (double value : (double[]) array) {
+				hasher.putLong(Double.doubleToLongBits(value));
+			}
+		}
+		return header(array) + " #" + hasher.hash();
+	}
+
+	private static String render(Object array, int mismatch) {
+		int from = max(0, mismatch - WINDOW_RADIUS);
+		int to = min(length(array), mismatch + WINDOW_RADIUS);
+		StringBuilder rendering = new StringBuilder(header(array)).append(" from ").append(from).append(": ");
+		if (array instanceof byte[]) {
+			byte[] bytes = (byte[]) array;
+			for (int i = from; i < to; i++) {
+				rendering.append(Character.forDigit((bytes[i] >> 4) & 0xf, 16)).append(Character.forDigit(bytes[i] & 0xf, 16));
+			}
+		} else {
+			rendering.append('[');
+			for (int i = from; i < to; i++) {
+				rendering.append(i == from ? "" : ", ").append(Array.get(array, i));
+			}
+			rendering.append(']');
+		}
+		return rendering.toString();
+	}
+
+	private static String header(Object array) {
+		return array.getClass().getComponentType().getName() + "[" + length(array) + "]";
+	}
+
+	private static int length(Object array) {
+		return Array.getLength(array);
+	}
+
+	/**
+	 * Returns the index of the first element differing between the two arrays of the same type, or the length of the
+	 * shorter one if it is a prefix of the other. Delegates to the vectorised {@code Arrays.mismatch} when running on
+	 * Java 9 or later.
+	 */
+	static int mismatch(Object expected, Object actual) {
+		MethodHandle arraysMismatch = ArraysMismatch.forType(expected.getClass());
+		if (arraysMismatch != null) {
+			try {
+				int mismatch = (Integer) arraysMismatch.invoke(expected, actual);
+				return mismatch < 0 ? min(length(expected), length(actual)) : mismatch;
+			} catch (Throwable e) {
+				throw new IllegalStateException(e);
+			}
+		}
+
+		int length = min(length(expected), length(actual));
+		for (int i = 0; i < length; i++) {
+			if (!Array.get(expected, i).equals(Array.get(actual, i))) {
+				return i;
+			}
+		}
+		return length;
+	}
+
+	/**
+	 * Looks up {@code Arrays.mismatch} once per array type, as it is only available from Java 9.
+	 */
+	private static class ArraysMismatch {
+		private static final Map<Class<?>, MethodHandle> HANDLES = lookupHandles();
+
+		private static Map<Class<?>, MethodHandle> lookupHandles() {
+			Map<Class<?>, MethodHandle> handles = new HashMap<Class<?>, MethodHandle>();
+			for (Class<?> arrayType : new Class<?>[] { byte[].class, int[].class, long[].class, double[].class }) {
+				try {
+					handles.put(arrayType, MethodHandles.publicLookup().findStatic(Arrays.class, "mismatch",
+							methodType(int.class, arrayType, arrayType)));
+				} catch (NoSuchMethodException e) {
+					return handles;
+				} catch (IllegalAccessException e) {
+					return handles;
+				}
+			}
+			return handles;
+		}
+
+		static MethodHandle forType(Class<?> arrayType) {
+			return HANDLES.get(arrayType);
+		}
+	}
+}
@@ -0,0 +1,157 @@
+/*
+ * Copyright 2013 Shazam Entertainment Limited
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License.
+ *
+ * You may obtain a copy of the License at http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions and limitations under the License.
+ */
+package com.shazam.shazamcrest.matcher;
+
+import static java.lang.Math.max;
+import static java.lang.Math.min;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map.Entry;
+import java.util.Random;
+import java.util.SortedSet;
+import java.util.TreeSet;
+
+import com.google.common.io.BaseEncoding;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+
+/**
+ * Replaces the large arrays of the expected and actual trees with a seeded sample of their elements, along with their
+ * size and the hash of their whole content. Sets and maps have already been ordered by the {@link GsonProvider}, so
+ * the same positions are sampled on both sides.
+ * <p>
+ * A sample is an object keyed by the positions of the sampled elements, so that the differences point to the
+ * elements of the original arrays. Any difference outside the sample is caught by the hash, which is only computed
+ * when the arrays differ, since equal arrays have the same hash.
+ * <p>
+ * The positions are drawn with a fixed seed, so that a comparison is reproducible, unless another one is set with the
+ * {@value #SEED_PROPERTY} system property.
+ */
+class SampledArrays {
+	static final String SEED_PROPERTY = "shazamcrest.sampleSeed";
+	private static final long DEFAULT_SEED = 0;
+	private int minSize;
+	private int sampleSize;
+	private long seed;
+
+	void set(int minSize, int sampleSize) {
+		this.minSize = minSize;
+		this.sampleSize = sampleSize;
+		this.seed = Long.getLong(SEED_PROPERTY, DEFAULT_SEED);
+	}
+
+	boolean isEmpty() {
+		return sampleSize == 0;
+	}
+
+	/**
+	 * Walks the expected and actual trees side by side and samples the arrays with at least the minimum size.
+	 *
+	 * @return the description of the sampled arrays and of the seed to reproduce the comparison
+	 */
+	List<String> apply(JsonElement expected, JsonElement actual) {
+		List<String> samples = new ArrayList<String>();
+		if (isEmpty()) {
+			return samples;
+		}
+		JsonArray expectedHolder = new JsonArray();
+		expectedHolder.add(expected);
+		JsonArray actualHolder = new JsonArray();
+		actualHolder.add(actual);
+		apply("", expectedHolder, actualHolder, samples);
+		return samples;
+	}
+
+	private void apply(String path, JsonArray expected, JsonArray actual, List<String> samples) {
+		for (int i = 0; i < min(expected.size(), actual.size()); i++) {
+			JsonElement expectedElement = expected.get(i);
+			JsonElement actualElement = actual.get(i);
+			if (isSampled(expectedElement, actualElement)) {
+				JsonArray expectedArray = expectedElement.getAsJsonArray();
+				JsonArray actualArray = actualElement.getAsJsonArray();
+				boolean hashed = !JsonTrees.areEqual(expectedArray, actualArray);
+				expected.set(i, sample(path, expectedArray, actualArray, hashed, samples));
+				actual.set(i, sample(path, actualArray, expectedArray, hashed, null));
+			} else {
+				applyNested(path, expectedElement, actualElement, samples);
+			}
+		}
+	}
+
+	private void apply(String path, JsonObject expected, JsonObject actual, List<String> samples) {
+		for (Entry<String, JsonElement> entry : expected.entrySet()) {
+			JsonElement actualElement = actual.get(entry.getKey());
+			if (actualElement == null) {
+				continue;
+			}
+			String fieldPath = path.isEmpty() ? entry.getKey() : path + "." + entry.getKey();
+			if (isSampled(entry.getValue(), actualElement)) {
+				JsonArray expectedArray = entry.getValue().getAsJsonArray();
+				JsonArray actualArray = actualElement.getAsJsonArray();
+				boolean hashed = !JsonTrees.areEqual(expectedArray, actualArray);
+				entry.setValue(sample(fieldPath, expectedArray, actualArray, hashed, samples));
+				actual.add(entry.getKey(), sample(fieldPath, actualArray, expectedArray, hashed, null));
+			} else {
+				applyNested(fieldPath, entry.getValue(), actualElement, samples);
+			}
+		}
+	}
+
+	private void applyNested(String path, JsonElement expected, JsonElement actual, List<String> samples) {
+		if (expected.isJsonArray() && actual.isJsonArray()) {
+			apply(path, expected.getAsJsonArray(), actual.getAsJsonArray(), samples);
+		} else if (expected.isJsonObject() && actual.isJsonObject()) {
+			apply(path, expected.getAsJsonObject(), actual.getAsJsonObject(), samples);
+		}
+	}
+
+	private boolean isSampled(JsonElement expected, JsonElement actual) {
+		return expected.isJsonArray() && actual.isJsonArray()
+				&& max(expected.getAsJsonArray().size(), actual.getAsJsonArray().size()) >= minSize;
+	}
+
+	/**
+	 * Samples the array at the positions drawn for its path, which only depend on the seed, the path and the size of
+	 * the smaller of the two arrays, so that both arrays are sampled at the same positions.
+	 *
+	 * @param hashed whether the hash of the whole array is added, which is only needed when the arrays differ
+	 */
+	private JsonObject sample(String path, JsonArray array, JsonArray other, boolean hashed, List<String> samples) {
+		SortedSet<Integer> positions = positions(path, min(array.size(), other.size()));
+		JsonObject sample = new JsonObject();
+		sample.addProperty("size", array.size());
+		if (hashed) {
+			sample.addProperty("hash", BaseEncoding.base16().lowerCase().encode(BinarySnapshot.hash(array)));
+		}
+		for (Integer position : positions) {
+			sample.add(position.toString(), array.get(position));
+		}
+		if (samples != null) {
+			samples.add(path + ": compared a sample of " + positions.size() + " of " + array.size() + " elements, rerun with -D"
+					+ SEED_PROPERTY + "=" + seed + " to reproduce");
+		}
+		return sample;
+	}
+
+	/**
+	 * Draws the positions with Floyd's algorithm, which takes as many draws as positions.
+	 */
+	private SortedSet<Integer> positions(String path, int size) {
+		Random random = new Random(seed ^ path.hashCode());
+		SortedSet<Integer> positions = new TreeSet<Integer>();
+		for (int bound = size - min(sampleSize, size); bound < size; bound++) {
+			int position = random.nextInt(bound + 1);
+			positions.add(positions.contains(position) ? bound : position);
+		}
+		return positions;
+	}
+}
@@ -0,0 +1,105 @@
+/*
+ * Copyright 2013 Shazam Entertainment Limited
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License.
+ *
+ * You may obtain a copy of the License at http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions and limitations under the License.
+ */
+package com.shazam.shazamcrest.matcher;
+
+import static java.nio.channels.FileChannel.MapMode.READ_ONLY;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.nio.file.StandardOpenOption.READ;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonParser;
+
+/**
+ * A json snapshot of a bean stored in a file, by default under src/test/resources/snapshots.
+ * <p>
+ * The snapshot is read through a memory mapped buffer and parsed as a stream, without loading the whole document in
+ * memory as a String first.
+ */
+class Snapshot {
+	/**
+	 * System property which, when set to true, records or updates the snapshots instead of comparing them.
+	 */
+	static final String UPDATE_PROPERTY = "shazamcrest.updateSnapshots";
+	/**
+	 * System property setting the directory of the snapshots.
+	 */
+	static final String DIRECTORY_PROPERTY = "shazamcrest.snapshotDirectory";
+	private static final String DEFAULT_DIRECTORY = "src/test/resources/snapshots";
+
+	protected final Path path;
+
+	Snapshot(String name) {
+		this(name, ".json");
+	}
+
+	protected Snapshot(String name, String extension) {
+		this.path = Paths.get(System.getProperty(DIRECTORY_PROPERTY, DEFAULT_DIRECTORY), name + extension);
+	}
+
+	static boolean isUpdating() {
+		return Boolean.getBoolean(UPDATE_PROPERTY);
+	}
+
+	Path path() {
+		return path;
+	}
+
+	boolean exists() {
+		return Files.isRegularFile(path);
+	}
+
+	/**
+	 * Returns true if the actual tree is known to be the same as the snapshot without reading it, false if it has to
+	 * be read and compared.
+	 */
+	boolean isKnownToMatch(JsonElement actualTree) {
+		return false;
+	}
+
+	JsonElement read() {
+		try {
+			FileChannel channel = FileChannel.open(path, READ);
+			try {
+				return read(new ByteBufferInputStream(channel.map(READ_ONLY, 0, channel.size())));
+			} finally {
+				channel.close();
+			}
+		} catch (IOException e) {
+			throw new IllegalStateException("Cannot read snapshot " + path, e);
+		}
+	}
+
+	protected JsonElement read(ByteBufferInputStream content) throws IOException {
+		return new JsonParser().parse(new InputStreamReader(content, UTF_8));
+	}
+
+	void write(Gson gson, JsonElement tree) {
+		try {
+			if (path.getParent() != null) {
+				Files.createDirectories(path.getParent());
+			}
+			Files.write(path, encode(gson, tree));
+		} catch (IOException e) {
+			throw new IllegalStateException("Cannot write snapshot " + path, e);
+		}
+	}
+
+	protected byte[] encode(Gson gson, JsonElement tree) throws IOException {
+		return gson.toJson(tree).getBytes(UTF_8);
+	}
+}
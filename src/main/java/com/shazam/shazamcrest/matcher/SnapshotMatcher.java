@@ -0,0 +1,93 @@
+/*
+ * Copyright 2013 Shazam Entertainment Limited
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License.
+ *
+ * You may obtain a copy of the License at http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions and limitations under the License.
+ */
+package com.shazam.shazamcrest.matcher;
+
+import static com.shazam.shazamcrest.CyclicReferenceDetector.getClassesWithCircularReferences;
+import static com.shazam.shazamcrest.FieldsIgnorer.findPaths;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import org.hamcrest.Description;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonElement;
+import com.shazam.shazamcrest.UnorderedJsonTreeWriter;
+
+/**
+ * {@link DiagnosingCustomisableMatcher} which compares the actual bean with a {@link Snapshot} of its json
+ * representation. When snapshots are being updated, the actual bean is recorded as the snapshot instead.
+ * <p>
+ * The snapshot does not tell which of its arrays are sets or maps, so those sorted again in the actual tree after
+ * ignoring some of their fields are sorted again in the snapshot too.
+ */
+class SnapshotMatcher<T> extends DiagnosingCustomisableMatcher<T> {
+	private final Snapshot snapshot;
+	private Set<String> sortedPaths = new HashSet<String>();
+
+	public SnapshotMatcher(Snapshot snapshot) {
+		super(null);
+		this.snapshot = snapshot;
+	}
+
+	@Override
+	public void describeTo(Description description) {
+		if (snapshot.exists()) {
+			super.describeTo(description);
+		} else {
+			description.appendText("snapshot " + snapshot.path());
+		}
+	}
+
+	@Override
+	protected boolean matches(Object actual, Description mismatchDescription) {
+		if (Snapshot.isUpdating()) {
+			circularReferenceTypes.addAll(getClassesWithCircularReferences(actual));
+			Gson gsonForActual = gsonProvider().gsonForActual();
+			snapshot.write(gsonForActual, filterJson(gsonForActual, actual));
+			return true;
+		}
+		if (!snapshot.exists()) {
+			mismatchDescription.appendText("snapshot " + snapshot.path() + " does not exist, run with -D"
+					+ Snapshot.UPDATE_PROPERTY + "=true to record it");
+			return false;
+		}
+		return super.matches(actual, mismatchDescription);
+	}
+
+	@Override
+	protected boolean isKnownToMatch(JsonElement actualTree) {
+		return snapshot.isKnownToMatch(actualTree);
+	}
+
+	@Override
+	protected boolean summarisesPrimitiveArrays() {
+		return false;
+	}
+
+	/**
+	 * The snapshot is filtered after the actual bean, whose sorted paths it needs, so it is never read concurrently.
+	 */
+	@Override
+	public CustomisableMatcher<T> withConcurrentSerialisation() {
+		return this;
+	}
+
+	@Override
+	protected JsonElement filterPaths(UnorderedJsonTreeWriter jsonTreeWriter) {
+		sortedPaths = new HashSet<String>();
+		return findPaths(jsonTreeWriter, pathsToFilter(), sortedPaths);
+	}
+
+	@Override
+	protected JsonElement expectedTree(Gson gsonForExpected) {
+		return findPaths(snapshot.read(), pathsToFilter(), sortedPaths);
+	}
+}
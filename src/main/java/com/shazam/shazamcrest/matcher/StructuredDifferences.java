@@ -0,0 +1,140 @@
+/*
+ * Copyright 2013 Shazam Entertainment Limited
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License.
+ *
+ * You may obtain a copy of the License at http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions and limitations under the License.
+ */
+package com.shazam.shazamcrest.matcher;
+
+import static com.shazam.shazamcrest.Difference.Kind.CHANGED;
+import static com.shazam.shazamcrest.Difference.Kind.MISSING;
+import static com.shazam.shazamcrest.Difference.Kind.UNEXPECTED;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map.Entry;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.shazam.shazamcrest.Difference;
+import com.shazam.shazamcrest.matcher.ArrayDiff.Edit;
+
+/**
+ * The differences between the expected and actual trees, computed by walking them side by side the first time the
+ * list is accessed. Arrays of the same length are compared by position, the others by their missing and unexpected
+ * elements. The walk stops one difference after the limit, to tell whether the limit has been reached.
+ */
+class StructuredDifferences extends AbstractList<Difference> {
+	static final int UNLIMITED = Integer.MAX_VALUE;
+	private final JsonElement expected;
+	private final JsonElement actual;
+	private final int limit;
+	private List<Difference> differences;
+	private boolean limitReached;
+
+	StructuredDifferences(JsonElement expected, JsonElement actual, int limit) {
+		this.expected = expected;
+		this.actual = actual;
+		this.limit = limit;
+	}
+
+	@Override
+	public Difference get(int index) {
+		return differences().get(index);
+	}
+
+	@Override
+	public int size() {
+		return differences().size();
+	}
+
+	/**
+	 * @return true if there are more differences than the ones listed
+	 */
+	boolean isLimitReached() {
+		differences();
+		return limitReached;
+	}
+
+	private List<Difference> differences() {
+		if (differences == null) {
+			differences = new ArrayList<Difference>();
+			compare("", expected, actual);
+			if (differences.size() > limit) {
+				differences.remove(limit);
+				limitReached = true;
+			}
+		}
+		return differences;
+	}
+
+	private void compare(String path, JsonElement expected, JsonElement actual) {
+		if (expected.isJsonObject() && actual.isJsonObject()) {
+			compare(path, expected.getAsJsonObject(), actual.getAsJsonObject());
+		} else if (expected.isJsonArray() && actual.isJsonArray()) {
+			compare(path, expected.getAsJsonArray(), actual.getAsJsonArray());
+		} else if (!JsonTrees.areEqual(expected, actual)) {
+			record(new Difference(path, CHANGED, expected, actual));
+		}
+	}
+
+	private void compare(String path, JsonObject expected, JsonObject actual) {
+		for (Entry<String, JsonElement> entry : expected.entrySet()) {
+			if (isFull()) {
+				return;
+			}
+			JsonElement actualElement = actual.get(entry.getKey());
+			String fieldPath = path + "/" + escape(entry.getKey());
+			if (actualElement == null) {
+				record(new Difference(fieldPath, MISSING, entry.getValue(), null));
+			} else {
+				compare(fieldPath, entry.getValue(), actualElement);
+			}
+		}
+		for (Entry<String, JsonElement> entry : actual.entrySet()) {
+			if (!expected.has(entry.getKey())) {
+				record(new Difference(path + "/" + escape(entry.getKey()), UNEXPECTED, null, entry.getValue()));
+			}
+		}
+	}
+
+	private void compare(String path, JsonArray expected, JsonArray actual) {
+		if (expected.size() == actual.size()) {
+			for (int i = 0; i < expected.size() && !isFull(); i++) {
+				compare(path + "/" + i, expected.get(i), actual.get(i));
+			}
+			return;
+		}
+		for (Edit edit : ArrayDiff.edits(expected, actual)) {
+			for (int i = edit.from(); i < edit.to() && !isFull(); i++) {
+				if (edit.isMissing()) {
+					record(new Difference(path + "/" + i, MISSING, expected.get(i), null));
+				} else {
+					record(new Difference(path + "/" + i, UNEXPECTED, null, actual.get(i)));
+				}
+			}
+		}
+	}
+
+	private void record(Difference difference) {
+		if (!isFull()) {
+			differences.add(difference);
+		}
+	}
+
+	private boolean isFull() {
+		return limit != UNLIMITED && differences.size() > limit;
+	}
+
+	/**
+	 * Escapes a field name as a JSON Pointer reference token.
+	 */
+	private static String escape(String field) {
+		return field.replace("~", "~0").replace("/", "~1");
+	}
+}
@@ -0,0 +1,158 @@
+/*
+ * Copyright 2013 Shazam Entertainment Limited
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License.
+ *
+ * You may obtain a copy of the License at http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions and limitations under the License.
+ */
+package com.shazam.shazamcrest.matcher;
+
+import java.util.HashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.TreeMap;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+
+/**
+ * Projects the actual tree on the fields present in the expected one, so that the projection is equal to the expected
+ * tree if and only if the actual tree contains it.
+ * <p>
+ * Objects only keep the fields of the expected object. Arrays keep, in the expected order, one actual element for each
+ * expected element it contains: the candidates are looked up in a hash index of the actual elements projected on the
+ * fields of the expected ones, and only compared one by one when the lookup fails.
+ */
+class SubsetProjection {
+
+	JsonElement project(JsonElement expected, JsonElement actual) {
+		if (expected.isJsonObject() && actual.isJsonObject()) {
+			return project(expected.getAsJsonObject(), actual.getAsJsonObject());
+		}
+		if (expected.isJsonArray() && actual.isJsonArray()) {
+			return project(expected.getAsJsonArray(), actual.getAsJsonArray());
+		}
+		return actual;
+	}
+
+	private JsonObject project(JsonObject expected, JsonObject actual) {
+		JsonObject projection = new JsonObject();
+		for (Entry<String, JsonElement> entry : expected.entrySet()) {
+			JsonElement actualElement = actual.get(entry.getKey());
+			if (actualElement != null) {
+				projection.add(entry.getKey(), project(entry.getValue(), actualElement));
+			}
+		}
+		return projection;
+	}
+
+	private JsonArray project(JsonArray expected, JsonArray actual) {
+		boolean[] paired = new boolean[actual.size()];
+		Integer[] pairs = new Integer[expected.size()];
+		Map<String, Map<JsonElement, List<Integer>>> indexesByShape = new HashMap<String, Map<JsonElement, List<Integer>>>();
+		for (int i = 0; i < expected.size(); i++) {
+			JsonElement expectedElement = expected.get(i);
+			String shape = shapeOf(expectedElement);
+			Map<JsonElement, List<Integer>> index = indexesByShape.get(shape);
+			if (index == null) {
+				index = index(expectedElement, actual);
+				indexesByShape.put(shape, index);
+			}
+			pairs[i] = lookup(index.get(expectedElement), paired);
+			if (pairs[i] == null) {
+				pairs[i] = scan(expectedElement, actual, paired);
+			}
+		}
+
+		List<Integer> unpaired = new LinkedList<Integer>();
+		for (int i = 0; i < paired.length; i++) {
+			if (!paired[i]) {
+				unpaired.add(i);
+			}
+		}
+		JsonArray projection = new JsonArray();
+		for (int i = 0; i < expected.size(); i++) {
+			Integer pair = pairs[i] != null ? pairs[i] : unpaired.isEmpty() ? null : unpaired.remove(0);
+			if (pair != null) {
+				projection.add(project(expected.get(i), actual.get(pair)));
+			}
+		}
+		return projection;
+	}
+
+	/**
+	 * Indexes the elements of the actual array by their projection on the fields of the given expected element.
+	 * Nested arrays are not projected, so that the index only finds the elements whose nested arrays are equal.
+	 */
+	private static Map<JsonElement, List<Integer>> index(JsonElement shape, JsonArray actual) {
+		Map<JsonElement, List<Integer>> index = new HashMap<JsonElement, List<Integer>>();
+		for (int i = 0; i < actual.size(); i++) {
+			JsonElement key = projectOnShape(shape, actual.get(i));
+			List<Integer> positions = index.get(key);
+			if (positions == null) {
+				positions = new LinkedList<Integer>();
+				index.put(key, positions);
+			}
+			positions.add(i);
+		}
+		return index;
+	}
+
+	private static Integer lookup(List<Integer> positions, boolean[] paired) {
+		if (positions == null) {
+			return null;
+		}
+		while (!positions.isEmpty()) {
+			Integer position = positions.remove(0);
+			if (!paired[position]) {
+				paired[position] = true;
+				return position;
+			}
+		}
+		return null;
+	}
+
+	private Integer scan(JsonElement expected, JsonArray actual, boolean[] paired) {
+		for (int i = 0; i < actual.size(); i++) {
+			if (!paired[i] && expected.equals(project(expected, actual.get(i)))) {
+				paired[i] = true;
+				return i;
+			}
+		}
+		return null;
+	}
+
+	private static JsonElement projectOnShape(JsonElement shape, JsonElement actual) {
+		if (!shape.isJsonObject() || !actual.isJsonObject()) {
+			return actual;
+		}
+		JsonObject actualObject = actual.getAsJsonObject();
+		JsonObject projection = new JsonObject();
+		for (Entry<String, JsonElement> entry : shape.getAsJsonObject().entrySet()) {
+			JsonElement actualElement = actualObject.get(entry.getKey());
+			if (actualElement != null) {
+				projection.add(entry.getKey(), projectOnShape(entry.getValue(), actualElement));
+			}
+		}
+		return projection;
+	}
+
+	/**
+	 * Returns a description of the nested field names of an element, shared by the elements projected the same way.
+	 */
+	private static String shapeOf(JsonElement element) {
+		if (!element.isJsonObject()) {
+			return "*";
+		}
+		Map<String, String> fields = new TreeMap<String, String>();
+		for (Entry<String, JsonElement> entry : element.getAsJsonObject().entrySet()) {
+			fields.put(entry.getKey(), shapeOf(entry.getValue()));
+		}
+		return fields.toString();
+	}
+}
@@ -0,0 +1,87 @@
+/*
+ * Copyright 2013 Shazam Entertainment Limited
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License.
+ *
+ * You may obtain a copy of the License at http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions and limitations under the License.
+*/
+package com.shazam.shazamcrest;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+import static org.hamcrest.Matchers.nullValue;
+
+import org.junit.Test;
+
+/**
+ * Unit tests for {@link ComparisonWindow}
+ */
+public class ComparisonWindowTest {
+
+	@Test
+	public void elidesTheSameLinesAroundADifference() {
+		String[] window = ComparisonWindow.trim(lines(1, 10, 5, "x"), lines(1, 10, 5, "y"), 1);
+
+		assertThat(window[0], equalTo("[... lines 1-3 omitted ...]\n4\nx\n6\n[... lines 7-10 omitted ...]"));
+		assertThat(window[1], equalTo("[... lines 1-3 omitted ...]\n4\ny\n6\n[... lines 7-10 omitted ...]"));
+	}
+
+	@Test
+	public void elidesEqualLinesBetweenDifferences() {
+		String expected = lines(1, 10, 2, "x").replace("\n8\n", "\nx\n");
+		String actual = lines(1, 10, 2, "y").replace("\n8\n", "\ny\n");
+
+		String[] window = ComparisonWindow.trim(expected, actual, 1);
+
+		assertThat(window[0], equalTo("1\nx\n3\n[... lines 4-6 omitted ...]\n7\nx\n9\n[... lines 10-10 omitted ...]"));
+	}
+
+	@Test
+	public void keepsTheRegionBetweenDifferencesWhenLineCountsDiffer() {
+		String expected = lines(1, 10, 0, "");
+		String actual = expected.replace("\n5\n", "\n5\nnew\n");
+
+		String[] window = ComparisonWindow.trim(expected, actual, 1);
+
+		assertThat(window[0], equalTo("[... lines 1-4 omitted ...]\n5\n6\n[... lines 7-10 omitted ...]"));
+		assertThat(window[1], equalTo("[... lines 1-4 omitted ...]\n5\nnew\n6\n[... lines 8-11 omitted ...]"));
+	}
+
+	@Test
+	public void leavesEqualDocumentsUntouched() {
+		String[] window = ComparisonWindow.trim("a\nb", "a\nb", 0);
+
+		assertThat(window[1], equalTo("a\nb"));
+	}
+
+	@Test
+	public void limitsTheNumberOfLines() {
+		String expected = lines(1, 5000, 0, "");
+		String actual = expected.replaceAll("(?m)^(\\d+)$", "-$1");
+
+		String[] window = ComparisonWindow.trim(expected, actual, 3);
+
+		assertThat(window[1].split("\n").length, lessThanOrEqualTo(ComparisonWindow.MAX_LINES + 1));
+	}
+
+	@Test
+	public void ignoresContextLinesWhichAreNotANumber() {
+		System.setProperty(ComparisonWindow.CONTEXT_LINES_PROPERTY, "five");
+		try {
+			assertThat(ComparisonWindow.contextLines(), nullValue());
+		} finally {
+			System.clearProperty(ComparisonWindow.CONTEXT_LINES_PROPERTY);
+		}
+	}
+
+	private static String lines(int from, int to, int replaced, String replacement) {
+		StringBuilder lines = new StringBuilder();
+		for (int i = from; i <= to; i++) {
+			lines.append(i == from ? "" : "\n").append(i == replaced ? replacement : String.valueOf(i));
+		}
+		return lines.toString();
+	}
+}
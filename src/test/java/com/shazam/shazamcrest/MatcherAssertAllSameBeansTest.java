@@ -0,0 +1,116 @@
+/*
+ * Copyright 2013 Shazam Entertainment Limited
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License.
+ *
+ * You may obtain a copy of the License at http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions and limitations under the License.
+*/
+package com.shazam.shazamcrest;
+
+import static com.shazam.shazamcrest.MatcherAssert.assertAllSameBeans;
+import static com.shazam.shazamcrest.matcher.Matchers.allSameBeansAs;
+import static com.shazam.shazamcrest.matchers.ComparisonFailureMatchers.actual;
+import static com.shazam.shazamcrest.matchers.ComparisonFailureMatchers.checkThat;
+import static com.shazam.shazamcrest.matchers.ComparisonFailureMatchers.expected;
+import static com.shazam.shazamcrest.matchers.ComparisonFailureMatchers.message;
+import static com.shazam.shazamcrest.model.ChildBean.Builder.child;
+import static java.util.Arrays.asList;
+import static org.hamcrest.CoreMatchers.containsString;
+import static org.hamcrest.CoreMatchers.not;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.hasSize;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.hamcrest.Matcher;
+import org.junit.Test;
+
+import com.shazam.shazamcrest.matcher.CustomisableMatcher;
+import com.shazam.shazamcrest.matcher.MatcherConfiguration;
+import com.shazam.shazamcrest.model.ChildBean;
+
+/**
+ * Tests for {@link MatcherAssert#assertAllSameBeans(List, List, MatcherConfiguration)}.
+ */
+public class MatcherAssertAllSameBeansTest {
+	private static final MatcherConfiguration<ChildBean> IGNORING_CHILD_INTEGER = new MatcherConfiguration<ChildBean>() {
+		@Override
+		public void configure(CustomisableMatcher<ChildBean> matcher) {
+			matcher.ignoring("childInteger");
+		}
+	};
+
+	@Test
+	public void matchesAllPairs() {
+		assertAllSameBeans(asList(childBean("a", 1), childBean("b", 2)), asList(childBean("a", 1), childBean("b", 2)));
+	}
+
+	@Test
+	public void appliesConfigurationToEachPair() {
+		assertAllSameBeans(asList(childBean("a", 1), childBean("b", 2)), asList(childBean("a", 10), childBean("b", 20)), IGNORING_CHILD_INTEGER);
+	}
+
+	@Test
+	public void comparesListAgainWhenMatchedAgain() {
+		List<ChildBean> actualBeans = new ArrayList<ChildBean>(asList(childBean("a", 1), childBean("b", 2)));
+		Matcher<List<ChildBean>> matcher = allSameBeansAs(asList(childBean("a", 1), childBean("b", 2)), IGNORING_CHILD_INTEGER);
+		org.hamcrest.MatcherAssert.assertThat(matcher.matches(actualBeans), equalTo(true));
+
+		actualBeans.set(1, childBean("x", 2));
+
+		org.hamcrest.MatcherAssert.assertThat(matcher.matches(actualBeans), equalTo(false));
+	}
+
+	@SuppressWarnings("unchecked")
+	@Test
+	public void reportsAllDifferingPairsTogether() {
+		try {
+			assertAllSameBeans(asList(childBean("a", 1), childBean("x", 2), childBean("c", 3), childBean("y", 4)),
+					asList(childBean("a", 1), childBean("b", 2), childBean("c", 3), childBean("d", 4)));
+			fail("Exception expected");
+		} catch (BeanComparisonFailure e) {
+			checkThat(e,
+					message(containsString("2 of 4 beans differ")),
+					message(containsString("[1]: childString")),
+					message(containsString("[3]: childString")),
+					expected(containsString("\"childString\": \"b\"")),
+					expected(containsString("\"childString\": \"d\"")),
+					expected(not(containsString("\"childString\": \"c\""))),
+					actual(containsString("\"childString\": \"y\"")));
+			org.hamcrest.MatcherAssert.assertThat(e.getDifferences(), hasSize(2));
+			org.hamcrest.MatcherAssert.assertThat(e.getDifferences().get(1).getPath(), equalTo("/3/childString"));
+		}
+	}
+
+	@SuppressWarnings("unchecked")
+	@Test
+	public void reportsMissingAndUnexpectedBeans() {
+		try {
+			assertAllSameBeans(asList(childBean("a", 1)), asList(childBean("a", 1), childBean("b", 2)));
+			fail("Exception expected");
+		} catch (BeanComparisonFailure e) {
+			checkThat(e,
+					message(containsString("[1]: missing bean")),
+					expected(containsString("\"childString\": \"b\"")));
+		}
+	}
+
+	@SuppressWarnings("unchecked")
+	@Test
+	public void describesNumbersDifferingBeyondDoublePrecision() {
+		try {
+			assertAllSameBeans(asList(9007199254740992L), asList(9007199254740993L));
+			fail("Exception expected");
+		} catch (BeanComparisonFailure e) {
+			checkThat(e, message(containsString("expected:<[0] 900719925474099[3]")));
+		}
+	}
+
+	private static ChildBean childBean(String childString, int childInteger) {
+		return child().childString(childString).childInteger(childInteger).build();
+	}
+}
@@ -0,0 +1,101 @@
+/*
+ * Copyright 2013 Shazam Entertainment Limited
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License.
+ *
+ * You may obtain a copy of the License at http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions and limitations under the License.
+*/
+package com.shazam.shazamcrest;
+
+import static com.shazam.shazamcrest.matchers.ComparisonFailureMatchers.actual;
+import static com.shazam.shazamcrest.matchers.ComparisonFailureMatchers.checkThat;
+import static com.shazam.shazamcrest.matcher.Matchers.sameBeanAs;
+import static com.shazam.shazamcrest.model.Bean.Builder.bean;
+import static com.shazam.shazamcrest.model.ParentBean.Builder.parent;
+import static com.shazam.shazamcrest.util.AssertionHelper.assertThat;
+import static com.shazam.shazamcrest.util.AssertionHelper.sameBeanAs;
+import static java.util.Arrays.asList;
+import static org.hamcrest.CoreMatchers.containsString;
+import static org.junit.Assert.fail;
+
+import java.util.List;
+
+import org.junit.ComparisonFailure;
+import org.junit.Test;
+
+import com.shazam.shazamcrest.model.Bean;
+import com.shazam.shazamcrest.model.ParentBean;
+
+/**
+ * Tests for {@link MatcherAssert} which verify that lists and arrays can be compared in any order.
+ */
+public class MatcherAssertAnyOrderTest {
+
+	@Test
+	public void matchesListInAnyOrder() {
+		ParentBean.Builder expected = parent().addToChildBeanList("a", 1).addToChildBeanList("b", 2).addToChildBeanList("c", 3);
+		ParentBean.Builder actual = parent().addToChildBeanList("c", 3).addToChildBeanList("a", 1).addToChildBeanList("b", 2);
+
+		assertThat(actual, sameBeanAs(expected).anyOrder());
+	}
+
+	@Test(expected = ComparisonFailure.class)
+	public void failsWhenListIsInDifferentOrderAndAnyOrderIsNotSpecified() {
+		ParentBean.Builder expected = parent().addToChildBeanList("a", 1).addToChildBeanList("b", 2);
+		ParentBean.Builder actual = parent().addToChildBeanList("b", 2).addToChildBeanList("a", 1);
+
+		assertThat(actual, sameBeanAs(expected));
+	}
+
+	@Test
+	public void matchesListAtPathInAnyOrder() {
+		ParentBean.Builder expected = parent().addToChildBeanList("a", 1).addToChildBeanList("b", 2);
+		ParentBean.Builder actual = parent().addToChildBeanList("b", 2).addToChildBeanList("a", 1);
+
+		assertThat(actual, sameBeanAs(expected).anyOrder("childBeanList"));
+	}
+
+	@Test(expected = ComparisonFailure.class)
+	public void comparesListsAsMultisets() {
+		ParentBean.Builder expected = parent().addToChildBeanList("a", 1).addToChildBeanList("a", 1).addToChildBeanList("b", 2);
+		ParentBean.Builder actual = parent().addToChildBeanList("b", 2).addToChildBeanList("a", 1).addToChildBeanList("b", 2);
+
+		assertThat(actual, sameBeanAs(expected).anyOrder());
+	}
+
+	@Test
+	public void matchesNestedArraysInAnyOrder() {
+		Bean.Builder expected = bean().array(
+				bean().array(bean().integer(1).build(), bean().integer(2).build()).build(),
+				bean().array(bean().integer(3).build()).build());
+		Bean.Builder actual = bean().array(
+				bean().array(bean().integer(3).build()).build(),
+				bean().array(bean().integer(2).build(), bean().integer(1).build()).build());
+
+		assertThat(actual, sameBeanAs(expected).anyOrder());
+	}
+
+	@Test
+	public void matchesTopLevelListInAnyOrder() {
+		List<String> expected = asList("a", null, "b", null);
+		List<String> actual = asList(null, "b", null, "a");
+
+		MatcherAssert.assertThat(actual, sameBeanAs(expected).anyOrder());
+	}
+
+	@SuppressWarnings("unchecked")
+	@Test
+	public void alignsUnmatchedElementsWithTheExpectedOnes() {
+		ParentBean.Builder expected = parent().addToChildBeanList("a", 1).addToChildBeanList("b", 2).addToChildBeanList("c", 3);
+		ParentBean.Builder actual = parent().addToChildBeanList("c", 3).addToChildBeanList("x", 2).addToChildBeanList("a", 1);
+
+		try {
+			assertThat(actual, sameBeanAs(expected).anyOrder());
+			fail("Exception expected");
+		} catch (ComparisonFailure e) {
+			checkThat(e, actual(containsString("\"childString\": \"a\",\n      \"childInteger\": 1\n    },\n    {\n      \"childString\": \"x\"")));
+		}
+	}
+}
@@ -0,0 +1,141 @@
+/*
+ * Copyright 2013 Shazam Entertainment Limited
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License.
+ *
+ * You may obtain a copy of the License at http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions and limitations under the License.
+*/
+package com.shazam.shazamcrest;
+
+import static com.shazam.shazamcrest.matchers.ComparisonFailureMatchers.checkThat;
+import static com.shazam.shazamcrest.matchers.ComparisonFailureMatchers.message;
+import static com.shazam.shazamcrest.matcher.Matchers.sameBeanAs;
+import static com.shazam.shazamcrest.model.ParentBean.Builder.parent;
+import static com.shazam.shazamcrest.util.AssertionHelper.assertThat;
+import static com.shazam.shazamcrest.util.AssertionHelper.sameBeanAs;
+import static org.hamcrest.CoreMatchers.containsString;
+import static org.hamcrest.CoreMatchers.not;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.ComparisonFailure;
+import org.junit.Test;
+
+import com.shazam.shazamcrest.model.ParentBean;
+
+/**
+ * Tests for {@link MatcherAssert} which verify that arrays are diffed by their elements.
+ */
+public class MatcherAssertArrayDiffTest {
+
+	@SuppressWarnings("unchecked")
+	@Test
+	public void reportsUnexpectedElement() {
+		ParentBean.Builder expected = parent().addToChildBeanList("a", 1).addToChildBeanList("b", 2).addToChildBeanList("c", 3);
+		ParentBean.Builder actual = parent().addToChildBeanList("a", 1).addToChildBeanList("x", 9).addToChildBeanList("b", 2).addToChildBeanList("c", 3);
+
+		try {
+			assertThat(actual, sameBeanAs(expected));
+			fail("Exception expected");
+		} catch (ComparisonFailure e) {
+			checkThat(e,
+					message(containsString("childBeanList[1]: unexpected element {\"childString\":\"x\",\"childInteger\":9}")),
+					message(not(containsString("missing"))));
+		}
+	}
+
+	@SuppressWarnings("unchecked")
+	@Test
+	public void reportsRangeOfMissingElements() {
+		ParentBean.Builder expected = parent().addToChildBeanList("a", 1).addToChildBeanList("b", 2).addToChildBeanList("c", 3).addToChildBeanList("d", 4);
+		ParentBean.Builder actual = parent().addToChildBeanList("a", 1).addToChildBeanList("d", 4);
+
+		try {
+			assertThat(actual, sameBeanAs(expected));
+			fail("Exception expected");
+		} catch (ComparisonFailure e) {
+			checkThat(e, message(containsString("childBeanList[1..2]: 2 missing elements")));
+		}
+	}
+
+	@SuppressWarnings("unchecked")
+	@Test
+	public void diffsListsOfTheSameLength() {
+		ParentBean.Builder expected = parent().addToChildBeanList("a", 1).addToChildBeanList("b", 2).addToChildBeanList("c", 3).addToChildBeanList("d", 4);
+		ParentBean.Builder actual = parent().addToChildBeanList("a", 1).addToChildBeanList("x", 9).addToChildBeanList("b", 2).addToChildBeanList("c", 3);
+
+		try {
+			assertThat(actual, sameBeanAs(expected));
+			fail("Exception expected");
+		} catch (ComparisonFailure e) {
+			checkThat(e,
+					message(containsString("childBeanList[1]: unexpected element {\"childString\":\"x\",\"childInteger\":9}")),
+					message(containsString("childBeanList[3]: missing element {\"childString\":\"d\",\"childInteger\":4}")),
+					message(not(containsString("Expected"))));
+		}
+	}
+
+	@SuppressWarnings("unchecked")
+	@Test
+	public void comparesReplacedElementsByPosition() {
+		ParentBean.Builder expected = parent().addToChildBeanList("a", 1).addToChildBeanList("b", 2).addToChildBeanList("c", 3);
+		ParentBean.Builder actual = parent().addToChildBeanList("a", 1).addToChildBeanList("b", 20).addToChildBeanList("c", 3);
+
+		try {
+			assertThat(actual, sameBeanAs(expected));
+			fail("Exception expected");
+		} catch (ComparisonFailure e) {
+			checkThat(e,
+					message(containsString("childBeanList[1].childInteger")),
+					message(not(containsString("missing"))));
+		}
+	}
+
+	@SuppressWarnings("unchecked")
+	@Test
+	public void diffsLargeLists() {
+		List<Integer> expected = integers(100000);
+		List<Integer> actual = integers(100000);
+		actual.add(50000, -1);
+		actual.remove(90001);
+		actual.remove(90001);
+
+		try {
+			MatcherAssert.assertThat(actual, sameBeanAs(expected));
+			fail("Exception expected");
+		} catch (ComparisonFailure e) {
+			checkThat(e,
+					message(containsString("[50000]: unexpected element -1")),
+					message(containsString("[90000..90001]: 2 missing elements")));
+		}
+	}
+
+	@SuppressWarnings("unchecked")
+	@Test
+	public void reportsVeryDifferentListsAsAWhole() {
+		List<Integer> expected = integers(2000);
+		List<Integer> actual = new ArrayList<Integer>();
+		for (int i = 0; i < 1000; i++) {
+			actual.add(-i);
+		}
+
+		try {
+			MatcherAssert.assertThat(actual, sameBeanAs(expected));
+			fail("Exception expected");
+		} catch (ComparisonFailure e) {
+			checkThat(e, message(containsString("[1..")));
+		}
+	}
+
+	private static List<Integer> integers(int size) {
+		List<Integer> integers = new ArrayList<Integer>();
+		for (int i = 0; i < size; i++) {
+			integers.add(i);
+		}
+		return integers;
+	}
+}
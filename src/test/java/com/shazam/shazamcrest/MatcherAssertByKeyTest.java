@@ -0,0 +1,124 @@
+/*
+ * Copyright 2013 Shazam Entertainment Limited
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License.
+ *
+ * You may obtain a copy of the License at http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions and limitations under the License.
+*/
+package com.shazam.shazamcrest;
+
+import static com.shazam.shazamcrest.MatcherAssert.assertThat;
+import static com.shazam.shazamcrest.matcher.Matchers.sameBeanAs;
+import static com.shazam.shazamcrest.matchers.ComparisonFailureMatchers.actual;
+import static com.shazam.shazamcrest.matchers.ComparisonFailureMatchers.checkThat;
+import static com.shazam.shazamcrest.matchers.ComparisonFailureMatchers.expected;
+import static com.shazam.shazamcrest.matchers.ComparisonFailureMatchers.message;
+import static com.shazam.shazamcrest.model.ParentBean.Builder.parent;
+import static com.shazam.shazamcrest.util.AssertionHelper.assertThat;
+import static com.shazam.shazamcrest.util.AssertionHelper.sameBeanAs;
+import static java.util.Arrays.asList;
+import static org.hamcrest.CoreMatchers.containsString;
+import static org.hamcrest.CoreMatchers.not;
+import static org.junit.Assert.fail;
+
+import java.util.List;
+
+import org.junit.ComparisonFailure;
+import org.junit.Test;
+
+import com.shazam.shazamcrest.model.ParentBean;
+
+/**
+ * Tests for {@link MatcherAssert} which verify that the elements of a list can be matched by a key field.
+ */
+public class MatcherAssertByKeyTest {
+
+	@Test
+	public void matchesListElementsByKeyRegardlessOfOrder() {
+		ParentBean.Builder expected = parent().addToChildBeanList("a", 1).addToChildBeanList("b", 2).addToChildBeanList("c", 3);
+		ParentBean.Builder actual = parent().addToChildBeanList("c", 3).addToChildBeanList("a", 1).addToChildBeanList("b", 2);
+
+		assertThat(actual, sameBeanAs(expected).byKey("childBeanList", "childString"));
+	}
+
+	@SuppressWarnings("unchecked")
+	@Test
+	public void reportsOnlyTheElementsWhichDiffer() {
+		ParentBean.Builder expected = parent().addToChildBeanList("a", 1).addToChildBeanList("b", 2).addToChildBeanList("c", 3);
+		ParentBean.Builder actual = parent().addToChildBeanList("c", 3).addToChildBeanList("b", 20).addToChildBeanList("a", 1);
+
+		try {
+			assertThat(actual, sameBeanAs(expected).byKey("childBeanList", "childString"));
+			fail("Exception expected");
+		} catch (ComparisonFailure e) {
+			checkThat(e,
+					message(containsString("childBeanList: different element with childString \"b\"")),
+					expected(not(containsString("\"a\""))),
+					actual(containsString("\"childInteger\": 20")),
+					actual(not(containsString("\"c\""))));
+		}
+	}
+
+	@SuppressWarnings("unchecked")
+	@Test
+	public void reportsMissingAndUnexpectedKeys() {
+		ParentBean.Builder expected = parent().addToChildBeanList("a", 1).addToChildBeanList("b", 2);
+		ParentBean.Builder actual = parent().addToChildBeanList("a", 1).addToChildBeanList("x", 2);
+
+		try {
+			assertThat(actual, sameBeanAs(expected).byKey("childBeanList", "childString"));
+			fail("Exception expected");
+		} catch (ComparisonFailure e) {
+			checkThat(e,
+					message(containsString("childBeanList: missing element with childString \"b\"")),
+					message(containsString("childBeanList: unexpected element with childString \"x\"")));
+		}
+	}
+
+	@Test(expected = ComparisonFailure.class)
+	public void failsWhenElementsWithTheSameKeyAreMissing() {
+		ParentBean.Builder expected = parent().addToChildBeanList("a", 1).addToChildBeanList("a", 2);
+		ParentBean.Builder actual = parent().addToChildBeanList("a", 1);
+
+		assertThat(actual, sameBeanAs(expected).byKey("childBeanList", "childString"));
+	}
+
+	@SuppressWarnings("unchecked")
+	@Test
+	public void reportsOnlyTheElementsWhichDifferOutsideTolerance() {
+		Readings expected = new Readings(new Reading("a", 1.0), new Reading("b", 2.0), new Reading("c", 3.0));
+		Readings actual = new Readings(new Reading("c", 4.0), new Reading("b", 2.001), new Reading("a", 1.0));
+
+		try {
+			assertThat(actual, sameBeanAs(expected).byKey("readings", "id").withTolerance(0.01));
+			fail("Exception expected");
+		} catch (ComparisonFailure e) {
+			checkThat(e,
+					message(containsString("readings: different element with id \"c\"")),
+					message(not(containsString("id \"b\""))),
+					actual(not(containsString("\"b\""))));
+		}
+	}
+
+	@SuppressWarnings("unused")
+	private static class Readings {
+		private final List<Reading> readings;
+
+		Readings(Reading... readings) {
+			this.readings = asList(readings);
+		}
+	}
+
+	@SuppressWarnings("unused")
+	private static class Reading {
+		private final String id;
+		private final double value;
+
+		Reading(String id, double value) {
+			this.id = id;
+			this.value = value;
+		}
+	}
+}
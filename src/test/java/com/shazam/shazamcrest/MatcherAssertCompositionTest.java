@@ -0,0 +1,117 @@
+/*
+ * Copyright 2013 Shazam Entertainment Limited
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License.
+ *
+ * You may obtain a copy of the License at http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions and limitations under the License.
+*/
+package com.shazam.shazamcrest;
+
+import static com.shazam.shazamcrest.matcher.Matchers.sameBeanAs;
+import static com.shazam.shazamcrest.model.ParentBean.Builder.parent;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.allOf;
+import static org.hamcrest.Matchers.anyOf;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.not;
+
+import org.hamcrest.Matcher;
+import org.hamcrest.StringDescription;
+import org.junit.Test;
+
+import com.shazam.shazamcrest.model.ParentBean;
+
+/**
+ * Tests which verify that the matchers compose with the hamcrest ones, which only call {@link Matcher#matches(Object)}.
+ */
+public class MatcherAssertCompositionTest {
+	private final ParentBean expected = parent().parentString("parent").childBean("child", 1).build();
+
+	@Test
+	public void matchesWithinAllOf() {
+		ParentBean actual = parent().parentString("parent").childBean("child", 1).build();
+
+		assertThat(actual, allOf(sameBeanAs(expected), not(sameBeanAs(parent().build()))));
+	}
+
+	@Test
+	public void doesNotMatchWithinNot() {
+		ParentBean actual = parent().parentString("parent").childBean("child", 2).build();
+
+		assertThat(actual, not(sameBeanAs(expected)));
+		assertThat(actual, anyOf(sameBeanAs(expected), sameBeanAs(actual)));
+	}
+
+	@Test
+	public void describesMismatchAfterMatching() {
+		ParentBean actual = parent().parentString("parent").childBean("child", 2).build();
+		Matcher<ParentBean> matcher = sameBeanAs(expected);
+		StringDescription description = new StringDescription();
+
+		assertThat(matcher.matches(actual), equalTo(false));
+		matcher.describeMismatch(actual, description);
+
+		assertThat(description.toString(), containsString("childBean.childInteger"));
+	}
+
+	@Test
+	public void matchesNumbersWithTheSameValue() {
+		assertThat(new Value(1.0), sameBeanAs(new Value(1)));
+	}
+
+	@Test
+	public void describesNumbersDifferingBeyondDoublePrecision() {
+		Matcher<Value> matcher = sameBeanAs(new Value(9007199254740993L));
+		Value actual = new Value(9007199254740992L);
+		StringDescription description = new StringDescription();
+
+		assertThat(matcher.matches(actual), equalTo(false));
+		matcher.describeMismatch(actual, description);
+
+		assertThat(description.toString(), containsString("/value: expected 9007199254740993 but was 9007199254740992"));
+	}
+
+	@Test
+	public void matchesObjectsWithTheSameFieldsInDifferentOrder() {
+		assertThat(new Value(new Point(1, 2)), sameBeanAs(new Value(new ReversedPoint(2, 1))));
+	}
+
+	@Test
+	public void doesNotMatchNullWhenExpectingBean() {
+		assertThat(null, not(sameBeanAs(expected)));
+	}
+
+	@SuppressWarnings("unused")
+	private static class Point {
+		private final int x;
+		private final int y;
+
+		Point(int x, int y) {
+			this.x = x;
+			this.y = y;
+		}
+	}
+
+	@SuppressWarnings("unused")
+	private static class ReversedPoint {
+		private final int y;
+		private final int x;
+
+		ReversedPoint(int y, int x) {
+			this.y = y;
+			this.x = x;
+		}
+	}
+
+	@SuppressWarnings("unused")
+	private static class Value {
+		private final Object value;
+
+		Value(Object value) {
+			this.value = value;
+		}
+	}
+}
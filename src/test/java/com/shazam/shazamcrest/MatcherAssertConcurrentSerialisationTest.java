@@ -0,0 +1,116 @@
+/*
+ * Copyright 2013 Shazam Entertainment Limited
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License.
+ *
+ * You may obtain a copy of the License at http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions and limitations under the License.
+*/
+package com.shazam.shazamcrest;
+
+import static com.shazam.shazamcrest.matchers.ComparisonFailureMatchers.actual;
+import static com.shazam.shazamcrest.matchers.ComparisonFailureMatchers.checkThat;
+import static com.shazam.shazamcrest.matchers.ComparisonFailureMatchers.expected;
+import static com.shazam.shazamcrest.model.ChildBean.Builder.child;
+import static com.shazam.shazamcrest.model.ParentBean.Builder.parent;
+import static com.shazam.shazamcrest.util.AssertionHelper.assertThat;
+import static com.shazam.shazamcrest.util.AssertionHelper.sameBeanAs;
+import static org.hamcrest.CoreMatchers.containsString;
+import static org.hamcrest.CoreMatchers.endsWith;
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.fail;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.ComparisonFailure;
+import org.junit.Test;
+
+import com.shazam.shazamcrest.matcher.Matchers;
+import com.shazam.shazamcrest.model.ParentBean;
+
+/**
+ * Tests for {@link MatcherAssert} which verify that the expected and actual beans can be serialised concurrently.
+ */
+public class MatcherAssertConcurrentSerialisationTest {
+
+	@Test
+	public void matchesWhenSerialisedConcurrently() {
+		ParentBean.Builder expected = parent().parentString("parent").childBean("child", 1).addToChildBeanList("a", 1);
+		ParentBean.Builder actual = parent().parentString("parent").childBean("child", 1).addToChildBeanList("a", 1);
+
+		assertThat(actual, sameBeanAs(expected).withConcurrentSerialisation());
+	}
+
+	@SuppressWarnings("unchecked")
+	@Test
+	public void reportsDifferencesWhenSerialisedConcurrently() {
+		ParentBean.Builder expected = parent().parentString("parent").childBean("child", 1);
+		ParentBean.Builder actual = parent().parentString("parent").childBean("child", 2);
+
+		try {
+			assertThat(actual, sameBeanAs(expected).withConcurrentSerialisation());
+			fail("Exception expected");
+		} catch (ComparisonFailure e) {
+			checkThat(e,
+					expected(containsString("\"childInteger\": 1")),
+					actual(containsString("\"childInteger\": 2")));
+		}
+	}
+
+	@Test
+	public void reportsCustomMatcherFailureOfActualSide() {
+		ParentBean.Builder expected = parent().parentString("kiwi").childBean(child().childString("apple"));
+		ParentBean.Builder actual = parent().parentString("kiwi").childBean(child().childString("banana"));
+
+		try {
+			assertThat(actual, sameBeanAs(expected).with(String.class, equalTo("kiwi")).withConcurrentSerialisation());
+			fail("Expected assertion error");
+		} catch (AssertionError e) {
+			org.hamcrest.MatcherAssert.assertThat(e.getMessage(), endsWith("and String \"kiwi\"\n     but: String was \"banana\""));
+		}
+	}
+
+	@Test
+	public void waitsForExpectedSideWhenActualSideFails() {
+		SlowMap basket = new SlowMap();
+		FruitBean expected = new FruitBean("banana", basket);
+		FruitBean actual = new FruitBean("banana", new HashMap<String, String>());
+
+		boolean matching = Matchers.sameBeanAs(expected).with(String.class, equalTo("kiwi")).withConcurrentSerialisation()
+				.matches(actual);
+
+		org.hamcrest.MatcherAssert.assertThat(matching, is(false));
+		org.hamcrest.MatcherAssert.assertThat(basket.serialised, is(true));
+	}
+
+	@SuppressWarnings("unused")
+	private static class FruitBean {
+		private final String fruit;
+		private final Map<String, String> basket;
+
+		FruitBean(String fruit, Map<String, String> basket) {
+			this.fruit = fruit;
+			this.basket = basket;
+		}
+	}
+
+	@SuppressWarnings("serial")
+	private static class SlowMap extends HashMap<String, String> {
+		private volatile boolean serialised;
+
+		@Override
+		public Set<Entry<String, String>> entrySet() {
+			try {
+				Thread.sleep(200);
+			} catch (InterruptedException e) {
+				return super.entrySet();
+			}
+			serialised = true;
+			return super.entrySet();
+		}
+	}
+}
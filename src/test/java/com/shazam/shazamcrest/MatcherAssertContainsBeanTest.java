@@ -0,0 +1,91 @@
+/*
+ * Copyright 2013 Shazam Entertainment Limited
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License.
+ *
+ * You may obtain a copy of the License at http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions and limitations under the License.
+*/
+package com.shazam.shazamcrest;
+
+import static com.shazam.shazamcrest.MatcherAssert.assertThat;
+import static com.shazam.shazamcrest.matchers.ComparisonFailureMatchers.actual;
+import static com.shazam.shazamcrest.matchers.ComparisonFailureMatchers.checkThat;
+import static com.shazam.shazamcrest.matcher.Matchers.containsBean;
+import static com.shazam.shazamcrest.model.Bean.Builder.bean;
+import static com.shazam.shazamcrest.model.ParentBean.Builder.parent;
+import static org.hamcrest.CoreMatchers.containsString;
+import static org.hamcrest.CoreMatchers.not;
+import static org.junit.Assert.fail;
+
+import org.junit.ComparisonFailure;
+import org.junit.Test;
+
+import com.shazam.shazamcrest.model.Bean;
+import com.shazam.shazamcrest.model.ParentBean;
+
+/**
+ * Tests for {@link MatcherAssert} which verify that an actual bean contains the fields of the expected one.
+ */
+public class MatcherAssertContainsBeanTest {
+
+	@Test
+	public void matchesWhenActualContainsTheFieldsOfExpected() {
+		ParentBean expected = parent().childBean("child", 1).build();
+		ParentBean actual = parent().parentString("parent").childBean("child", 1).addToChildBeanList("a", 1).build();
+
+		assertThat(actual, containsBean(expected));
+	}
+
+	@Test(expected = ComparisonFailure.class)
+	public void failsWhenAFieldOfExpectedIsDifferent() {
+		ParentBean expected = parent().childBean("child", 1).build();
+		ParentBean actual = parent().parentString("parent").childBean("child", 2).build();
+
+		assertThat(actual, containsBean(expected));
+	}
+
+	@Test
+	public void matchesWhenActualListContainsTheExpectedElementsInAnyOrder() {
+		ParentBean expected = parent().addToChildBeanList("b", 2).addToChildBeanList("a", 1).build();
+		ParentBean actual = parent().addToChildBeanList("a", 1).addToChildBeanList("x", 0).addToChildBeanList("b", 2).build();
+
+		assertThat(actual, containsBean(expected));
+	}
+
+	@Test
+	public void matchesArrayElementsContainingTheExpectedOnes() {
+		Bean expected = bean().array(bean().string("b").build(), bean().string("a").build()).build();
+		Bean actual = bean().array(bean().string("a").build(), bean().string("c").build(), bean().string("b").array(bean().build()).build()).build();
+
+		assertThat(actual, containsBean(expected));
+	}
+
+	@Test(expected = ComparisonFailure.class)
+	public void failsWhenAnExpectedElementIsMissing() {
+		ParentBean expected = parent().addToChildBeanList("a", 1).addToChildBeanList("a", 1).build();
+		ParentBean actual = parent().addToChildBeanList("a", 1).addToChildBeanList("b", 2).build();
+
+		assertThat(actual, containsBean(expected));
+	}
+
+	@SuppressWarnings("unchecked")
+	@Test
+	public void showsOnlyTheExpectedFieldsOnMismatch() {
+		ParentBean expected = parent().childBean("child", 1).build();
+		ParentBean actual = parent().parentString("parent").childBean("child", 2).build();
+
+		try {
+			assertThat(actual, containsBean(expected));
+			fail("Exception expected");
+		} catch (ComparisonFailure e) {
+			checkThat(e, actual(containsString("\"childInteger\": 2")), actual(not(containsString("parentString"))));
+		}
+	}
+
+	@Test
+	public void matchesPrimitivesAsSameBean() {
+		assertThat("value", containsBean("value"));
+	}
+}
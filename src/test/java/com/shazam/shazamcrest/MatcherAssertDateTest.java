@@ -5,13 +5,26 @@ import org.junit.Test;
 
 import java.text.ParseException;
 import java.text.SimpleDateFormat;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
 import java.util.Date;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 
 import static com.shazam.shazamcrest.MatcherAssert.assertThat;
 import static com.shazam.shazamcrest.matcher.Matchers.sameBeanAs;
+import static com.shazam.shazamcrest.matchers.ComparisonFailureMatchers.actual;
 import static com.shazam.shazamcrest.matchers.ComparisonFailureMatchers.checkThat;
+import static com.shazam.shazamcrest.matchers.ComparisonFailureMatchers.expected;
 import static com.shazam.shazamcrest.matchers.ComparisonFailureMatchers.message;
 import static org.hamcrest.CoreMatchers.containsString;
+import static java.util.concurrent.Executors.newFixedThreadPool;
 import static org.junit.Assert.fail;
 
 public class MatcherAssertDateTest {
@@ -56,4 +69,87 @@ public class MatcherAssertDateTest {
         fail("Exception expected but not thrown");
     }
 
+    @SuppressWarnings("unchecked")
+    @Test
+    public void showsIsoRepresentationOfJavaTimeValues() {
+        TimeBean expected = new TimeBean(Instant.parse("2016-01-02T10:15:30.123Z"), LocalDate.of(2016, 1, 2),
+                LocalDateTime.of(2016, 1, 2, 10, 15), ZonedDateTime.of(2016, 1, 2, 10, 15, 0, 0, ZoneId.of("Europe/London")), Duration.ofMinutes(90));
+        TimeBean actual = new TimeBean(Instant.parse("2016-01-02T10:15:30.124Z"), LocalDate.of(2016, 1, 3),
+                LocalDateTime.of(2016, 1, 2, 10, 15), ZonedDateTime.of(2016, 1, 2, 10, 15, 0, 0, ZoneId.of("Europe/London")), Duration.ofMinutes(91));
+        try {
+            assertThat(actual, sameBeanAs(expected));
+        } catch (ComparisonFailure e) {
+            checkThat(e,
+                    expected(containsString("\"instant\": \"2016-01-02T10:15:30.123Z\"")),
+                    expected(containsString("\"localDate\": \"2016-01-02\"")),
+                    expected(containsString("\"localDateTime\": \"2016-01-02T10:15\"")),
+                    expected(containsString("\"zonedDateTime\": \"2016-01-02T10:15Z[Europe/London]\"")),
+                    expected(containsString("\"duration\": \"PT1H30M\"")),
+                    actual(containsString("\"instant\": \"2016-01-02T10:15:30.124Z\"")),
+                    actual(containsString("\"localDate\": \"2016-01-03\"")),
+                    actual(containsString("\"duration\": \"PT1H31M\"")));
+            return;
+        }
+        fail("Exception expected but not thrown");
+    }
+
+    @Test
+    public void doesNothingWhenJavaTimeValuesAreTheSame() {
+        TimeBean expected = new TimeBean(Instant.ofEpochMilli(1000), LocalDate.of(2016, 1, 2), null, null, Duration.ZERO);
+        TimeBean actual = new TimeBean(Instant.ofEpochMilli(1000), LocalDate.of(2016, 1, 2), null, null, Duration.ZERO);
+
+        assertThat(actual, sameBeanAs(expected));
+    }
+
+    @Test
+    public void formatsDatesConsistentlyWhenAssertingInParallel() throws Exception {
+        final Date first = DATE_FORMAT.parse("01/01/2016 10:01:23.456");
+        ExecutorService executor = newFixedThreadPool(8);
+        try {
+            List<Future<?>> futures = new ArrayList<Future<?>>();
+            for (int i = 0; i < 200; i++) {
+                final int index = i;
+                futures.add(executor.submit(new Runnable() {
+                    @SuppressWarnings("unchecked")
+                    @Override
+                    public void run() {
+                        Date actualDate = new Date(first.getTime() + index * 86400000L + index);
+                        Date expectedDate = new Date(actualDate.getTime() + 1);
+                        SimpleDateFormat rendering = new SimpleDateFormat("MMM d, yyyy hh:mm:ss.SSS aa");
+                        try {
+                            assertThat(actualDate, sameBeanAs(expectedDate));
+                        } catch (ComparisonFailure e) {
+                            checkThat(e,
+                                    expected(containsString(rendering.format(expectedDate))),
+                                    actual(containsString(rendering.format(actualDate))));
+                            return;
+                        }
+                        fail("Exception expected but not thrown");
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @SuppressWarnings("unused")
+    private static class TimeBean {
+        private final Instant instant;
+        private final LocalDate localDate;
+        private final LocalDateTime localDateTime;
+        private final ZonedDateTime zonedDateTime;
+        private final Duration duration;
+
+        TimeBean(Instant instant, LocalDate localDate, LocalDateTime localDateTime, ZonedDateTime zonedDateTime, Duration duration) {
+            this.instant = instant;
+            this.localDate = localDate;
+            this.localDateTime = localDateTime;
+            this.zonedDateTime = zonedDateTime;
+            this.duration = duration;
+        }
+    }
 }
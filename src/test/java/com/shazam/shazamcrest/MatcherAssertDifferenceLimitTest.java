@@ -0,0 +1,108 @@
+/*
+ * Copyright 2013 Shazam Entertainment Limited
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License.
+ *
+ * You may obtain a copy of the License at http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions and limitations under the License.
+*/
+package com.shazam.shazamcrest;
+
+import static com.shazam.shazamcrest.matchers.ComparisonFailureMatchers.actual;
+import static com.shazam.shazamcrest.matchers.ComparisonFailureMatchers.checkThat;
+import static com.shazam.shazamcrest.matchers.ComparisonFailureMatchers.expected;
+import static com.shazam.shazamcrest.matchers.ComparisonFailureMatchers.message;
+import static com.shazam.shazamcrest.model.ParentBean.Builder.parent;
+import static com.shazam.shazamcrest.util.AssertionHelper.assertThat;
+import static com.shazam.shazamcrest.util.AssertionHelper.sameBeanAs;
+import static org.hamcrest.CoreMatchers.containsString;
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.not;
+import static org.junit.Assert.fail;
+
+import org.junit.Test;
+
+import com.shazam.shazamcrest.model.ParentBean;
+
+/**
+ * Tests for {@link MatcherAssert} which verify that the comparison stops at the difference limit.
+ */
+public class MatcherAssertDifferenceLimitTest {
+	private final ParentBean.Builder expected = parent().parentString("parent").childBean("child", 1).addToChildBeanList("a", 1);
+	private final ParentBean.Builder actual = parent().parentString("other").childBean("other", 2).addToChildBeanList("b", 2);
+
+	@SuppressWarnings("unchecked")
+	@Test
+	public void stopsAtTheFirstDifferenceWhenFailingFast() {
+		try {
+			assertThat(actual, sameBeanAs(expected).failFast());
+			fail("Exception expected");
+		} catch (BeanComparisonFailure e) {
+			checkThat(e,
+					message(containsString("/parentString: expected \"parent\" but was \"other\"")),
+					message(containsString("stopped after 1 differences")),
+					message(not(containsString("/childBean"))));
+			org.hamcrest.MatcherAssert.assertThat(e.getDifferences().size(), equalTo(1));
+		}
+	}
+
+	@SuppressWarnings("unchecked")
+	@Test
+	public void reportsDifferencesUpToTheLimit() {
+		try {
+			assertThat(actual, sameBeanAs(expected).withDifferenceLimit(3));
+			fail("Exception expected");
+		} catch (BeanComparisonFailure e) {
+			checkThat(e,
+					message(containsString("/childBean/childString")),
+					message(containsString("/childBean/childInteger")),
+					message(not(containsString("/childBeanList"))));
+		}
+	}
+
+	@SuppressWarnings("unchecked")
+	@Test
+	public void doesNotMentionTheLimitWhenNotReached() {
+		try {
+			assertThat(actual, sameBeanAs(expected).withDifferenceLimit(10));
+			fail("Exception expected");
+		} catch (BeanComparisonFailure e) {
+			checkThat(e, message(containsString("/childBeanList/0/childInteger")), message(not(containsString("stopped"))));
+		}
+	}
+
+	@SuppressWarnings("unchecked")
+	@Test
+	public void doesNotMentionTheLimitWhenAsManyDifferencesExist() {
+		try {
+			assertThat(parent().parentString("other").childBean("child", 1), sameBeanAs(parent().parentString("parent").childBean("child", 1)).failFast());
+			fail("Exception expected");
+		} catch (BeanComparisonFailure e) {
+			checkThat(e, message(containsString("/parentString")), message(not(containsString("stopped"))));
+		}
+	}
+
+	@SuppressWarnings("unchecked")
+	@Test
+	public void onlyRendersTheDifferingValues() {
+		try {
+			assertThat(actual, sameBeanAs(expected).failFast());
+			fail("Exception expected");
+		} catch (BeanComparisonFailure e) {
+			checkThat(e,
+					expected(equalTo("/parentString: \"parent\"\n")),
+					actual(equalTo("/parentString: \"other\"\n")));
+		}
+	}
+
+	@Test
+	public void matchesEqualBeans() {
+		assertThat(parent().parentString("parent"), sameBeanAs(parent().parentString("parent")).failFast());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void throwsIllegalArgumentExceptionWhenLimitIsNotPositive() {
+		sameBeanAs(expected).withDifferenceLimit(0);
+	}
+}
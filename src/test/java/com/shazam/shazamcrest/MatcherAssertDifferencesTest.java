@@ -0,0 +1,112 @@
+/*
+ * Copyright 2013 Shazam Entertainment Limited
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License.
+ *
+ * You may obtain a copy of the License at http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions and limitations under the License.
+*/
+package com.shazam.shazamcrest;
+
+import static com.shazam.shazamcrest.Difference.Kind.CHANGED;
+import static com.shazam.shazamcrest.Difference.Kind.MISSING;
+import static com.shazam.shazamcrest.Difference.Kind.UNEXPECTED;
+import static com.shazam.shazamcrest.MatcherAssert.assertThat;
+import static com.shazam.shazamcrest.matcher.Matchers.sameBeanAs;
+import static com.shazam.shazamcrest.model.ParentBean.Builder.parent;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.Assert.fail;
+
+import java.util.List;
+
+import org.hamcrest.Matcher;
+import org.junit.Test;
+
+import com.shazam.shazamcrest.model.ParentBean;
+
+/**
+ * Tests for {@link MatcherAssert} which verify the structured differences attached to the comparison failure.
+ */
+public class MatcherAssertDifferencesTest {
+
+	@Test
+	public void reportsChangedValueByJsonPointer() {
+		ParentBean expected = parent().addToChildBeanList("a", 1).addToChildBeanList("b", 2).build();
+		ParentBean actual = parent().addToChildBeanList("a", 1).addToChildBeanList("x", 2).build();
+
+		List<Difference> differences = differencesBetween(actual, expected);
+
+		org.hamcrest.MatcherAssert.assertThat(differences, hasSize(1));
+		Difference difference = differences.get(0);
+		org.hamcrest.MatcherAssert.assertThat(difference.getPath(), equalTo("/childBeanList/1/childString"));
+		org.hamcrest.MatcherAssert.assertThat(difference.getKind(), equalTo(CHANGED));
+		org.hamcrest.MatcherAssert.assertThat(difference.getExpected(), equalTo("\"b\""));
+		org.hamcrest.MatcherAssert.assertThat(difference.getActual(), equalTo("\"x\""));
+	}
+
+	@Test
+	public void reportsMissingAndUnexpectedFields() {
+		ParentBean expected = parent().parentString("parent").build();
+		ParentBean actual = parent().childBean("child", 1).build();
+
+		List<Difference> differences = differencesBetween(actual, expected);
+
+		org.hamcrest.MatcherAssert.assertThat(differences, hasSize(2));
+		org.hamcrest.MatcherAssert.assertThat(differences.get(0).getKind(), equalTo(MISSING));
+		org.hamcrest.MatcherAssert.assertThat(differences.get(0).getPath(), equalTo("/parentString"));
+		org.hamcrest.MatcherAssert.assertThat(differences.get(0).getActual(), nullValue());
+		org.hamcrest.MatcherAssert.assertThat(differences.get(1).getKind(), equalTo(UNEXPECTED));
+		org.hamcrest.MatcherAssert.assertThat(differences.get(1).getPath(), equalTo("/childBean"));
+	}
+
+	@Test
+	public void reportsUnexpectedElementOfLongerList() {
+		ParentBean expected = parent().addToChildBeanList("a", 1).addToChildBeanList("b", 2).build();
+		ParentBean actual = parent().addToChildBeanList("a", 1).addToChildBeanList("x", 9).addToChildBeanList("b", 2).build();
+
+		List<Difference> differences = differencesBetween(actual, expected);
+
+		org.hamcrest.MatcherAssert.assertThat(differences, hasSize(1));
+		org.hamcrest.MatcherAssert.assertThat(differences.get(0).toString(),
+				equalTo("/childBeanList/1: unexpected {\"childString\":\"x\",\"childInteger\":9}"));
+	}
+
+	@Test
+	public void reportsElementsOfListMatchedByKeyByTheirAlignedPosition() {
+		ParentBean expected = parent().addToChildBeanList("a", 1).addToChildBeanList("b", 2).addToChildBeanList("c", 3).build();
+		ParentBean actual = parent().addToChildBeanList("c", 3).addToChildBeanList("a", 1).addToChildBeanList("x", 2).build();
+
+		List<Difference> differences = differencesBetween(actual, sameBeanAs(expected).byKey("childBeanList", "childInteger"));
+
+		org.hamcrest.MatcherAssert.assertThat(differences, hasSize(1));
+		org.hamcrest.MatcherAssert.assertThat(differences.get(0).getPath(), equalTo("/childBeanList/0/childString"));
+	}
+
+	@Test
+	public void reportsElementsOfListInAnyOrderByThePositionOfTheExpectedElement() {
+		ParentBean expected = parent().addToChildBeanList("a", 1).addToChildBeanList("b", 2).build();
+		ParentBean actual = parent().addToChildBeanList("b", 2).addToChildBeanList("x", 1).build();
+
+		List<Difference> differences = differencesBetween(actual, sameBeanAs(expected).anyOrder("childBeanList"));
+
+		org.hamcrest.MatcherAssert.assertThat(differences, hasSize(1));
+		org.hamcrest.MatcherAssert.assertThat(differences.get(0).getPath(), equalTo("/childBeanList/0/childString"));
+	}
+
+	private static List<Difference> differencesBetween(ParentBean actual, ParentBean expected) {
+		return differencesBetween(actual, sameBeanAs(expected));
+	}
+
+	private static List<Difference> differencesBetween(ParentBean actual, Matcher<ParentBean> matcher) {
+		try {
+			assertThat(actual, matcher);
+			fail("Exception expected");
+			return null;
+		} catch (BeanComparisonFailure e) {
+			return e.getDifferences();
+		}
+	}
+}
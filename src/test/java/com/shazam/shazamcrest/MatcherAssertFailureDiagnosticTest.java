@@ -11,7 +11,6 @@ package com.shazam.shazamcrest;
 
 import static com.google.common.collect.Maps.newHashMap;
 import static com.google.common.collect.Sets.newHashSet;
-import static com.shazam.shazamcrest.FieldsIgnorer.MARKER;
 import static com.shazam.shazamcrest.MatcherAssert.assertThat;
 import static com.shazam.shazamcrest.matcher.Matchers.sameBeanAs;
 import static com.shazam.shazamcrest.matchers.ComparisonFailureMatchers.actual;
@@ -23,7 +22,6 @@ import static org.hamcrest.CoreMatchers.equalTo;
 import static org.hamcrest.CoreMatchers.is;
 import static org.hamcrest.CoreMatchers.notNullValue;
 import static org.hamcrest.Matchers.startsWith;
-import static org.hamcrest.core.IsNot.not;
 import static org.hamcrest.core.StringContains.containsString;
 import static org.junit.Assert.fail;
 
@@ -122,7 +120,7 @@ public class MatcherAssertFailureDiagnosticTest {
 	}
 	
 	@Test
-	public void doesNotIncludeMarkerInDiagnosticsForSets() {
+	public void keepsSetFieldNameInDiagnostics() {
 		Bean expected = bean().set(newHashSet(bean().integer(1).build())).build();
 		Bean actual = bean().set(newHashSet(bean().integer(2).build())).build();
 		
@@ -130,12 +128,12 @@ public class MatcherAssertFailureDiagnosticTest {
 			assertThat(actual, sameBeanAs(expected));
 			fail("Exceptionexpected");
 		} catch (ComparisonFailure e) {
-			checkThat(e, expected(not(containsString(MARKER))), actual(not(containsString(MARKER))));
+			checkThat(e, expected(containsString("\"set\": [")), actual(containsString("\"set\": [")));
 		}
 	}
 	
 	@Test
-	public void doesNotIncludeMarkerInDiagnosticsForMaps() {
+	public void keepsMapFieldNameInDiagnostics() {
 		Map<Bean, Bean> expectedMap = newHashMap();
 		expectedMap.put(bean().integer(1).build(), bean().integer(1).build());
 		Map<Bean, Bean> actualMap = newHashMap();
@@ -147,7 +145,7 @@ public class MatcherAssertFailureDiagnosticTest {
 			assertThat(actual, sameBeanAs(expected));
 			fail("Exceptionexpected");
 		} catch (ComparisonFailure e) {
-			checkThat(e, expected(not(containsString(MARKER))), actual(not(containsString(MARKER))));
+			checkThat(e, expected(containsString("\"map\": [")), actual(containsString("\"map\": [")));
 		}
 	}
 	
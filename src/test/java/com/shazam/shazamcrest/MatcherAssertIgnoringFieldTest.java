@@ -191,6 +191,20 @@ public class MatcherAssertIgnoringFieldTest {
 		assertThat(actual, sameBeanAs(expected).ignoring("integer"));
 	}
 	
+	@Test(expected = ComparisonFailure.class)
+	public void keepsElementsInSetWhichBecomeEqualAfterIgnoringFields() {
+		Bean expected = bean().set(newHashSet(
+				bean().integer(1).string("value").build(),
+				bean().integer(2).string("value").build()))
+				.build();
+		
+		Bean actual = bean().set(newHashSet(
+				bean().integer(3).string("value").build()))
+				.build();
+		
+		assertThat(actual, sameBeanAs(expected).ignoring("set.integer"));
+	}
+	
 	@Test
 	public void ignoresFieldsInArray() {
 		Bean expected1 = bean().integer(1).string("value").build();
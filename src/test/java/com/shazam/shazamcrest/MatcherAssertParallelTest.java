@@ -0,0 +1,83 @@
+/*
+ * Copyright 2013 Shazam Entertainment Limited
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License.
+ *
+ * You may obtain a copy of the License at http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions and limitations under the License.
+*/
+package com.shazam.shazamcrest;
+
+import static com.shazam.shazamcrest.MatcherAssert.assertThat;
+import static com.shazam.shazamcrest.matcher.Matchers.sameBeanAs;
+import static com.shazam.shazamcrest.matchers.ComparisonFailureMatchers.actual;
+import static com.shazam.shazamcrest.matchers.ComparisonFailureMatchers.checkThat;
+import static com.shazam.shazamcrest.matchers.ComparisonFailureMatchers.expected;
+import static com.shazam.shazamcrest.model.Bean.Builder.bean;
+import static com.shazam.shazamcrest.model.ParentBean.Builder.parent;
+import static org.hamcrest.CoreMatchers.containsString;
+import static org.junit.Assert.fail;
+
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.ComparisonFailure;
+import org.junit.Test;
+
+import com.shazam.shazamcrest.model.Bean;
+import com.shazam.shazamcrest.model.ParentBean;
+
+/**
+ * Tests for {@link MatcherAssert} which verify that large collections, whose elements are serialised and compared in
+ * parallel, are compared as the small ones.
+ */
+public class MatcherAssertParallelTest {
+	private static final int SIZE = 5000;
+
+	@Test
+	public void matchesLargeSetsAndMapsRegardlessOfIterationOrder() {
+		assertThat(beanWithElements(true), sameBeanAs(beanWithElements(false)));
+	}
+
+	@Test
+	public void matchesLargeLists() {
+		assertThat(parentWithChildren(-1), sameBeanAs(parentWithChildren(-1)));
+	}
+
+	@SuppressWarnings("unchecked")
+	@Test
+	public void reportsDifferencesOfLargeListsDeterministically() {
+		for (int i = 0; i < 3; i++) {
+			try {
+				assertThat(parentWithChildren(4321), sameBeanAs(parentWithChildren(-1)));
+				fail("Exception expected");
+			} catch (ComparisonFailure e) {
+				checkThat(e,
+						expected(containsString("\"child4321\"")),
+						actual(containsString("\"different\"")));
+			}
+		}
+	}
+
+	private static Bean beanWithElements(boolean reversed) {
+		Set<Bean> set = new LinkedHashSet<Bean>();
+		Map<Bean, Bean> map = new LinkedHashMap<Bean, Bean>();
+		for (int i = 0; i < SIZE; i++) {
+			int element = reversed ? SIZE - 1 - i : i;
+			set.add(bean().string("element" + element).integer(element).build());
+			map.put(bean().string("key" + element).build(), bean().integer(element).build());
+		}
+		return bean().set(set).map(map).build();
+	}
+
+	private static ParentBean parentWithChildren(int differentChild) {
+		ParentBean.Builder parent = parent();
+		for (int i = 0; i < SIZE; i++) {
+			parent.addToChildBeanList(i == differentChild ? "different" : "child" + i, i);
+		}
+		return parent.build();
+	}
+}
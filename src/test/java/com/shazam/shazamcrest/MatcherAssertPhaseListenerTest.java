@@ -0,0 +1,132 @@
+/*
+ * Copyright 2013 Shazam Entertainment Limited
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License.
+ *
+ * You may obtain a copy of the License at http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions and limitations under the License.
+*/
+package com.shazam.shazamcrest;
+
+import static com.shazam.shazamcrest.MatcherAssert.assertThat;
+import static com.shazam.shazamcrest.matcher.Matchers.sameBeanAs;
+import static com.shazam.shazamcrest.matcher.PhaseListener.Phase.COMPARISON;
+import static com.shazam.shazamcrest.matcher.PhaseListener.Phase.CYCLE_DETECTION;
+import static com.shazam.shazamcrest.matcher.PhaseListener.Phase.DIAGNOSTICS;
+import static com.shazam.shazamcrest.matcher.PhaseListener.Phase.GSON_CONSTRUCTION;
+import static com.shazam.shazamcrest.matcher.PhaseListener.Phase.PATH_FILTERING;
+import static com.shazam.shazamcrest.matcher.PhaseListener.Phase.SERIALISATION;
+import static com.shazam.shazamcrest.model.ChildBean.Builder.child;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.everyItem;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.hasItem;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.ComparisonFailure;
+import org.junit.Test;
+
+import com.shazam.shazamcrest.matcher.PhaseListener;
+import com.shazam.shazamcrest.model.ChildBean;
+
+/**
+ * Tests for {@link MatcherAssert} which verify that the phases of the comparisons are reported to a
+ * {@link PhaseListener}.
+ */
+public class MatcherAssertPhaseListenerTest {
+	private final RecordingListener listener = new RecordingListener();
+
+	@After
+	public void clearSystemProperty() {
+		System.clearProperty("shazamcrest.phaseListener");
+		SystemPropertyListener.PHASES.clear();
+	}
+
+	@Test
+	public void reportsPhasesOfMatchingBeans() {
+		assertThat(childBean("a", 1), sameBeanAs(childBean("a", 1)).withPhaseListener(listener));
+
+		org.hamcrest.MatcherAssert.assertThat(listener.phases, contains(CYCLE_DETECTION, GSON_CONSTRUCTION,
+				SERIALISATION, PATH_FILTERING, SERIALISATION, PATH_FILTERING, COMPARISON));
+		org.hamcrest.MatcherAssert.assertThat(listener.beanTypes, everyItem(equalTo((Object) ChildBean.class)));
+	}
+
+	@Test
+	public void reportsSizeOfSerialisedAndFilteredTrees() {
+		assertThat(childBean("a", 1), sameBeanAs(childBean("a", 1)).ignoring("childInteger").withPhaseListener(listener));
+
+		int serialisation = listener.phases.indexOf(SERIALISATION);
+		org.hamcrest.MatcherAssert.assertThat(listener.bytes.get(serialisation), equalTo(36L));
+		org.hamcrest.MatcherAssert.assertThat(listener.nodes.get(serialisation), equalTo(3L));
+		int pathFiltering = listener.phases.indexOf(PATH_FILTERING);
+		org.hamcrest.MatcherAssert.assertThat(listener.bytes.get(pathFiltering), equalTo(19L));
+		org.hamcrest.MatcherAssert.assertThat(listener.nodes.get(pathFiltering), equalTo(2L));
+		org.hamcrest.MatcherAssert.assertThat(listener.nodes.get(listener.phases.indexOf(CYCLE_DETECTION)), greaterThan(0L));
+	}
+
+	@Test
+	public void reportsDiagnosticsOfDifferentBeans() {
+		try {
+			assertThat(childBean("a", 1), sameBeanAs(childBean("b", 1)).withPhaseListener(listener));
+			fail("Exception expected");
+		} catch (ComparisonFailure e) {
+			int diagnostics = listener.phases.indexOf(DIAGNOSTICS);
+			org.hamcrest.MatcherAssert.assertThat(diagnostics, greaterThan(-1));
+			org.hamcrest.MatcherAssert.assertThat(listener.bytes.get(diagnostics), greaterThan(0L));
+		}
+	}
+
+	@Test
+	public void notifiesListenerNamedBySystemProperty() {
+		System.setProperty("shazamcrest.phaseListener", SystemPropertyListener.class.getName());
+
+		assertThat(childBean("a", 1), sameBeanAs(childBean("a", 1)));
+
+		org.hamcrest.MatcherAssert.assertThat(SystemPropertyListener.PHASES, hasItem(COMPARISON));
+	}
+
+	@Test
+	public void listenerOfMatcherReplacesListenerNamedBySystemProperty() {
+		System.setProperty("shazamcrest.phaseListener", SystemPropertyListener.class.getName());
+
+		assertThat(childBean("a", 1), sameBeanAs(childBean("a", 1)).withPhaseListener(listener));
+
+		org.hamcrest.MatcherAssert.assertThat(SystemPropertyListener.PHASES, empty());
+		org.hamcrest.MatcherAssert.assertThat(listener.phases, hasItem(COMPARISON));
+	}
+
+	private static ChildBean childBean(String childString, int childInteger) {
+		return child().childString(childString).childInteger(childInteger).build();
+	}
+
+	private static class RecordingListener implements PhaseListener {
+		private final List<Phase> phases = new ArrayList<Phase>();
+		private final List<Object> beanTypes = new ArrayList<Object>();
+		private final List<Long> bytes = new ArrayList<Long>();
+		private final List<Long> nodes = new ArrayList<Long>();
+
+		@Override
+		public void phaseCompleted(Phase phase, Class<?> beanType, long elapsedNanos, long bytes, long nodes) {
+			this.phases.add(phase);
+			this.beanTypes.add(beanType);
+			this.bytes.add(bytes);
+			this.nodes.add(nodes);
+		}
+	}
+
+	public static class SystemPropertyListener implements PhaseListener {
+		private static final List<Phase> PHASES = new ArrayList<Phase>();
+
+		@Override
+		public void phaseCompleted(Phase phase, Class<?> beanType, long elapsedNanos, long bytes, long nodes) {
+			PHASES.add(phase);
+		}
+	}
+}
@@ -0,0 +1,130 @@
+/*
+ * Copyright 2013 Shazam Entertainment Limited
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License.
+ *
+ * You may obtain a copy of the License at http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions and limitations under the License.
+*/
+package com.shazam.shazamcrest;
+
+import static com.shazam.shazamcrest.MatcherAssert.assertThat;
+import static com.shazam.shazamcrest.matcher.Matchers.sameBeanAs;
+import static com.shazam.shazamcrest.matchers.ComparisonFailureMatchers.actual;
+import static com.shazam.shazamcrest.matchers.ComparisonFailureMatchers.checkThat;
+import static com.shazam.shazamcrest.matchers.ComparisonFailureMatchers.expected;
+import static org.hamcrest.CoreMatchers.containsString;
+import static org.hamcrest.CoreMatchers.not;
+import static org.junit.Assert.fail;
+
+import org.junit.ComparisonFailure;
+import org.junit.Test;
+
+/**
+ * Tests for {@link MatcherAssert} which verify the comparison of primitive arrays.
+ */
+public class MatcherAssertPrimitiveArraysTest {
+	private static final int LARGE = 4 * 1024 * 1024;
+
+	@Test
+	public void matchesLargeEqualArrays() {
+		assertThat(new ArraysBean(bytes(LARGE), ints(1000), longs(1000), doubles(1000)),
+				sameBeanAs(new ArraysBean(bytes(LARGE), ints(1000), longs(1000), doubles(1000))));
+	}
+
+	@SuppressWarnings("unchecked")
+	@Test
+	public void rendersWindowAroundFirstMismatchOfLargeByteArray() {
+		byte[] actualBytes = bytes(LARGE);
+		actualBytes[1000] = (byte) 0xff;
+
+		try {
+			assertThat(new ArraysBean(actualBytes, null, null, null), sameBeanAs(new ArraysBean(bytes(LARGE), null, null, null)));
+			fail("Exception expected");
+		} catch (ComparisonFailure e) {
+			checkThat(e,
+					expected(containsString("\"bytes\": \"byte[4194304] from 984: d8d9dadbdcdddedfe0e1e2e3e4e5e6e7e8e9eaebecedeeeff0f1f2f3f4f5f6f7\"")),
+					actual(containsString("\"bytes\": \"byte[4194304] from 984: d8d9dadbdcdddedfe0e1e2e3e4e5e6e7ffe9eaebecedeeeff0f1f2f3f4f5f6f7\"")));
+		}
+	}
+
+	@SuppressWarnings("unchecked")
+	@Test
+	public void rendersWindowAroundFirstMismatchOfLargeNumericArrays() {
+		int[] actualInts = ints(1000);
+		actualInts[500] = -1;
+		double[] actualDoubles = doubles(300);
+
+		try {
+			assertThat(new ArraysBean(null, actualInts, longs(1000), actualDoubles),
+					sameBeanAs(new ArraysBean(null, ints(1000), longs(1000), doubles(1000))));
+			fail("Exception expected");
+		} catch (ComparisonFailure e) {
+			checkThat(e,
+					expected(containsString("\"ints\": \"int[1000] from 484: [484, 485, 486, 487, 488, 489, 490, 491, 492, 493, 494, 495, 496, 497, 498, 499, 500, 501,")),
+					actual(containsString("\"ints\": \"int[1000] from 484: [484, 485, 486, 487, 488, 489, 490, 491, 492, 493, 494, 495, 496, 497, 498, 499, -1, 501,")),
+					expected(containsString("\"doubles\": \"double[1000] from 284: [284.0,")),
+					actual(containsString("\"doubles\": \"double[300] from 284: [284.0,")),
+					expected(containsString("\"longs\": \"long[1000] #")));
+		}
+	}
+
+	@SuppressWarnings("unchecked")
+	@Test
+	public void keepsSmallArraysAsJsonArrays() {
+		try {
+			assertThat(new ArraysBean(null, new int[] {1, 2}, null, null), sameBeanAs(new ArraysBean(null, new int[] {1, 3}, null, null)));
+			fail("Exception expected");
+		} catch (ComparisonFailure e) {
+			checkThat(e, expected(containsString("\"ints\": [\n    1,\n    3\n  ]")), actual(not(containsString("int["))));
+		}
+	}
+
+	private static byte[] bytes(int length) {
+		byte[] bytes = new byte[length];
+		for (int i = 0; i < length; i++) {
+			bytes[i] = (byte) i;
+		}
+		return bytes;
+	}
+
+	private static int[] ints(int length) {
+		int[] ints = new int[length];
+		for (int i = 0; i < length; i++) {
+			ints[i] = i;
+		}
+		return ints;
+	}
+
+	private static long[] longs(int length) {
+		long[] longs = new long[length];
+		for (int i = 0; i < length; i++) {
+			longs[i] = i;
+		}
+		return longs;
+	}
+
+	private static double[] doubles(int length) {
+		double[] doubles = new double[length];
+		for (int i = 0; i < length; i++) {
+			doubles[i] = i;
+		}
+		return doubles;
+	}
+
+	@SuppressWarnings("unused")
+	private static class ArraysBean {
+		private final byte[] bytes;
+		private final int[] ints;
+		private final long[] longs;
+		private final double[] doubles;
+
+		ArraysBean(byte[] bytes, int[] ints, long[] longs, double[] doubles) {
+			this.bytes = bytes;
+			this.ints = ints;
+			this.longs = longs;
+			this.doubles = doubles;
+		}
+	}
+}
@@ -0,0 +1,146 @@
+/*
+ * Copyright 2013 Shazam Entertainment Limited
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License.
+ *
+ * You may obtain a copy of the License at http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions and limitations under the License.
+*/
+package com.shazam.shazamcrest;
+
+import static com.shazam.shazamcrest.MatcherAssert.assertThat;
+import static com.shazam.shazamcrest.matcher.Matchers.sameJsonAs;
+import static com.shazam.shazamcrest.matchers.ComparisonFailureMatchers.actual;
+import static com.shazam.shazamcrest.matchers.ComparisonFailureMatchers.checkThat;
+import static com.shazam.shazamcrest.matchers.ComparisonFailureMatchers.expected;
+import static com.shazam.shazamcrest.model.ParentBean.Builder.parent;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.hamcrest.CoreMatchers.containsString;
+import static org.hamcrest.CoreMatchers.not;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.hasSize;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.io.StringReader;
+import java.nio.file.Files;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.shazam.shazamcrest.model.ParentBean;
+
+/**
+ * Tests for {@link MatcherAssert} which verify that beans can be compared with json documents.
+ */
+public class MatcherAssertSameJsonTest {
+	private static final String DOCUMENT = "{\"childBeanList\": [{\"childInteger\": 1.0, \"childString\": \"a\"}],"
+			+ " \"parentString\": \"parent\", \"childBean\": {\"childString\": \"child\", \"childInteger\": 1},"
+			+ " \"childBeanMap\": [], \"unset\": null}";
+
+	@Rule
+	public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+	@Test
+	public void matchesDocumentRegardlessOfFieldOrderAndNumberFormat() {
+		ParentBean actual = parent().parentString("parent").childBean("child", 1).addToChildBeanList("a", 1).build();
+
+		assertThat(actual, sameJsonAs(DOCUMENT));
+	}
+
+	@SuppressWarnings("unchecked")
+	@Test
+	public void failsWhenActualDiffersFromDocument() {
+		ParentBean actual = parent().parentString("parent").childBean("child", 2).addToChildBeanList("a", 1).build();
+
+		try {
+			assertThat(actual, sameJsonAs(DOCUMENT));
+			fail("Exception expected");
+		} catch (BeanComparisonFailure e) {
+			checkThat(e,
+					expected(containsString("\"childInteger\": 1\n")),
+					actual(containsString("\"childInteger\": 2\n")));
+			org.hamcrest.MatcherAssert.assertThat(e.getDifferences(), hasSize(1));
+			org.hamcrest.MatcherAssert.assertThat(e.getDifferences().get(0).getPath(), equalTo("/childBean/childInteger"));
+		}
+	}
+
+	@Test
+	public void ignoresFieldsOfDocument() {
+		ParentBean actual = parent().parentString("other").childBean("child", 1).addToChildBeanList("a", 1).build();
+
+		assertThat(actual, sameJsonAs(DOCUMENT).ignoring("parentString"));
+	}
+
+	@Test
+	public void matchesDocumentInFile() throws Exception {
+		File file = temporaryFolder.newFile("parent.json");
+		Files.write(file.toPath(), DOCUMENT.getBytes(UTF_8));
+		ParentBean actual = parent().parentString("parent").childBean("child", 1).addToChildBeanList("a", 1).build();
+
+		assertThat(actual, sameJsonAs(file.toPath()));
+	}
+
+	@Test(expected = AssertionError.class)
+	public void readsDocumentFromReaderOnlyOnce() {
+		ParentBean actual = parent().parentString("parent").childBean("other", 1).addToChildBeanList("a", 1).build();
+
+		assertThat(actual, sameJsonAs(new StringReader(DOCUMENT)));
+	}
+
+	@Test
+	public void appliesComparisonOptionsToDocument() {
+		ParentBean actual = parent().parentString("parent").childBean("child", 1)
+				.addToChildBeanList("b", 2).addToChildBeanList("a", 1).build();
+		String document = "{\"parentString\": \"parent\", \"childBean\": {\"childString\": \"child\", \"childInteger\": 1},"
+				+ " \"childBeanList\": [{\"childString\": \"a\", \"childInteger\": 1}, {\"childString\": \"b\", \"childInteger\": 2.0}],"
+				+ " \"childBeanMap\": []}";
+
+		assertThat(actual, sameJsonAs(document).anyOrder("childBeanList"));
+	}
+
+	@SuppressWarnings("unchecked")
+	@Test
+	public void comparesLargePrimitiveArraysInFull() {
+		int[] ints = new int[300];
+		StringBuilder document = new StringBuilder("{\"ints\": [");
+		for (int i = 0; i < ints.length; i++) {
+			ints[i] = i;
+			document.append(i == 0 ? "" : ", ").append(i == 150 ? -1 : i);
+		}
+		document.append("]}");
+
+		try {
+			assertThat(new IntsBean(ints), sameJsonAs(document.toString()));
+			fail("Exception expected");
+		} catch (BeanComparisonFailure e) {
+			checkThat(e, expected(containsString("-1")), actual(not(containsString("int["))));
+			org.hamcrest.MatcherAssert.assertThat(e.getDifferences().get(0).getPath(), equalTo("/ints/150"));
+		}
+	}
+
+	@Test
+	public void appliesToleranceToNumbersOfDocument() {
+		assertThat(new DoubleBean(1.0004), sameJsonAs("{\"value\": 1}").withTolerance(0.001));
+	}
+
+	@SuppressWarnings("unused")
+	private static class DoubleBean {
+		private final double value;
+
+		DoubleBean(double value) {
+			this.value = value;
+		}
+	}
+
+	@SuppressWarnings("unused")
+	private static class IntsBean {
+		private final int[] ints;
+
+		IntsBean(int[] ints) {
+			this.ints = ints;
+		}
+	}
+}
@@ -0,0 +1,102 @@
+/*
+ * Copyright 2013 Shazam Entertainment Limited
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License.
+ *
+ * You may obtain a copy of the License at http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions and limitations under the License.
+*/
+package com.shazam.shazamcrest;
+
+import static com.shazam.shazamcrest.MatcherAssert.assertThat;
+import static com.shazam.shazamcrest.matcher.Matchers.sameBeanAs;
+import static com.shazam.shazamcrest.matchers.ComparisonFailureMatchers.checkThat;
+import static com.shazam.shazamcrest.matchers.ComparisonFailureMatchers.expected;
+import static com.shazam.shazamcrest.matchers.ComparisonFailureMatchers.message;
+import static com.shazam.shazamcrest.model.ParentBean.Builder.parent;
+import static org.hamcrest.CoreMatchers.containsString;
+import static org.hamcrest.CoreMatchers.not;
+import static org.junit.Assert.fail;
+
+import org.junit.After;
+import org.junit.ComparisonFailure;
+import org.junit.Test;
+
+import com.shazam.shazamcrest.model.ParentBean;
+
+/**
+ * Tests for {@link MatcherAssert} which verify that large collections can be compared on a sample of their elements.
+ */
+public class MatcherAssertSamplingTest {
+	private static final String SEED_PROPERTY = "shazamcrest.sampleSeed";
+
+	@After
+	public void after() {
+		System.clearProperty(SEED_PROPERTY);
+	}
+
+	@Test
+	public void matchesLargeListsOnSample() {
+		assertThat(parentWithChildren(1000, -1), sameBeanAs(parentWithChildren(1000, -1)).withSampling(100, 10));
+	}
+
+	@SuppressWarnings("unchecked")
+	@Test
+	public void reportsSeedWhenElementOutsideSampleDiffers() {
+		System.setProperty(SEED_PROPERTY, "42");
+
+		try {
+			assertThat(parentWithChildren(1000, 500), sameBeanAs(parentWithChildren(1000, -1)).withSampling(100, 10));
+			fail("Exception expected");
+		} catch (ComparisonFailure e) {
+			checkThat(e,
+					message(containsString("childBeanList: compared a sample of 10 of 1000 elements, rerun with -Dshazamcrest.sampleSeed=42")),
+					message(containsString("hash")),
+					expected(not(containsString("\"child500\""))));
+		}
+	}
+
+	@SuppressWarnings("unchecked")
+	@Test
+	public void drawsSampleWithFixedSeedByDefault() {
+		try {
+			assertThat(parentWithChildren(1000, 500), sameBeanAs(parentWithChildren(1000, -1)).withSampling(100, 10));
+			fail("Exception expected");
+		} catch (ComparisonFailure e) {
+			checkThat(e, message(containsString("rerun with -Dshazamcrest.sampleSeed=0 to reproduce")));
+		}
+	}
+
+	@SuppressWarnings("unchecked")
+	@Test
+	public void reportsSampledElementsByTheirPosition() {
+		try {
+			assertThat(parent().addToChildBeanList("a", 1).addToChildBeanList("b", 2).addToChildBeanList("c", 3).build(),
+					sameBeanAs(parent().addToChildBeanList("a", 1).addToChildBeanList("x", 2).addToChildBeanList("c", 3).build()).withSampling(3, 2));
+			fail("Exception expected");
+		} catch (ComparisonFailure e) {
+			checkThat(e,
+					message(containsString("childBeanList.")),
+					expected(containsString("\"size\": 3")));
+		}
+	}
+
+	@Test
+	public void doesNotSampleSmallerCollections() {
+		assertThat(parentWithChildren(99, -1), sameBeanAs(parentWithChildren(99, -1)).withSampling(100, 10));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void rejectsSampleAsLargeAsMinimumSize() {
+		sameBeanAs(parent().build()).withSampling(10, 10);
+	}
+
+	private static ParentBean parentWithChildren(int size, int differentChild) {
+		ParentBean.Builder parent = parent();
+		for (int i = 0; i < size; i++) {
+			parent.addToChildBeanList(i == differentChild ? "different" : "child" + i, i);
+		}
+		return parent.build();
+	}
+}
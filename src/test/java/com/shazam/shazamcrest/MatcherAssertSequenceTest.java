@@ -0,0 +1,189 @@
+/*
+ * Copyright 2013 Shazam Entertainment Limited
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License.
+ *
+ * You may obtain a copy of the License at http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions and limitations under the License.
+*/
+package com.shazam.shazamcrest;
+
+import static com.shazam.shazamcrest.MatcherAssert.assertThat;
+import static com.shazam.shazamcrest.matcher.Matchers.sameBeanAs;
+import static com.shazam.shazamcrest.matchers.ComparisonFailureMatchers.actual;
+import static com.shazam.shazamcrest.matchers.ComparisonFailureMatchers.checkThat;
+import static com.shazam.shazamcrest.matchers.ComparisonFailureMatchers.expected;
+import static com.shazam.shazamcrest.matchers.ComparisonFailureMatchers.message;
+import static com.shazam.shazamcrest.model.ChildBean.Builder.child;
+import static java.util.Arrays.asList;
+import static org.hamcrest.CoreMatchers.containsString;
+import static org.hamcrest.Matchers.equalTo;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.junit.ComparisonFailure;
+import org.junit.Test;
+
+import com.shazam.shazamcrest.matcher.CustomisableMatcher;
+import com.shazam.shazamcrest.model.ChildBean;
+
+/**
+ * Tests for {@link MatcherAssert} which verify that iterators, streams and iterables are compared element by element.
+ */
+public class MatcherAssertSequenceTest {
+	private static final List<ChildBean> EXPECTED = asList(
+			child().childString("a").childInteger(0).build(),
+			child().childString("b").childInteger(1).build(),
+			child().childString("c").childInteger(2).build());
+
+	@Test
+	public void matchesStreamWithList() {
+		Stream<ChildBean> actual = Stream.of(
+				child().childString("a").childInteger(0).build(),
+				child().childString("b").childInteger(1).build(),
+				child().childString("c").childInteger(2).build());
+
+		assertThat(actual, sameRowsAs(EXPECTED));
+	}
+
+	@Test
+	public void matchesIteratorWithIgnoredFields() {
+		assertThat(new Rows("x", Integer.MAX_VALUE).limit(3), sameRowsAs(EXPECTED).ignoring("childString"));
+	}
+
+	@SuppressWarnings("unchecked")
+	@Test
+	public void reportsFirstDifferingElementWithoutPullingFurther() {
+		Rows actual = new Rows("a", Integer.MAX_VALUE);
+
+		try {
+			assertThat(actual, sameRowsAs(EXPECTED));
+			fail("Exception expected");
+		} catch (ComparisonFailure e) {
+			checkThat(e,
+					message(containsString("[1]: childString")),
+					expected(containsString("\"childString\": \"b\"")),
+					actual(containsString("\"childString\": \"a\"")));
+			org.hamcrest.MatcherAssert.assertThat(actual.pulled, equalTo(2));
+		}
+	}
+
+	@SuppressWarnings("unchecked")
+	@Test
+	public void reportsMissingElement() {
+		try {
+			assertThat(EXPECTED.subList(0, 2).iterator(), sameRowsAs(EXPECTED));
+			fail("Exception expected");
+		} catch (ComparisonFailure e) {
+			checkThat(e,
+					message(containsString("[2]: missing element")),
+					expected(containsString("\"childString\": \"c\"")));
+		}
+	}
+
+	@SuppressWarnings("unchecked")
+	@Test
+	public void reportsMissingElementOfExpectedIterator() {
+		try {
+			assertThat(EXPECTED.subList(0, 2), sameBeanAs((Object) EXPECTED.iterator()));
+			fail("Exception expected");
+		} catch (ComparisonFailure e) {
+			checkThat(e,
+					message(containsString("[2]: missing element")),
+					expected(containsString("\"childString\": \"c\"")));
+		}
+	}
+
+	@SuppressWarnings("unchecked")
+	@Test
+	public void reportsUnexpectedElement() {
+		try {
+			assertThat(new Rows("x", 4), sameRowsAs(EXPECTED).ignoring("childString"));
+			fail("Exception expected");
+		} catch (ComparisonFailure e) {
+			checkThat(e,
+					message(containsString("[3]: unexpected element")),
+					actual(containsString("\"childInteger\": 3")));
+		}
+	}
+
+	@Test
+	public void stopsAtSequenceLimit() {
+		Rows actual = new Rows("x", Integer.MAX_VALUE);
+
+		assertThat(actual, sameRowsAs(EXPECTED).ignoring("childString").withSequenceLimit(2));
+		org.hamcrest.MatcherAssert.assertThat(actual.pulled, equalTo(2));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void rejectsSequenceLimitBelowOne() {
+		sameRowsAs(EXPECTED).withSequenceLimit(0);
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void rejectsExpectedIteratorComparedAgain() {
+		CustomisableMatcher<Object> matcher = sameBeanAs((Object) EXPECTED.iterator());
+
+		assertThat(EXPECTED, matcher);
+		assertThat(EXPECTED.iterator(), matcher);
+	}
+
+	@Test(expected = ComparisonFailure.class)
+	public void comparesIterableAgainWhenAssertedAgain() {
+		final List<ChildBean> rows = new ArrayList<ChildBean>(EXPECTED);
+		Iterable<ChildBean> actual = new Iterable<ChildBean>() {
+			@Override
+			public Iterator<ChildBean> iterator() {
+				return rows.iterator();
+			}
+		};
+		CustomisableMatcher<Object> matcher = sameRowsAs(EXPECTED);
+		assertThat(actual, matcher);
+
+		rows.remove(2);
+		assertThat(actual, matcher);
+	}
+
+	private static CustomisableMatcher<Object> sameRowsAs(List<ChildBean> expected) {
+		return sameBeanAs((Object) expected);
+	}
+
+	/**
+	 * Produces the rows of a cursor on demand, with increasing childInteger, counting the rows pulled.
+	 */
+	private static class Rows implements Iterator<ChildBean> {
+		private final String childString;
+		private int size;
+		private int pulled;
+
+		Rows(String childString, int size) {
+			this.childString = childString;
+			this.size = size;
+		}
+
+		Rows limit(int size) {
+			this.size = size;
+			return this;
+		}
+
+		@Override
+		public boolean hasNext() {
+			return pulled < size;
+		}
+
+		@Override
+		public ChildBean next() {
+			return child().childString(childString).childInteger(pulled++).build();
+		}
+
+		@Override
+		public void remove() {
+			throw new UnsupportedOperationException();
+		}
+	}
+}
@@ -0,0 +1,252 @@
+/*
+ * Copyright 2013 Shazam Entertainment Limited
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License.
+ *
+ * You may obtain a copy of the License at http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions and limitations under the License.
+*/
+package com.shazam.shazamcrest;
+
+import static com.google.common.collect.Sets.newLinkedHashSet;
+import static com.shazam.shazamcrest.MatcherAssert.assertThat;
+import static com.shazam.shazamcrest.matchers.ComparisonFailureMatchers.checkThat;
+import static com.shazam.shazamcrest.matchers.ComparisonFailureMatchers.expected;
+import static com.shazam.shazamcrest.matcher.Matchers.sameBeanAsBinarySnapshot;
+import static com.shazam.shazamcrest.matcher.Matchers.sameBeanAsSnapshot;
+import static com.shazam.shazamcrest.model.Bean.Builder.bean;
+import static com.shazam.shazamcrest.model.ParentBean.Builder.parent;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.Arrays.asList;
+import static org.hamcrest.CoreMatchers.allOf;
+import static org.hamcrest.CoreMatchers.containsString;
+import static org.hamcrest.CoreMatchers.not;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.shazam.shazamcrest.model.Bean;
+import com.shazam.shazamcrest.model.ParentBean;
+
+/**
+ * Tests for {@link MatcherAssert} which verify that beans can be compared with json snapshots.
+ */
+public class MatcherAssertSnapshotTest {
+	private static final String UPDATE_PROPERTY = "shazamcrest.updateSnapshots";
+	private static final String DIRECTORY_PROPERTY = "shazamcrest.snapshotDirectory";
+
+	@Rule
+	public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+	@After
+	public void after() {
+		System.clearProperty(UPDATE_PROPERTY);
+		System.clearProperty(DIRECTORY_PROPERTY);
+	}
+
+	@Test
+	public void matchesSnapshotUnderTestResources() {
+		ParentBean actual = parent().parentString("parent").childBean("child", 1).addToChildBeanList("a", 1).build();
+
+		assertThat(actual, sameBeanAsSnapshot("parentBean"));
+	}
+
+	@SuppressWarnings("unchecked")
+	@Test
+	public void failsWhenActualDiffersFromSnapshot() {
+		ParentBean actual = parent().parentString("parent").childBean("child", 2).addToChildBeanList("a", 1).build();
+
+		try {
+			assertThat(actual, sameBeanAsSnapshot("parentBean"));
+			fail("Exception expected");
+		} catch (BeanComparisonFailure e) {
+			checkThat(e, expected(containsString("\"childInteger\": 1")));
+		}
+	}
+
+	@Test
+	public void ignoresFieldsOfSnapshot() {
+		ParentBean actual = parent().parentString("other").childBean("child", 1).addToChildBeanList("a", 1).build();
+
+		assertThat(actual, sameBeanAsSnapshot("parentBean").ignoring("parentString"));
+	}
+
+	@Test
+	public void recordsSnapshotWhenUpdating() {
+		System.setProperty(DIRECTORY_PROPERTY, temporaryFolder.getRoot().getPath());
+		Bean recorded = bean().string("a").set(newLinkedHashSet(asList(bean().integer(1).build(), bean().integer(2).build()))).build();
+		Bean actual = bean().string("a").set(newLinkedHashSet(asList(bean().integer(2).build(), bean().integer(1).build()))).build();
+
+		System.setProperty(UPDATE_PROPERTY, "true");
+		assertThat(recorded, sameBeanAsSnapshot("recorded"));
+		System.clearProperty(UPDATE_PROPERTY);
+
+		org.hamcrest.MatcherAssert.assertThat(new File(temporaryFolder.getRoot(), "recorded.json").isFile(), org.hamcrest.CoreMatchers.is(true));
+		assertThat(actual, sameBeanAsSnapshot("recorded"));
+	}
+
+	@Test
+	public void sortsSetsOfSnapshotAgainWhenIgnoringTheirFields() {
+		System.setProperty(DIRECTORY_PROPERTY, temporaryFolder.getRoot().getPath());
+		Bean recorded = bean().set(newLinkedHashSet(asList(bean().string("b").integer(1).build(), bean().string("a").integer(2).build()))).build();
+		Bean actual = bean().set(newLinkedHashSet(asList(bean().string("x").integer(2).build(), bean().string("y").integer(1).build()))).build();
+
+		System.setProperty(UPDATE_PROPERTY, "true");
+		assertThat(recorded, sameBeanAsSnapshot("set"));
+		System.clearProperty(UPDATE_PROPERTY);
+
+		assertThat(actual, sameBeanAsSnapshot("set").ignoring("set.string"));
+	}
+
+	@Test
+	public void failsWhenSnapshotDoesNotExist() {
+		System.setProperty(DIRECTORY_PROPERTY, temporaryFolder.getRoot().getPath());
+
+		try {
+			assertThat(bean().build(), sameBeanAsSnapshot("missing"));
+			fail("Exception expected");
+		} catch (AssertionError e) {
+			org.hamcrest.MatcherAssert.assertThat(e.getMessage(), containsString("missing.json does not exist"));
+		}
+	}
+
+	@Test
+	public void recordsAndMatchesBinarySnapshot() {
+		System.setProperty(DIRECTORY_PROPERTY, temporaryFolder.getRoot().getPath());
+		ParentBean recorded = parent().parentString("parent").childBean("child", 1).addToChildBeanList("a", 1).build();
+
+		System.setProperty(UPDATE_PROPERTY, "true");
+		assertThat(recorded, sameBeanAsBinarySnapshot("binary"));
+		System.clearProperty(UPDATE_PROPERTY);
+
+		assertThat(recorded, sameBeanAsBinarySnapshot("binary"));
+		assertThat(parent().parentString("other").childBean("child", 1).addToChildBeanList("a", 1).build(),
+				sameBeanAsBinarySnapshot("binary").ignoring("parentString"));
+	}
+
+	@SuppressWarnings("unchecked")
+	@Test
+	public void decodesBinarySnapshotOnMismatch() {
+		System.setProperty(DIRECTORY_PROPERTY, temporaryFolder.getRoot().getPath());
+		System.setProperty(UPDATE_PROPERTY, "true");
+		assertThat(parent().childBean("child", 1).build(), sameBeanAsBinarySnapshot("binary"));
+		System.clearProperty(UPDATE_PROPERTY);
+
+		try {
+			assertThat(parent().childBean("child", 2).build(), sameBeanAsBinarySnapshot("binary"));
+			fail("Exception expected");
+		} catch (BeanComparisonFailure e) {
+			checkThat(e, expected(containsString("\"childInteger\": 1")));
+		}
+	}
+
+	@Test
+	public void matchesBinarySnapshotByHashWithoutDecodingIt() throws Exception {
+		System.setProperty(DIRECTORY_PROPERTY, temporaryFolder.getRoot().getPath());
+		ParentBean recorded = parent().parentString("parent").build();
+		System.setProperty(UPDATE_PROPERTY, "true");
+		assertThat(recorded, sameBeanAsBinarySnapshot("binary"));
+		System.clearProperty(UPDATE_PROPERTY);
+
+		File snapshot = new File(temporaryFolder.getRoot(), "binary.bin");
+		byte[] header = Arrays.copyOf(Files.readAllBytes(snapshot.toPath()), 4 + 16);
+		Files.write(snapshot.toPath(), header);
+
+		assertThat(recorded, sameBeanAsBinarySnapshot("binary"));
+	}
+
+	@Test
+	public void recordsLargePrimitiveArraysInFull() throws Exception {
+		System.setProperty(DIRECTORY_PROPERTY, temporaryFolder.getRoot().getPath());
+		int[] ints = new int[300];
+		for (int i = 0; i < ints.length; i++) {
+			ints[i] = i;
+		}
+		System.setProperty(UPDATE_PROPERTY, "true");
+		assertThat(new IntsBean(ints), sameBeanAsSnapshot("ints"));
+		System.clearProperty(UPDATE_PROPERTY);
+
+		String snapshot = new String(Files.readAllBytes(new File(temporaryFolder.getRoot(), "ints.json").toPath()), UTF_8);
+		org.hamcrest.MatcherAssert.assertThat(snapshot, allOf(containsString("299"), not(containsString("int["))));
+		assertThat(new IntsBean(ints), sameBeanAsSnapshot("ints"));
+	}
+
+	@Test
+	public void appliesToleranceToNumbersOfBinarySnapshot() {
+		System.setProperty(DIRECTORY_PROPERTY, temporaryFolder.getRoot().getPath());
+		System.setProperty(UPDATE_PROPERTY, "true");
+		assertThat(new DoubleBean(1.0), sameBeanAsBinarySnapshot("double"));
+		System.clearProperty(UPDATE_PROPERTY);
+
+		assertThat(new DoubleBean(1.0004), sameBeanAsBinarySnapshot("double").withTolerance(0.001));
+	}
+
+	@Test
+	public void pairsElementsOfSnapshotByNumericKey() {
+		System.setProperty(DIRECTORY_PROPERTY, temporaryFolder.getRoot().getPath());
+		System.setProperty(UPDATE_PROPERTY, "true");
+		assertThat(new Items(new Item(1, "a"), new Item(2, "b")), sameBeanAsSnapshot("items"));
+		System.clearProperty(UPDATE_PROPERTY);
+
+		assertThat(new Items(new Item(2, "b"), new Item(1, "a")), sameBeanAsSnapshot("items").byKey("items", "id"));
+		assertThat(new Items(new Item(2, "b"), new Item(1, "a")), sameBeanAsSnapshot("items").anyOrder());
+	}
+
+	@Test
+	public void pairsElementsOfBinarySnapshotByNumericKey() {
+		System.setProperty(DIRECTORY_PROPERTY, temporaryFolder.getRoot().getPath());
+		System.setProperty(UPDATE_PROPERTY, "true");
+		assertThat(new Items(new Item(1, "a"), new Item(2, "b")), sameBeanAsBinarySnapshot("items"));
+		System.clearProperty(UPDATE_PROPERTY);
+
+		assertThat(new Items(new Item(2, "b"), new Item(1, "a")), sameBeanAsBinarySnapshot("items").byKey("items", "id"));
+		assertThat(new Items(new Item(2, "b"), new Item(1, "a")), sameBeanAsBinarySnapshot("items").anyOrder());
+	}
+
+	@SuppressWarnings("unused")
+	private static class Items {
+		private final List<Item> items;
+
+		Items(Item... items) {
+			this.items = asList(items);
+		}
+	}
+
+	@SuppressWarnings("unused")
+	private static class Item {
+		private final int id;
+		private final String name;
+
+		Item(int id, String name) {
+			this.id = id;
+			this.name = name;
+		}
+	}
+
+	@SuppressWarnings("unused")
+	private static class DoubleBean {
+		private final double value;
+
+		DoubleBean(double value) {
+			this.value = value;
+		}
+	}
+
+	@SuppressWarnings("unused")
+	private static class IntsBean {
+		private final int[] ints;
+
+		IntsBean(int[] ints) {
+			this.ints = ints;
+		}
+	}
+}
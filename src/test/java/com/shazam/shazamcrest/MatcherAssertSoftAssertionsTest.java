@@ -0,0 +1,143 @@
+/*
+ * Copyright 2013 Shazam Entertainment Limited
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License.
+ *
+ * You may obtain a copy of the License at http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions and limitations under the License.
+*/
+package com.shazam.shazamcrest;
+
+import static com.shazam.shazamcrest.matcher.Matchers.sameBeanAs;
+import static com.shazam.shazamcrest.matchers.ComparisonFailureMatchers.actual;
+import static com.shazam.shazamcrest.matchers.ComparisonFailureMatchers.checkThat;
+import static com.shazam.shazamcrest.matchers.ComparisonFailureMatchers.expected;
+import static com.shazam.shazamcrest.matchers.ComparisonFailureMatchers.message;
+import static com.shazam.shazamcrest.model.ChildBean.Builder.child;
+import static com.shazam.shazamcrest.model.ParentBean.Builder.parent;
+import static org.hamcrest.CoreMatchers.containsString;
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.not;
+import static org.hamcrest.Matchers.hasSize;
+import static org.junit.Assert.fail;
+
+import org.junit.Test;
+
+import com.shazam.shazamcrest.model.ChildBean;
+import com.shazam.shazamcrest.model.ParentBean;
+
+/**
+ * Tests for {@link SoftAssertions}.
+ */
+public class MatcherAssertSoftAssertionsTest {
+
+	@Test
+	public void passesWhenAllAssertionsMatch() {
+		SoftAssertions softly = new SoftAssertions();
+
+		softly.assertThat(childBean("a", 1), sameBeanAs(childBean("a", 1)));
+		softly.assertThat(childBean("b", 2), sameBeanAs(childBean("b", 2)));
+
+		softly.assertAll();
+	}
+
+	@SuppressWarnings("unchecked")
+	@Test
+	public void reportsAllFailedAssertionsTogether() {
+		SoftAssertions softly = new SoftAssertions();
+		softly.assertThat("first", childBean("a", 1), sameBeanAs(childBean("a", 2)));
+		softly.assertThat("second", childBean("a", 1), sameBeanAs(childBean("a", 1)));
+		softly.assertThat("third", childBean("x", 1), sameBeanAs(childBean("b", 1)));
+
+		try {
+			softly.assertAll();
+			fail("Exception expected");
+		} catch (BeanComparisonFailure e) {
+			checkThat(e,
+					message(containsString("2 soft assertions failed")),
+					message(containsString("[1] first")),
+					message(containsString("[2] third")),
+					message(not(containsString("second"))),
+					expected(containsString("[1] /childInteger: 2")),
+					actual(containsString("[1] /childInteger: 1")),
+					expected(containsString("[2] /childString: \"b\"")),
+					actual(containsString("[2] /childString: \"x\"")));
+			org.hamcrest.MatcherAssert.assertThat(e.getDifferences(), hasSize(2));
+		}
+	}
+
+	@SuppressWarnings("unchecked")
+	@Test
+	public void reportsIdenticalFailuresOnce() {
+		SoftAssertions softly = new SoftAssertions();
+		for (int i = 0; i < 3; i++) {
+			softly.assertThat(childBean("a", 1), sameBeanAs(childBean("a", 2)));
+		}
+
+		try {
+			softly.assertAll();
+			fail("Exception expected");
+		} catch (BeanComparisonFailure e) {
+			checkThat(e,
+					message(containsString("1 soft assertions failed")),
+					message(containsString("[1] (3 times)")));
+			org.hamcrest.MatcherAssert.assertThat(e.getDifferences(), hasSize(1));
+		}
+	}
+
+	@Test
+	public void keepsTheFirstDifferencesOfEachAssertion() {
+		SoftAssertions softly = new SoftAssertions(1);
+		ParentBean.Builder expected = parent().childBean(childBean("a", 1)).parentString("parent");
+		ParentBean.Builder actual = parent().childBean(childBean("b", 2)).parentString("other");
+		softly.assertThat(actual, sameBeanAs(expected));
+
+		try {
+			softly.assertAll();
+			fail("Exception expected");
+		} catch (BeanComparisonFailure e) {
+			org.hamcrest.MatcherAssert.assertThat(e.getDifferences(), hasSize(1));
+			org.hamcrest.MatcherAssert.assertThat(e.getMessage(), containsString("stopped after 1 differences"));
+		}
+	}
+
+	@Test
+	public void reportsFailuresOfOtherMatchers() {
+		SoftAssertions softly = new SoftAssertions();
+		softly.assertThat("a number", 1, equalTo(2));
+
+		try {
+			softly.assertAll();
+			fail("Exception expected");
+		} catch (BeanComparisonFailure e) {
+			fail("Comparison failure not expected");
+		} catch (AssertionError e) {
+			org.hamcrest.MatcherAssert.assertThat(e.getMessage(), containsString("[1] a number"));
+			org.hamcrest.MatcherAssert.assertThat(e.getMessage(), containsString("Expected: <2>"));
+			org.hamcrest.MatcherAssert.assertThat(e.getMessage(), containsString("but: was <1>"));
+		}
+	}
+
+	@Test
+	public void passesWhenNumbersHaveTheSameValue() {
+		SoftAssertions softly = new SoftAssertions();
+
+		softly.assertThat(new Value(1.0), sameBeanAs(new Value(1)));
+
+		softly.assertAll();
+	}
+
+	private static ChildBean.Builder childBean(String childString, int childInteger) {
+		return child().childString(childString).childInteger(childInteger);
+	}
+
+	@SuppressWarnings("unused")
+	private static class Value {
+		private final Object value;
+
+		Value(Object value) {
+			this.value = value;
+		}
+	}
+}
@@ -0,0 +1,113 @@
+/*
+ * Copyright 2013 Shazam Entertainment Limited
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License.
+ *
+ * You may obtain a copy of the License at http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions and limitations under the License.
+*/
+package com.shazam.shazamcrest;
+
+import static com.shazam.shazamcrest.MatcherAssert.assertThat;
+import static com.shazam.shazamcrest.matcher.Matchers.sameBeanAs;
+import static com.shazam.shazamcrest.model.BeanWithPrimitives.Builder.beanWithPrimitives;
+import static java.util.Arrays.asList;
+
+import java.util.List;
+
+import org.junit.ComparisonFailure;
+import org.junit.Test;
+
+import com.shazam.shazamcrest.model.BeanWithPrimitives;
+
+/**
+ * Tests for {@link MatcherAssert} which verify that floats and doubles can be compared with a tolerance.
+ */
+public class MatcherAssertToleranceTest {
+
+	@Test
+	public void matchesNumbersWithinGlobalTolerance() {
+		BeanWithPrimitives expected = beanWithPrimitives().beanFloat(1.0f).beanDouble(2.0).build();
+		BeanWithPrimitives actual = beanWithPrimitives().beanFloat(1.0004f).beanDouble(1.9995).build();
+
+		assertThat(actual, sameBeanAs(expected).withTolerance(0.001));
+	}
+
+	@Test(expected = ComparisonFailure.class)
+	public void failsWhenNumbersAreOutsideGlobalTolerance() {
+		BeanWithPrimitives expected = beanWithPrimitives().beanDouble(2.0).build();
+		BeanWithPrimitives actual = beanWithPrimitives().beanDouble(2.01).build();
+
+		assertThat(actual, sameBeanAs(expected).withTolerance(0.001));
+	}
+
+	@Test(expected = ComparisonFailure.class)
+	public void doesNotApplyToleranceToIntegers() {
+		BeanWithPrimitives expected = beanWithPrimitives().beanInt(1).build();
+		BeanWithPrimitives actual = beanWithPrimitives().beanInt(2).build();
+
+		assertThat(actual, sameBeanAs(expected).withTolerance(5));
+	}
+
+	@Test
+	public void pathToleranceTakesPrecedence() {
+		BeanWithPrimitives expected = beanWithPrimitives().beanFloat(1.0f).beanDouble(2.0).build();
+		BeanWithPrimitives actual = beanWithPrimitives().beanFloat(1.0f).beanDouble(2.5).build();
+
+		assertThat(actual, sameBeanAs(expected).withTolerance(0.001).withTolerance("beanDouble", 1));
+	}
+
+	@Test(expected = ComparisonFailure.class)
+	public void typeToleranceOnlyAppliesToThatType() {
+		BeanWithPrimitives expected = beanWithPrimitives().beanFloat(1.0f).beanDouble(2.0).build();
+		BeanWithPrimitives actual = beanWithPrimitives().beanFloat(1.5f).beanDouble(2.5).build();
+
+		assertThat(actual, sameBeanAs(expected).withTolerance(float.class, 1));
+	}
+
+	@Test
+	public void appliesToleranceToElementsOfCollectionsAndArrays() {
+		Samples expected = new Samples(asList(1.0, 2.0), doubles(1000, 0));
+		Samples actual = new Samples(asList(1.0001, 1.9999), doubles(1000, 0.0001));
+
+		assertThat(actual, sameBeanAs(expected).withTolerance("list", 0.001).withTolerance(double.class, 0.001));
+	}
+
+	@Test(expected = ComparisonFailure.class)
+	public void failsWhenAnElementOfLargeArrayIsOutsideTolerance() {
+		double[] actualArray = doubles(1000, 0);
+		actualArray[999] = 2000;
+
+		assertThat(new Samples(null, actualArray), sameBeanAs(new Samples(null, doubles(1000, 0))).withTolerance(0.001));
+	}
+
+	@Test
+	public void matchesTopLevelNumberWithinTolerance() {
+		assertThat(1.0001, sameBeanAs(1.0).withTolerance(0.001));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void throwsIllegalArgumentExceptionWhenTypeIsNotFloatingPoint() {
+		sameBeanAs(new Samples(null, null)).withTolerance(int.class, 1);
+	}
+
+	private static double[] doubles(int length, double delta) {
+		double[] doubles = new double[length];
+		for (int i = 0; i < length; i++) {
+			doubles[i] = i + delta;
+		}
+		return doubles;
+	}
+
+	@SuppressWarnings("unused")
+	private static class Samples {
+		private final List<Double> list;
+		private final double[] array;
+
+		Samples(List<Double> list, double[] array) {
+			this.list = list;
+			this.array = array;
+		}
+	}
+}
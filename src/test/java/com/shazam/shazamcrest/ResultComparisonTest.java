@@ -79,4 +79,22 @@ public class ResultComparisonTest {
 	public void doesNotThrowComparisonFailureWhenStringDescriptionIsPassedIn() {
 		ResultComparison.containsComparableJson("any reason", new StringDescription());
 	}
+
+	@SuppressWarnings("unchecked")
+	@Test
+	public void trimsExpectedAndActualWhenContextLinesAreSet() {
+		shazamDescription.setExpected("a\nb\nc\nd");
+		shazamDescription.setActual("a\nb\nx\nd");
+		System.setProperty(ComparisonWindow.CONTEXT_LINES_PROPERTY, "0");
+		try {
+			ResultComparison.containsComparableJson(NO_REASON, shazamDescription);
+			fail();
+		} catch (ComparisonFailure e) {
+			checkThat(e,
+					expected(equalTo("[... lines 1-2 omitted ...]\nc\n[... lines 4-4 omitted ...]")),
+					actual(equalTo("[... lines 1-2 omitted ...]\nx\n[... lines 4-4 omitted ...]")));
+		} finally {
+			System.clearProperty(ComparisonWindow.CONTEXT_LINES_PROPERTY);
+		}
+	}
 }
@@ -0,0 +1,108 @@
+/*
+ * Copyright 2013 Shazam Entertainment Limited
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License.
+ *
+ * You may obtain a copy of the License at http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions and limitations under the License.
+*/
+package com.shazam.shazamcrest.jfr;
+
+import static com.shazam.shazamcrest.MatcherAssert.assertThat;
+import static com.shazam.shazamcrest.matcher.Matchers.sameBeanAs;
+import static com.shazam.shazamcrest.model.cyclic.CircularReferenceBean.Builder.circularReferenceBean;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.hasItem;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.shazam.shazamcrest.model.cyclic.CircularReferenceBean;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+/**
+ * Tests for {@link JdkFlightRecorderEvents}, recording the comparison of beans with circular references.
+ */
+public class JdkFlightRecorderEventsTest {
+	private static final String MATCHER_PHASE = "com.shazam.shazamcrest.MatcherPhase";
+	private static final String CYCLE_DETECTION = "com.shazam.shazamcrest.CycleDetection";
+	private static final String GRAPH_WRITE = "com.shazam.shazamcrest.GraphWrite";
+
+	private Recording recording;
+	private Path file;
+
+	@Before
+	public void startRecording() throws IOException {
+		file = Files.createTempFile("shazamcrest", ".jfr");
+		recording = new Recording();
+		recording.enable(MATCHER_PHASE);
+		recording.enable(CYCLE_DETECTION);
+		recording.enable(GRAPH_WRITE);
+		recording.start();
+	}
+
+	@After
+	public void closeRecording() throws IOException {
+		recording.close();
+		Files.deleteIfExists(file);
+	}
+
+	@Test
+	public void recordsPhasesTaggedWithTheBeanType() throws IOException {
+		assertThat(circularReferenceBean("parent", "child").build(), sameBeanAs(circularReferenceBean("parent", "child").build()));
+
+		List<String> phases = new ArrayList<String>();
+		for (RecordedEvent event : named(MATCHER_PHASE, recordedEvents())) {
+			phases.add(event.getString("phase"));
+			if ("COMPARISON".equals(event.getString("phase"))) {
+				org.hamcrest.MatcherAssert.assertThat(event.getClass("beanType").getName(), equalTo(CircularReferenceBean.class.getName()));
+				org.hamcrest.MatcherAssert.assertThat(event.getLong("nodes"), greaterThan(0L));
+			}
+		}
+		org.hamcrest.MatcherAssert.assertThat(phases, hasItem("CYCLE_DETECTION"));
+		org.hamcrest.MatcherAssert.assertThat(phases, hasItem("SERIALISATION"));
+		org.hamcrest.MatcherAssert.assertThat(phases, hasItem("COMPARISON"));
+	}
+
+	@Test
+	public void recordsCycleDetectionAndGraphWrites() throws IOException {
+		assertThat(circularReferenceBean("parent", "child").build(), sameBeanAs(circularReferenceBean("parent", "child").build()));
+
+		List<RecordedEvent> events = recordedEvents();
+		List<RecordedEvent> cycleDetections = named(CYCLE_DETECTION, events);
+		org.hamcrest.MatcherAssert.assertThat(cycleDetections.size(), greaterThan(0));
+		org.hamcrest.MatcherAssert.assertThat(cycleDetections.get(0).getLong("visitedObjects"), greaterThan(0L));
+		org.hamcrest.MatcherAssert.assertThat(cycleDetections.get(0).getInt("circularReferenceTypes"), greaterThan(0));
+		List<RecordedEvent> graphWrites = named(GRAPH_WRITE, events);
+		org.hamcrest.MatcherAssert.assertThat(graphWrites.size(), greaterThan(0));
+		org.hamcrest.MatcherAssert.assertThat(graphWrites.get(0).getLong("nodes"), greaterThan(0L));
+	}
+
+	private List<RecordedEvent> recordedEvents() throws IOException {
+		recording.stop();
+		recording.dump(file);
+		return RecordingFile.readAllEvents(file);
+	}
+
+	private static List<RecordedEvent> named(String name, List<RecordedEvent> events) {
+		List<RecordedEvent> namedEvents = new ArrayList<RecordedEvent>();
+		for (RecordedEvent event : events) {
+			if (event.getEventType().getName().equals(name)) {
+				namedEvents.add(event);
+			}
+		}
+		return namedEvents;
+	}
+}